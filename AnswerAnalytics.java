@@ -0,0 +1,359 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AnswerAnalytics {
+    static final int DEFAULT_CHUNK_RECORDS = 1 << 20;
+
+    private static final int READ_BUFFER_RECORDS = 1 << 16;
+    private static final int MAX_OPTIONS = 26;
+    private static final int TIME_BUCKETS = Metrics.bucketIndex(AnswerLog.MAX_MILLIS) + 1;
+    private static final int MIN_ATTEMPTS_TO_RANK = 20;
+
+    // Counts for one question. Answer times go into the same log-linear buckets as Metrics (16
+    // per power of two, so a percentile is within about 3% of the true value), which keeps a
+    // question's footprint fixed at about 1 KB however many attempts it has.
+    static final class QuestionStats {
+        private final int questionId;
+        private int attempts;
+        private int correct;
+        private int skipped;
+        private int timedOut;
+        private int invalid;
+        private int maxMillis;
+        private final int[] options = new int[MAX_OPTIONS];
+        private final int[] times = new int[TIME_BUCKETS];
+
+        QuestionStats(int questionId) {
+            this.questionId = questionId;
+        }
+
+        void add(int choice, boolean isCorrect, int millis) {
+            attempts++;
+            if (isCorrect) {
+                correct++;
+            }
+            if (choice >= 0) {
+                options[choice]++;
+            } else if (choice == AnswerLog.SKIPPED) {
+                skipped++;
+            } else if (choice == AnswerLog.TIMED_OUT) {
+                timedOut++;
+            } else {
+                invalid++;
+            }
+            times[Metrics.bucketIndex(millis)]++;
+            maxMillis = Math.max(maxMillis, millis);
+        }
+
+        void merge(QuestionStats other) {
+            attempts += other.attempts;
+            correct += other.correct;
+            skipped += other.skipped;
+            timedOut += other.timedOut;
+            invalid += other.invalid;
+            maxMillis = Math.max(maxMillis, other.maxMillis);
+            for (int i = 0; i < MAX_OPTIONS; i++) {
+                options[i] += other.options[i];
+            }
+            for (int i = 0; i < TIME_BUCKETS; i++) {
+                times[i] += other.times[i];
+            }
+        }
+
+        public int getQuestionId() {
+            return questionId;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public int getCorrect() {
+            return correct;
+        }
+
+        public int getSkipped() {
+            return skipped;
+        }
+
+        public int getTimedOut() {
+            return timedOut;
+        }
+
+        public int getOptionCount(int option) {
+            return options[option];
+        }
+
+        public double correctRate() {
+            return attempts == 0 ? 0 : (double) correct / attempts;
+        }
+
+        public double skipRate() {
+            return attempts == 0 ? 0 : (double) skipped / attempts;
+        }
+
+        public double timeoutRate() {
+            return attempts == 0 ? 0 : (double) timedOut / attempts;
+        }
+
+        public long percentileMillis(double percentile) {
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * attempts));
+            long seen = 0;
+            for (int i = 0; i < TIME_BUCKETS; i++) {
+                seen += times[i];
+                if (seen >= rank) {
+                    return Math.min(Metrics.bucketMidpoint(i), maxMillis);
+                }
+            }
+            return maxMillis;
+        }
+    }
+
+    // Question stats by id in an open-addressing table, so a worker's memory follows the number
+    // of distinct questions it sees and a damaged record with a huge id costs one entry, not an
+    // array that reaches up to that id.
+    static final class QuestionTable {
+        private QuestionStats[] slots = new QuestionStats[1024];
+        private int size;
+
+        QuestionStats get(int questionId) {
+            int mask = slots.length - 1;
+            int slot = hash(questionId) & mask;
+            QuestionStats stats;
+            while ((stats = slots[slot]) != null) {
+                if (stats.questionId == questionId) {
+                    return stats;
+                }
+                slot = (slot + 1) & mask;
+            }
+            stats = new QuestionStats(questionId);
+            slots[slot] = stats;
+            if (++size * 2 > slots.length) {
+                grow();
+            }
+            return stats;
+        }
+
+        void mergeFrom(QuestionTable other) {
+            for (QuestionStats stats : other.slots) {
+                if (stats != null) {
+                    get(stats.questionId).merge(stats);
+                }
+            }
+        }
+
+        // In question id order.
+        List<QuestionStats> sorted() {
+            List<QuestionStats> questions = new ArrayList<>(size);
+            for (QuestionStats stats : slots) {
+                if (stats != null) {
+                    questions.add(stats);
+                }
+            }
+            questions.sort(Comparator.comparingInt(QuestionStats::getQuestionId));
+            return questions;
+        }
+
+        private void grow() {
+            QuestionStats[] old = slots;
+            slots = new QuestionStats[old.length * 2];
+            int mask = slots.length - 1;
+            for (QuestionStats stats : old) {
+                if (stats != null) {
+                    int slot = hash(stats.questionId) & mask;
+                    while (slots[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    slots[slot] = stats;
+                }
+            }
+        }
+
+        private static int hash(int questionId) {
+            int h = questionId * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    static final class Report {
+        private final List<QuestionStats> questions;
+        private final long records;
+        private final long elapsedNanos;
+
+        Report(List<QuestionStats> questions, long records, long elapsedNanos) {
+            this.questions = questions;
+            this.records = records;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        // In question id order.
+        public List<QuestionStats> getQuestions() {
+            return questions;
+        }
+
+        public long getRecords() {
+            return records;
+        }
+
+        public double recordsPerSecond() {
+            return elapsedNanos == 0 ? 0 : records / (elapsedNanos / 1e9);
+        }
+    }
+
+    // Workers claim chunks of the log in turn and read each through a fixed buffer into their own
+    // table of question stats; the tables are merged at the end. Memory depends on the number of
+    // workers and distinct questions, never on the number of attempts in the file.
+    public static Report analyze(Path file, int threads, int chunkRecords) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long records = AnswerLog.countRecords(channel, file);
+            long chunks = (records + chunkRecords - 1) / chunkRecords;
+            AtomicLong nextChunk = new AtomicLong();
+
+            List<QuestionTable> tables = new ArrayList<>(threads);
+            if (threads <= 1) {
+                tables.add(scan(channel, records, chunks, chunkRecords, nextChunk));
+            } else {
+                ExecutorService pool = Executors.newFixedThreadPool(threads);
+                try {
+                    List<Future<QuestionTable>> workers = new ArrayList<>(threads);
+                    for (int t = 0; t < threads; t++) {
+                        workers.add(pool.submit(() -> scan(channel, records, chunks, chunkRecords, nextChunk)));
+                    }
+                    for (Future<QuestionTable> worker : workers) {
+                        tables.add(worker.get());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while analyzing " + file, e);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new IllegalStateException(e.getCause());
+                } finally {
+                    pool.shutdownNow();
+                }
+            }
+
+            QuestionTable merged = tables.get(0);
+            for (int t = 1; t < tables.size(); t++) {
+                merged.mergeFrom(tables.get(t));
+            }
+            return new Report(merged.sorted(), records, System.nanoTime() - start);
+        }
+    }
+
+    private static QuestionTable scan(FileChannel channel, long records, long chunks, int chunkRecords,
+                                      AtomicLong nextChunk) throws IOException {
+        QuestionTable table = new QuestionTable();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_RECORDS * AnswerLog.RECORD_SIZE);
+        long chunk;
+        while ((chunk = nextChunk.getAndIncrement()) < chunks) {
+            long position = AnswerLog.HEADER_SIZE + chunk * chunkRecords * AnswerLog.RECORD_SIZE;
+            long end = AnswerLog.HEADER_SIZE + Math.min(records, (chunk + 1) * chunkRecords) * AnswerLog.RECORD_SIZE;
+            while (position < end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), end - position));
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, position + buffer.position()) < 0) {
+                        throw new IOException("Answer log ended early");
+                    }
+                }
+                position += buffer.position();
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    int questionId = buffer.getInt();
+                    int millis = buffer.getShort() & 0xFFFF;
+                    int choice = buffer.get();
+                    boolean correct = buffer.get() != 0;
+                    if (questionId < 0 || choice >= MAX_OPTIONS) {
+                        continue;
+                    }
+                    table.get(questionId).add(choice, correct, millis);
+                }
+            }
+        }
+        return table;
+    }
+
+    // One row per question: attempts, rates, the share of each option chosen and answer-time
+    // percentiles in milliseconds.
+    public static void writeReport(Report report, Path output) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            out.write("question,attempts,correct_rate,skip_rate,timeout_rate,options,p50_ms,p90_ms,p99_ms\n");
+            StringBuilder line = new StringBuilder();
+            for (QuestionStats stats : report.getQuestions()) {
+                line.setLength(0);
+                line.append(stats.questionId).append(',').append(stats.attempts).append(',')
+                        .append(String.format("%.4f,%.4f,%.4f,", stats.correctRate(), stats.skipRate(), stats.timeoutRate()));
+                boolean first = true;
+                for (int i = 0; i < MAX_OPTIONS; i++) {
+                    if (stats.options[i] > 0) {
+                        line.append(first ? "" : " ").append((char) ('A' + i)).append('=')
+                                .append(String.format("%.3f", (double) stats.options[i] / stats.attempts));
+                        first = false;
+                    }
+                }
+                line.append(',').append(stats.percentileMillis(50)).append(',').append(stats.percentileMillis(90))
+                        .append(',').append(stats.percentileMillis(99)).append('\n');
+                out.append(line);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java AnswerAnalytics <answers.log> [threads] [report.csv]");
+            return;
+        }
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Report report = analyze(Paths.get(args[0]), threads, DEFAULT_CHUNK_RECORDS);
+        System.out.printf("%d answers to %d questions analyzed at %.0f answers/sec%n",
+                report.getRecords(), report.getQuestions().size(), report.recordsPerSecond());
+
+        List<QuestionStats> ranked = new ArrayList<>();
+        for (QuestionStats stats : report.getQuestions()) {
+            if (stats.attempts >= MIN_ATTEMPTS_TO_RANK) {
+                ranked.add(stats);
+            }
+        }
+        ranked.sort(Comparator.comparingDouble(QuestionStats::correctRate));
+        System.out.println("\nHardest questions (at least " + MIN_ATTEMPTS_TO_RANK + " attempts):");
+        printRows(ranked.subList(0, Math.min(10, ranked.size())));
+        System.out.println("\nEasiest questions:");
+        List<QuestionStats> easiest = new ArrayList<>(ranked.subList(Math.max(0, ranked.size() - 10), ranked.size()));
+        easiest.sort(Comparator.comparingDouble(QuestionStats::correctRate).reversed());
+        printRows(easiest);
+
+        if (args.length > 2) {
+            writeReport(report, Paths.get(args[2]));
+            System.out.println("\nFull report written to " + args[2]);
+        }
+    }
+
+    private static void printRows(List<QuestionStats> rows) {
+        System.out.printf("%-10s %-10s %-9s %-9s %-9s %-8s %-8s %-8s%n",
+                "Question", "Attempts", "Correct", "Skipped", "Timeout", "p50 ms", "p90 ms", "p99 ms");
+        for (QuestionStats stats : rows) {
+            System.out.printf("%-10d %-10d %-9.1f %-9.1f %-9.1f %-8d %-8d %-8d%n", stats.questionId, stats.attempts,
+                    100 * stats.correctRate(), 100 * stats.skipRate(), 100 * stats.timeoutRate(),
+                    stats.percentileMillis(50), stats.percentileMillis(90), stats.percentileMillis(99));
+        }
+    }
+}
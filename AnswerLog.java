@@ -0,0 +1,132 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Append-only log of quiz answers in fixed 8-byte records: question id (4), answer time in
+// milliseconds (2, capped at 65535), choice (1) and correct (1). The choice is the option index
+// or one of SKIPPED, TIMED_OUT and INVALID. Fixed records let readers split the file into chunks
+// at any multiple of RECORD_SIZE. Appends collect in a buffer that is written out when full, on
+// flush() and on close(), so a process crash loses at most one buffer. Only flush() and close()
+// force the file to disk, so after a power loss anything since the last of those may be gone.
+// A torn last record is cut off when the log is reopened.
+class AnswerLog implements Closeable {
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_SIZE = 8;
+    static final int MAX_MILLIS = 0xFFFF;
+    static final int SKIPPED = -1;
+    static final int TIMED_OUT = -2;
+    static final int INVALID = -3;
+
+    private static final int MAGIC = 0x51414E53;
+    private static final int VERSION = 1;
+    private static final int BUFFER_RECORDS = 8192;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long records;
+
+    public AnswerLog(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            if (size == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+                header.flip();
+                channel.write(header, 0);
+                size = HEADER_SIZE;
+            } else {
+                checkHeader(channel, file);
+            }
+            records = (size - HEADER_SIZE) / RECORD_SIZE;
+            channel.truncate(HEADER_SIZE + records * RECORD_SIZE);
+            channel.position(HEADER_SIZE + records * RECORD_SIZE);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * RECORD_SIZE);
+    }
+
+    public synchronized void append(int questionId, int choice, boolean correct, long answerMillis) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.putInt(questionId)
+                .putShort((short) Math.max(0, Math.min(answerMillis, MAX_MILLIS)))
+                .put((byte) choice)
+                .put((byte) (correct ? 1 : 0));
+        records++;
+    }
+
+    // All answers of a finished quiz in one go. Answers to questions without an id are left out.
+    public synchronized void appendAll(List<UserAnswer> answers) throws IOException {
+        for (UserAnswer answer : answers) {
+            if (answer.questionId >= 0) {
+                append(answer.questionId, choiceOf(answer), answer.isCorrect, answer.answerMillis);
+            }
+        }
+    }
+
+    // Records appended over the life of the file, including any not yet written out.
+    public synchronized long size() {
+        return records;
+    }
+
+    public synchronized void flush() throws IOException {
+        drain();
+        channel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            drain();
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    static int choiceOf(UserAnswer answer) {
+        if (answer.timedOut) {
+            return TIMED_OUT;
+        }
+        if (answer.userAnswer == ' ') {
+            return SKIPPED;
+        }
+        int option = answer.userAnswer - 'A';
+        return option >= 0 && option < 26 ? option : INVALID;
+    }
+
+    // Number of complete records in a log file; the header is checked as well.
+    static long countRecords(FileChannel channel, Path file) throws IOException {
+        checkHeader(channel, file);
+        return (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    private static void checkHeader(FileChannel channel, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            // Keep reading until the header is complete or the file ends.
+        }
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not an answer log: " + file);
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
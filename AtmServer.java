@@ -0,0 +1,83 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+
+public class AtmServer {
+    static final int DEFAULT_PORT = 5050;
+    static final int DEFAULT_ACCOUNTS = 10_000;
+    static final String END_OF_RESPONSE = ".";
+
+    // Line protocol: the client sends one line of input at a time, and every response from the
+    // session is followed by a line containing only END_OF_RESPONSE. Every account accepts the
+    // testing PIN, so the server only listens on the loopback interface.
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int accounts = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ACCOUNTS;
+        Path dataDirectory = Paths.get(args.length > 2 ? args[2] : "atm-server-data");
+        Path snapshotDirectory = dataDirectory.resolve("snapshots");
+        Metrics.startPeriodicDumpIfConfigured();
+
+        TransactionJournal journal = new TransactionJournal(dataDirectory.resolve("journal"));
+        Ledger ledger = LedgerSnapshot.recover(snapshotDirectory, journal, accounts);
+        while (ledger.size() < accounts) {
+            ledger.openAccount(Money.toCents(1000.00));
+        }
+        LedgerSnapshot.schedule(ledger, snapshotDirectory, 60);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                LedgerSnapshot.snapshot(ledger, snapshotDirectory);
+                journal.close();
+            } catch (IOException e) {
+                System.out.println("Could not write final snapshot: " + e.getMessage());
+            }
+        }));
+
+        ExecutorService sessions = VirtualThreads.newThreadPerTaskExecutor("atm-session");
+        try (ServerSocket serverSocket = new ServerSocket(port, 4096, InetAddress.getLoopbackAddress())) {
+            System.out.println("ATM server listening on port " + port + " with " + ledger.size() + " accounts"
+                    + (VirtualThreads.isAvailable() ? " (virtual threads)" : " (platform threads)"));
+            while (true) {
+                Socket socket = serverSocket.accept();
+                sessions.execute(() -> serve(socket, ledger));
+            }
+        }
+    }
+
+    static void serve(Socket socket, Ledger ledger) {
+        try (Socket client = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8))) {
+            client.setTcpNoDelay(true);
+            AtmSession session = new AtmSession(ledger);
+            send(out, session.start());
+
+            String line;
+            while (!session.isClosed() && (line = in.readLine()) != null) {
+                send(out, session.handle(line));
+            }
+        } catch (IOException e) {
+            // The customer walked away mid-session; nothing to clean up beyond the socket.
+        }
+    }
+
+    private static void send(Writer out, String response) throws IOException {
+        out.write(response);
+        if (!response.endsWith("\n")) {
+            out.write('\n');
+        }
+        out.write(END_OF_RESPONSE);
+        out.write('\n');
+        out.flush();
+    }
+}
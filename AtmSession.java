@@ -0,0 +1,218 @@
+class AtmSession {
+    static final int TESTING_PIN = 1234;
+
+    private static final String MENU = "\nATM Menu:\n"
+            + "1. Deposit\n"
+            + "2. Withdraw\n"
+            + "3. Check Balance\n"
+            + "4. View Transaction History\n"
+            + "5. Exit\n"
+            + "6. Show Metrics\n"
+            + "Choose an option: ";
+    private static final String CONTINUE_PROMPT = "Do you want to continue with another operation? (yes/no): ";
+    private static final String FAREWELL = "Thank you for choosing our ATM service today! We hope to see you again soon. Have a great day!\n";
+
+    enum State {
+        ACCOUNT, PIN, MENU, DEPOSIT_AMOUNT, WITHDRAW_AMOUNT, OLDER_HISTORY, CONTINUE, CLOSED
+    }
+
+    private final Ledger ledger;
+    private final StringBuilder output;
+    private BankAccount account;
+    private State state;
+    private long historyCursor;
+
+    // The menu state machine with no I/O of its own: every call takes one line of user input
+    // and returns everything to show, ending with the next prompt.
+    public AtmSession(BankAccount account) {
+        this.ledger = null;
+        this.account = account;
+        this.output = new StringBuilder(256);
+        this.state = State.PIN;
+    }
+
+    // For shared-ledger sessions the customer first picks an account number.
+    public AtmSession(Ledger ledger) {
+        this.ledger = ledger;
+        this.output = new StringBuilder(256);
+        this.state = State.ACCOUNT;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isClosed() {
+        return state == State.CLOSED;
+    }
+
+    public String start() {
+        output.setLength(0);
+        output.append("Testing PIN: ").append(TESTING_PIN).append('\n');
+        output.append(state == State.ACCOUNT ? "Enter your account number: " : "Enter your PIN to access the ATM: ");
+        return output.toString();
+    }
+
+    public String handle(String line) {
+        output.setLength(0);
+        String input = line.trim();
+
+        switch (state) {
+            case ACCOUNT:
+                handleAccount(input);
+                break;
+            case PIN:
+                handlePin(input);
+                break;
+            case MENU:
+                handleMenuChoice(input);
+                break;
+            case DEPOSIT_AMOUNT:
+            case WITHDRAW_AMOUNT:
+                handleAmount(input);
+                break;
+            case OLDER_HISTORY:
+                if (input.equalsIgnoreCase("yes")) {
+                    showHistoryPage(historyCursor);
+                } else {
+                    askToContinue();
+                }
+                break;
+            case CONTINUE:
+                if (input.equalsIgnoreCase("no")) {
+                    close();
+                } else {
+                    showMenu();
+                }
+                break;
+            default:
+                break;
+        }
+        return output.toString();
+    }
+
+    private void handleAccount(String input) {
+        int accountId = parseInt(input);
+        if (accountId < 0 || accountId >= ledger.size()) {
+            output.append("Unknown account number. Please try again.\n");
+            output.append("Enter your account number: ");
+            return;
+        }
+        account = new BankAccount(ledger, accountId, "Account " + accountId);
+        state = State.PIN;
+        output.append("Enter your PIN to access the ATM: ");
+    }
+
+    private void handlePin(String input) {
+        int pin = parseInt(input);
+        if (pin == TESTING_PIN) {
+            showMenu();
+            return;
+        }
+        output.append(pin < 0 ? "Invalid input. Please enter a numeric value.\n" : "Incorrect PIN. Please try again.\n");
+        output.append("Enter your PIN to access the ATM: ");
+    }
+
+    private void handleMenuChoice(String input) {
+        int choice = parseInt(input);
+        switch (choice) {
+            case 1:
+                state = State.DEPOSIT_AMOUNT;
+                output.append("Enter amount to deposit: $");
+                break;
+            case 2:
+                state = State.WITHDRAW_AMOUNT;
+                output.append("Enter amount to withdraw: $");
+                break;
+            case 3:
+                output.append("Current balance: $").append(Money.formatCents(account.balanceCents())).append('\n');
+                askToContinue();
+                break;
+            case 4:
+                output.append("Transaction History:\n");
+                showHistoryPage(Long.MAX_VALUE);
+                break;
+            case 5:
+                close();
+                break;
+            case 6:
+                output.append(Metrics.dump());
+                askToContinue();
+                break;
+            case -1:
+                output.append("Invalid input. Please enter a numeric value.\n");
+                showMenu();
+                break;
+            default:
+                output.append("Invalid choice. Please select a valid option from the menu.\n");
+                askToContinue();
+                break;
+        }
+    }
+
+    private void handleAmount(String input) {
+        double amount;
+        try {
+            amount = Double.parseDouble(input);
+        } catch (NumberFormatException e) {
+            output.append("Invalid input. Please enter a numeric value.\n");
+            showMenu();
+            return;
+        }
+
+        try {
+            if (state == State.DEPOSIT_AMOUNT) {
+                if (account.deposit(amount)) {
+                    output.append("Deposited: $").append(amount).append('\n');
+                } else {
+                    output.append("Invalid deposit amount. Please enter a positive amount.\n");
+                }
+            } else if (account.withdraw(amount)) {
+                output.append("Withdrawn: $").append(amount).append('\n');
+            } else {
+                output.append("Insufficient balance or invalid withdrawal amount.\n");
+            }
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            // Not a finite amount, beyond the largest one accepted, or more than the balance can hold.
+            output.append("Invalid amount. Please enter a positive amount of at most $")
+                    .append(Money.formatCents(Money.toCents(Money.MAX_AMOUNT)))
+                    .append(".\n");
+        }
+        askToContinue();
+    }
+
+    private void showHistoryPage(long beforeSequence) {
+        historyCursor = account.appendTransactionHistory(output, beforeSequence);
+        if (historyCursor > 0) {
+            state = State.OLDER_HISTORY;
+            output.append("Show older transactions? (yes/no): ");
+        } else {
+            askToContinue();
+        }
+    }
+
+    private void showMenu() {
+        state = State.MENU;
+        output.append(MENU);
+    }
+
+    private void askToContinue() {
+        state = State.CONTINUE;
+        output.append(CONTINUE_PROMPT);
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        output.append(FAREWELL);
+    }
+
+    // Non-negative integer, or -1 when the input is not one.
+    private static int parseInt(String input) {
+        try {
+            int value = Integer.parseInt(input);
+            return value < 0 ? -1 : value;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.List;
+
+class BankAccount {
+    private static final int HISTORY_PAGE_SIZE = 10;
+    private static final Metrics.Timer DEPOSIT_TIMER = Metrics.timer("atm.deposit");
+    private static final Metrics.Timer WITHDRAW_TIMER = Metrics.timer("atm.withdraw");
+
+    private Ledger ledger;
+    private int accountId;
+    private String accountHolder;
+
+    public BankAccount(Ledger ledger, int accountId, String accountHolder) {
+        this.ledger = ledger;
+        this.accountId = accountId;
+        this.accountHolder = accountHolder;
+    }
+
+    public int getAccountId() {
+        return accountId;
+    }
+
+    public boolean deposit(double amount) {
+        long start = System.nanoTime();
+        boolean deposited = amount > 0 && ledger.deposit(accountId, Money.toCents(amount));
+        if (deposited) {
+            ledger.awaitDurable();
+        }
+        DEPOSIT_TIMER.recordSince(start);
+        return deposited;
+    }
+
+    public boolean withdraw(double amount) {
+        long start = System.nanoTime();
+        boolean withdrawn = amount > 0 && ledger.withdraw(accountId, Money.toCents(amount));
+        if (withdrawn) {
+            ledger.awaitDurable();
+        }
+        WITHDRAW_TIMER.recordSince(start);
+        return withdrawn;
+    }
+
+    public double checkBalance() {
+        return ledger.balance(accountId) / 100.0;
+    }
+
+    public long balanceCents() {
+        return ledger.balance(accountId);
+    }
+
+    // Appends one page of history, newest first, straight from the journal. Returns the cursor
+    // to pass back in for the next (older) page, or 0 when there is nothing older.
+    public long appendTransactionHistory(StringBuilder out, long beforeSequence) {
+        TransactionJournal journal = ledger.getJournal();
+        if (journal == null) {
+            out.append("Transaction history is not being recorded.\n");
+            return 0;
+        }
+
+        List<TransactionJournal.Entry> page = journal.readBackward(accountId, beforeSequence, HISTORY_PAGE_SIZE);
+        if (page.isEmpty()) {
+            out.append("No older transactions.\n");
+            return 0;
+        }
+        for (TransactionJournal.Entry entry : page) {
+            if (entry.getOp() != TransactionJournal.OP_END_OF_DAY) {
+                out.append(describe(entry)).append('\n');
+            }
+        }
+        return page.size() < HISTORY_PAGE_SIZE ? 0 : page.get(page.size() - 1).getSequence();
+    }
+
+    private String describe(TransactionJournal.Entry entry) {
+        String amount = "$" + Money.formatCents(entry.getAmountCents());
+        switch (entry.getOp()) {
+            case TransactionJournal.OP_OPEN:
+                return "Initial deposit: " + amount;
+            case TransactionJournal.OP_DEPOSIT:
+                return "Deposited: " + amount;
+            case TransactionJournal.OP_WITHDRAW:
+                return "Withdrew: " + amount;
+            case TransactionJournal.OP_INTEREST:
+                return "Interest: " + amount;
+            case TransactionJournal.OP_FEE:
+                return "Maintenance fee: " + amount;
+            case TransactionJournal.OP_TRANSFER:
+                return entry.getAccountId() == accountId
+                        ? "Transferred to account " + entry.getCounterpartyId() + ": " + amount
+                        : "Received from account " + entry.getAccountId() + ": " + amount;
+            default:
+                return "Unknown transaction #" + entry.getSequence();
+        }
+    }
+}
@@ -0,0 +1,527 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Grades a whole cohort from a CSV of "student,subject,mark" rows (an optional header starting
+// with "student," is skipped). The file is cut into byte ranges that are parsed in parallel on a
+// fork/join pool. Each worker thread adds into its own per-student totals, which are merged
+// once at the end, so no lock is taken per row and a student spread over the whole file is held
+// once per worker rather than once per range. A range owns every line that starts inside it and
+// reads past its end to finish the last one. Marks must be whole numbers from 0 to 100; other
+// rows are counted as rejected and left out.
+class BatchGrader {
+    static final int DEFAULT_SEGMENT_BYTES = 8 << 20;
+
+    private static final int READ_BUFFER_BYTES = 1 << 20;
+    private static final byte[] HEADER = "student,".getBytes(StandardCharsets.US_ASCII);
+
+    static final class StudentTotals {
+        private final String student;
+        private int subjects;
+        private long total;
+
+        StudentTotals(String student) {
+            this.student = student;
+        }
+
+        public String getStudent() {
+            return student;
+        }
+
+        public int getSubjects() {
+            return subjects;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public double averagePercentage() {
+            return subjects == 0 ? 0 : (double) total / subjects;
+        }
+    }
+
+    static final class Summary {
+        private long rows;
+        private long rejected;
+        private long students;
+        private long aggregateNanos;
+        private long writeNanos;
+        private CohortStatistics statistics;
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getStudents() {
+            return students;
+        }
+
+        // Marks per subject and for the whole file.
+        public CohortStatistics getStatistics() {
+            return statistics;
+        }
+
+        // Rows read and aggregated per second, leaving out writing the result file.
+        public double rowsPerSecond() {
+            return aggregateNanos == 0 ? 0 : rows / (aggregateNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("rows: %d, rejected: %d, students: %d, aggregate: %.2fs (%.0f rows/sec), write: %.2fs",
+                    rows, rejected, students, aggregateNanos / 1e9, rowsPerSecond(), writeNanos / 1e9);
+        }
+    }
+
+    // A slice of a read buffer, so a subject can be looked up without copying it. Copied when the
+    // subject is first seen.
+    private static final class ByteKey {
+        private byte[] bytes;
+        private int from;
+        private int to;
+        private int hash;
+
+        ByteKey set(byte[] bytes, int from, int to) {
+            this.bytes = bytes;
+            this.from = from;
+            this.to = to;
+            this.hash = Partial.hash(bytes, from, to);
+            return this;
+        }
+
+        ByteKey copy() {
+            return new ByteKey().set(Arrays.copyOfRange(bytes, from, to), 0, to - from);
+        }
+
+        // Without the quotes around a name that contains commas.
+        String decode() {
+            boolean quoted = to - from >= 2 && bytes[from] == '"' && bytes[to - 1] == '"';
+            return quoted ? new String(bytes, from + 1, to - from - 2, StandardCharsets.UTF_8).replace("\"\"", "\"")
+                    : new String(bytes, from, to - from, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof ByteKey)) {
+                return false;
+            }
+            ByteKey key = (ByteKey) other;
+            return hash == key.hash && Arrays.equals(bytes, from, to, key.bytes, key.from, key.to);
+        }
+    }
+
+    // What one worker has seen: its row counts, the marks per subject and an open-addressing
+    // table of per-student totals keyed by the bytes of the student id, so counting a row creates
+    // neither a String nor a map entry. Ids are decoded once, when the results are written.
+    private static final class Partial {
+        // Per slot: the key's hash in the high half and the subject count in the low half of one
+        // long, then the total, side by side so a lookup touches one cache line besides the key.
+        private long[] cells = new long[2 * 1024];
+        private byte[][] keys = new byte[1024][];
+        private int size;
+        private long rows;
+        private long rejected;
+        private final Map<ByteKey, MarkStatistics> subjects = new HashMap<>();
+        private final ByteKey probe = new ByteKey();
+
+        MarkStatistics subject(byte[] buffer, int from, int to) {
+            MarkStatistics marks = subjects.get(probe.set(buffer, from, to));
+            if (marks == null) {
+                marks = new MarkStatistics();
+                subjects.put(probe.copy(), marks);
+            }
+            return marks;
+        }
+
+        void add(byte[] key, int from, int to, int hash, int count, long total) {
+            int mask = keys.length - 1;
+            int slot = hash & mask;
+            while (keys[slot] != null) {
+                long cell = cells[2 * slot];
+                if ((int) (cell >>> 32) == hash && Arrays.equals(keys[slot], 0, keys[slot].length, key, from, to)) {
+                    cells[2 * slot] = cell + count;
+                    cells[2 * slot + 1] += total;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = Arrays.copyOfRange(key, from, to);
+            cells[2 * slot] = (long) hash << 32 | count;
+            cells[2 * slot + 1] = total;
+            if (++size * 2 > keys.length) {
+                resize();
+            }
+        }
+
+        Partial merge(Partial other) {
+            Partial larger = size >= other.size ? this : other;
+            Partial smaller = larger == this ? other : this;
+            for (int slot = 0; slot < smaller.keys.length; slot++) {
+                byte[] key = smaller.keys[slot];
+                if (key != null) {
+                    long cell = smaller.cells[2 * slot];
+                    larger.add(key, 0, key.length, (int) (cell >>> 32), (int) cell, smaller.cells[2 * slot + 1]);
+                }
+            }
+            for (Map.Entry<ByteKey, MarkStatistics> entry : smaller.subjects.entrySet()) {
+                larger.subjects.merge(entry.getKey(), entry.getValue(), (into, from) -> {
+                    into.merge(from);
+                    return into;
+                });
+            }
+            larger.rows += smaller.rows;
+            larger.rejected += smaller.rejected;
+            return larger;
+        }
+
+        List<StudentTotals> toList() {
+            List<StudentTotals> students = new ArrayList<>(size);
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != null) {
+                    StudentTotals student = new StudentTotals(new String(keys[slot], StandardCharsets.UTF_8));
+                    student.subjects = (int) cells[2 * slot];
+                    student.total = cells[2 * slot + 1];
+                    students.add(student);
+                }
+            }
+            return students;
+        }
+
+        private void resize() {
+            byte[][] oldKeys = keys;
+            long[] oldCells = cells;
+            keys = new byte[oldKeys.length * 2][];
+            cells = new long[2 * keys.length];
+            int mask = keys.length - 1;
+            for (int old = 0; old < oldKeys.length; old++) {
+                if (oldKeys[old] != null) {
+                    int slot = (int) (oldCells[2 * old] >>> 32) & mask;
+                    while (keys[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[old];
+                    cells[2 * slot] = oldCells[2 * old];
+                    cells[2 * slot + 1] = oldCells[2 * old + 1];
+                }
+            }
+        }
+
+        static int hash(byte[] key, int from, int to) {
+            int hash = 0;
+            for (int i = from; i < to; i++) {
+                hash = 31 * hash + key[i];
+            }
+            hash *= 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    private final int threads;
+    private final int segmentBytes;
+
+    public BatchGrader(int threads, int segmentBytes) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive.");
+        }
+        if (segmentBytes <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive.");
+        }
+        this.threads = threads;
+        this.segmentBytes = segmentBytes;
+    }
+
+    // Writes "student,subjects,total,average,grade" per student, in student order. Mark
+    // statistics per subject come back with the summary.
+    public Summary grade(Path input, Path output) throws IOException {
+        Summary summary = new Summary();
+        long start = System.nanoTime();
+        Partial result = aggregate(input);
+        summary.rows = result.rows;
+        summary.rejected = result.rejected;
+        summary.students = result.size;
+        summary.statistics = new CohortStatistics();
+        for (Map.Entry<ByteKey, MarkStatistics> entry : result.subjects.entrySet()) {
+            summary.statistics.mergeSubject(entry.getKey().decode(), entry.getValue());
+        }
+        summary.aggregateNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<StudentTotals> students = result.toList();
+        result = null;
+        students.sort(Comparator.comparing(StudentTotals::getStudent));
+        try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            writer.write("student,subjects,total,average,grade\n");
+            StringBuilder line = new StringBuilder();
+            for (StudentTotals totals : students) {
+                line.setLength(0);
+                long hundredths = Math.round(totals.averagePercentage() * 100);
+                line.append(totals.student).append(',').append(totals.subjects).append(',').append(totals.total)
+                        .append(',').append(hundredths / 100).append('.').append(hundredths / 10 % 10).append(hundredths % 10)
+                        .append(',').append(StudentGradeCalculator.lookupGrade(totals.averagePercentage())).append('\n');
+                writer.append(line);
+            }
+        }
+        summary.writeNanos = System.nanoTime() - start;
+        return summary;
+    }
+
+    private Partial aggregate(Path input) throws IOException {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int segments = (int) Math.max(1, (size + segmentBytes - 1) / segmentBytes);
+            Queue<Partial> partials = new ConcurrentLinkedQueue<>();
+            ThreadLocal<Partial> perWorker = ThreadLocal.withInitial(() -> {
+                Partial partial = new Partial();
+                partials.add(partial);
+                return partial;
+            });
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pool.invoke(new Segments(channel, size, segmentBytes, 0, segments, perWorker));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                pool.shutdown();
+            }
+            Partial result = new Partial();
+            for (Partial partial : partials) {
+                result = result.merge(partial);
+            }
+            return result;
+        }
+    }
+
+    // Splits its run of segments in half until one is left, then parses that byte range.
+    private static final class Segments extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient FileChannel channel;
+        private final long size;
+        private final int segmentBytes;
+        private final int from;
+        private final int to;
+        private final transient ThreadLocal<Partial> perWorker;
+
+        Segments(FileChannel channel, long size, int segmentBytes, int from, int to, ThreadLocal<Partial> perWorker) {
+            this.channel = channel;
+            this.size = size;
+            this.segmentBytes = segmentBytes;
+            this.from = from;
+            this.to = to;
+            this.perWorker = perWorker;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                try {
+                    scan(channel, (long) from * segmentBytes, Math.min(size, (long) to * segmentBytes), perWorker.get());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Segments(channel, size, segmentBytes, from, middle, perWorker),
+                    new Segments(channel, size, segmentBytes, middle, to, perWorker));
+        }
+    }
+
+    private static void scan(FileChannel channel, long start, long end, Partial partial) throws IOException {
+        byte[] buffer = new byte[READ_BUFFER_BYTES];
+        // Starting one byte early and dropping everything up to the first newline skips the tail
+        // of a line that belongs to the previous range, or just that newline if it ends there.
+        boolean skipping = start > 0;
+        long lineOffset = skipping ? start - 1 : 0;
+        long readOffset = lineOffset;
+        int filled = 0;
+        int position = 0;
+        while (true) {
+            for (int i = position; i < filled; i++) {
+                if (buffer[i] != '\n') {
+                    continue;
+                }
+                if (skipping) {
+                    skipping = false;
+                } else if (lineOffset >= end) {
+                    return;
+                } else if (lineOffset > 0 || !isHeader(buffer, position, i)) {
+                    parseLine(buffer, position, i, partial);
+                }
+                lineOffset += i + 1 - position;
+                position = i + 1;
+            }
+            if (!skipping && lineOffset >= end) {
+                return;
+            }
+            System.arraycopy(buffer, position, buffer, 0, filled - position);
+            filled -= position;
+            position = 0;
+            if (filled == buffer.length) {
+                throw new IOException("Line longer than " + buffer.length + " bytes at offset " + lineOffset);
+            }
+            int read = channel.read(ByteBuffer.wrap(buffer, filled, buffer.length - filled), readOffset);
+            if (read < 0) {
+                // The last line of the file may have no newline.
+                if (filled > 0 && !skipping && (lineOffset > 0 || !isHeader(buffer, 0, filled))) {
+                    parseLine(buffer, 0, filled, partial);
+                }
+                return;
+            }
+            readOffset += read;
+            filled += read;
+        }
+    }
+
+    private static boolean isHeader(byte[] buffer, int from, int to) {
+        if (to - from < HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < HEADER.length; i++) {
+            if (Character.toLowerCase(buffer[from + i]) != HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // "student,subject,mark"; neither name may be empty. Both may be quoted the CSV way, and the
+    // subject may contain commas even unquoted, since the mark is always the last field. A quoted
+    // student id that needs no quotes is kept bare and any other keeps its quoted form, so both
+    // spellings are one student and the id goes back out as valid CSV. A quote inside an unquoted
+    // student id rejects the row.
+    private static void parseLine(byte[] buffer, int from, int to, Partial partial) {
+        if (to > from && buffer[to - 1] == '\r') {
+            to--;
+        }
+        if (to == from) {
+            return;
+        }
+        partial.rows++;
+        while (from < to && buffer[from] == ' ') {
+            from++;
+        }
+        int studentEnd;
+        int comma;
+        if (from < to && buffer[from] == '"') {
+            int close = closingQuote(buffer, from, to);
+            comma = close < 0 ? to : close + 1;
+            while (comma < to && buffer[comma] == ' ') {
+                comma++;
+            }
+            if (comma == to || buffer[comma] != ',') {
+                partial.rejected++;
+                return;
+            }
+            studentEnd = close + 1;
+            if (!needsQuotes(buffer, from + 1, close)) {
+                from++;
+                studentEnd = close;
+            }
+        } else {
+            comma = from;
+            while (comma < to && buffer[comma] != ',' && buffer[comma] != '"') {
+                comma++;
+            }
+            if (comma == to || buffer[comma] == '"') {
+                partial.rejected++;
+                return;
+            }
+            studentEnd = comma;
+            while (studentEnd > from && buffer[studentEnd - 1] == ' ') {
+                studentEnd--;
+            }
+        }
+        int lastComma = to - 1;
+        while (lastComma > comma && buffer[lastComma] != ',') {
+            lastComma--;
+        }
+        int mark = lastComma == comma ? -1 : parseMark(buffer, lastComma + 1, to);
+        int subjectFrom = comma + 1;
+        int subjectTo = lastComma;
+        while (subjectFrom < subjectTo && buffer[subjectFrom] == ' ') {
+            subjectFrom++;
+        }
+        while (subjectTo > subjectFrom && buffer[subjectTo - 1] == ' ') {
+            subjectTo--;
+        }
+        if (mark < 0 || from == studentEnd || subjectFrom == subjectTo) {
+            partial.rejected++;
+            return;
+        }
+        partial.add(buffer, from, studentEnd, Partial.hash(buffer, from, studentEnd), 1, mark);
+        partial.subject(buffer, subjectFrom, subjectTo).add(mark);
+    }
+
+    // Index of the quote closing the field opened at the given one, skipping doubled quotes; -1
+    // when the line ends first.
+    private static int closingQuote(byte[] buffer, int open, int to) {
+        for (int i = open + 1; i < to; i++) {
+            if (buffer[i] == '"') {
+                if (i + 1 < to && buffer[i + 1] == '"') {
+                    i++;
+                } else {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean needsQuotes(byte[] buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == ',' || buffer[i] == '"') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Whole number from 0 to 100, allowing surrounding spaces; -1 otherwise.
+    private static int parseMark(byte[] buffer, int from, int to) {
+        while (from < to && buffer[from] == ' ') {
+            from++;
+        }
+        while (to > from && buffer[to - 1] == ' ') {
+            to--;
+        }
+        if (from == to || to - from > 3) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value <= 100 ? value : -1;
+    }
+}
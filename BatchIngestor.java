@@ -0,0 +1,275 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class BatchIngestor {
+    static final int DEFAULT_BATCH_SIZE = 10_000;
+
+    private static final int OP_DEPOSIT = 1;
+    private static final int OP_WITHDRAW = 2;
+    private static final int OP_TRANSFER = 3;
+
+    static final class Summary {
+        private long rows;
+        private long accepted;
+        private long rejected;
+        private long batches;
+        private long elapsedNanos;
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getAccepted() {
+            return accepted;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getBatches() {
+            return batches;
+        }
+
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Rows: %d, accepted: %d, rejected: %d, batches: %d, elapsed: %.2fs, throughput: %.0f rows/sec",
+                    rows, accepted, rejected, batches, elapsedNanos / 1e9, rowsPerSecond());
+        }
+    }
+
+    // Parsed rows of the current batch, kept in primitive arrays so a batch allocates nothing per row.
+    private final Ledger ledger;
+    private final int batchSize;
+    private final long[] rowNumbers;
+    private final int[] ops;
+    private final int[] accounts;
+    private final int[] counterparties;
+    private final long[] amounts;
+    private final String[] rejections;
+
+    public BatchIngestor(Ledger ledger, int batchSize) {
+        this.ledger = ledger;
+        this.batchSize = batchSize;
+        this.rowNumbers = new long[batchSize];
+        this.ops = new int[batchSize];
+        this.accounts = new int[batchSize];
+        this.counterparties = new int[batchSize];
+        this.amounts = new long[batchSize];
+        this.rejections = new String[batchSize];
+    }
+
+    // Input rows are "op,account,amount[,toAccount]" with op one of deposit, withdraw or transfer
+    // and amount in dollars with at most two decimals. Each result row is "row,status,reason".
+    public Summary ingest(Path input, Path results) throws IOException {
+        Summary summary = new Summary();
+        long start = System.nanoTime();
+
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.US_ASCII);
+             BufferedWriter writer = Files.newBufferedWriter(results, StandardCharsets.US_ASCII)) {
+            writer.write("row,status,reason\n");
+            StringBuilder line = new StringBuilder();
+            long rowNumber = 0;
+            int pending = 0;
+            String text;
+
+            while ((text = reader.readLine()) != null) {
+                rowNumber++;
+                if (text.isEmpty() || (rowNumber == 1 && text.regionMatches(true, 0, "op,", 0, 3))) {
+                    continue;
+                }
+                rowNumbers[pending] = rowNumber;
+                rejections[pending] = parse(text, pending);
+                pending++;
+                if (pending == batchSize) {
+                    applyBatch(pending, writer, line, summary);
+                    pending = 0;
+                }
+            }
+            applyBatch(pending, writer, line, summary);
+        }
+
+        summary.elapsedNanos = System.nanoTime() - start;
+        return summary;
+    }
+
+    // All rows of a batch go through the ledger and the journal is forced once at the end,
+    // before any result for the batch is reported.
+    private void applyBatch(int count, BufferedWriter writer, StringBuilder line, Summary summary) throws IOException {
+        if (count == 0) {
+            return;
+        }
+        int size = ledger.size();
+        for (int i = 0; i < count; i++) {
+            if (rejections[i] == null) {
+                rejections[i] = apply(i, size);
+            }
+        }
+        ledger.awaitDurable();
+
+        for (int i = 0; i < count; i++) {
+            line.setLength(0);
+            line.append(rowNumbers[i]);
+            if (rejections[i] == null) {
+                line.append(",ACCEPTED,\n");
+                summary.accepted++;
+            } else {
+                line.append(",REJECTED,").append(rejections[i]).append('\n');
+                summary.rejected++;
+            }
+            writer.append(line);
+            rejections[i] = null;
+        }
+        summary.rows += count;
+        summary.batches++;
+    }
+
+    private String apply(int i, int ledgerSize) {
+        int account = accounts[i];
+        if (account >= ledgerSize) {
+            return "unknown account";
+        }
+        try {
+            return applyOp(i, account, ledgerSize);
+        } catch (ArithmeticException e) {
+            // The credited balance would not fit; the ledger leaves it unchanged.
+            return "amount overflow";
+        }
+    }
+
+    private String applyOp(int i, int account, int ledgerSize) {
+        switch (ops[i]) {
+            case OP_DEPOSIT:
+                return ledger.deposit(account, amounts[i]) ? null : "invalid amount";
+            case OP_WITHDRAW:
+                return ledger.withdraw(account, amounts[i]) ? null : "insufficient funds";
+            default:
+                if (counterparties[i] >= ledgerSize) {
+                    return "unknown account";
+                }
+                if (counterparties[i] == account) {
+                    return "transfer to same account";
+                }
+                return ledger.transfer(account, counterparties[i], amounts[i]) ? null : "insufficient funds";
+        }
+    }
+
+    // Returns null when the row is well formed, otherwise the rejection reason.
+    private String parse(String text, int i) {
+        int first = text.indexOf(',');
+        int second = first < 0 ? -1 : text.indexOf(',', first + 1);
+        if (second < 0) {
+            return "malformed row";
+        }
+        int third = text.indexOf(',', second + 1);
+
+        int op = parseOp(text, first);
+        if (op == 0) {
+            return "unknown operation";
+        }
+        long account = parseLong(text, first + 1, second);
+        if (account < 0 || account > Integer.MAX_VALUE) {
+            return "invalid account";
+        }
+        long amount = parseCents(text, second + 1, third < 0 ? text.length() : third);
+        if (amount <= 0) {
+            return "invalid amount";
+        }
+
+        long counterparty = -1;
+        if (op == OP_TRANSFER) {
+            if (third < 0) {
+                return "missing target account";
+            }
+            counterparty = parseLong(text, third + 1, text.length());
+            if (counterparty < 0 || counterparty > Integer.MAX_VALUE) {
+                return "invalid target account";
+            }
+        } else if (third >= 0 && third + 1 < text.length()) {
+            return "unexpected target account";
+        }
+
+        ops[i] = op;
+        accounts[i] = (int) account;
+        counterparties[i] = (int) counterparty;
+        amounts[i] = amount;
+        return null;
+    }
+
+    private static int parseOp(String text, int end) {
+        if (end == 7 && text.regionMatches(true, 0, "deposit", 0, 7)) {
+            return OP_DEPOSIT;
+        }
+        if (end == 8 && text.regionMatches(true, 0, "withdraw", 0, 8)) {
+            return OP_WITHDRAW;
+        }
+        if (end == 8 && text.regionMatches(true, 0, "transfer", 0, 8)) {
+            return OP_TRANSFER;
+        }
+        return 0;
+    }
+
+    // Non-negative decimal integer, or -1 when malformed or too large.
+    private static long parseLong(String text, int start, int end) {
+        if (start >= end || end - start > 18) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // Dollars with up to two decimals, parsed straight to cents; -1 when malformed.
+    private static long parseCents(String text, int start, int end) {
+        int dot = text.indexOf('.', start);
+        if (dot < 0 || dot >= end) {
+            long dollars = parseLong(text, start, end);
+            return dollars < 0 || dollars > Long.MAX_VALUE / 100 ? -1 : dollars * 100;
+        }
+        int decimals = end - dot - 1;
+        if (decimals < 1 || decimals > 2) {
+            return -1;
+        }
+        long dollars = dot == start ? 0 : parseLong(text, start, dot);
+        long fraction = parseLong(text, dot + 1, end);
+        if (dollars < 0 || fraction < 0 || dollars > Long.MAX_VALUE / 100 - 1) {
+            return -1;
+        }
+        return dollars * 100 + (decimals == 1 ? fraction * 10 : fraction);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java BatchIngestor <instructions.csv> <results.csv> [data-directory] [batch-size]");
+            return;
+        }
+        Path input = Paths.get(args[0]);
+        Path results = Paths.get(args[1]);
+        Path dataDirectory = Paths.get(args.length > 2 ? args[2] : "atm-data");
+        int batchSize = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_BATCH_SIZE;
+        Path snapshotDirectory = dataDirectory.resolve("snapshots");
+
+        try (TransactionJournal journal = new TransactionJournal(dataDirectory.resolve("journal"), 1 << 16, 0)) {
+            Ledger ledger = LedgerSnapshot.recover(snapshotDirectory, journal, 1024);
+            Summary summary = new BatchIngestor(ledger, batchSize).ingest(input, results);
+            LedgerSnapshot.snapshot(ledger, snapshotDirectory);
+            System.out.println(summary);
+            System.out.println("Results written to " + results);
+        }
+    }
+}
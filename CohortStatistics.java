@@ -0,0 +1,101 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Mark statistics for a whole cohort and for each subject in it. Like MarkStatistics, a cohort
+// is updated one mark at a time and cohorts kept by separate workers merge into one.
+class CohortStatistics {
+    private static final String OVERALL = "(all subjects)";
+    private static final double[] REPORTED_PERCENTILES = {25, 50, 75, 90};
+
+    private final MarkStatistics overall = new MarkStatistics();
+    private final Map<String, MarkStatistics> subjects = new HashMap<>();
+
+    public void add(String subject, int mark) {
+        subjects.computeIfAbsent(subject, name -> new MarkStatistics()).add(mark);
+        overall.add(mark);
+    }
+
+    // Adds a subject's marks counted elsewhere.
+    public void mergeSubject(String subject, MarkStatistics statistics) {
+        subjects.computeIfAbsent(subject, name -> new MarkStatistics()).merge(statistics);
+        overall.merge(statistics);
+    }
+
+    public void merge(CohortStatistics other) {
+        for (Map.Entry<String, MarkStatistics> entry : other.subjects.entrySet()) {
+            mergeSubject(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public MarkStatistics getOverall() {
+        return overall;
+    }
+
+    // By subject name.
+    public Map<String, MarkStatistics> getSubjects() {
+        return Collections.unmodifiableMap(new TreeMap<>(subjects));
+    }
+
+    // One row per subject and one for the cohort: count, mean, standard deviation, lowest,
+    // quartiles and 90th percentile, highest, then the number of marks in each grade band.
+    public void writeReport(Path output) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            StringBuilder header = new StringBuilder("subject,count,mean,stddev,min");
+            for (double percentile : REPORTED_PERCENTILES) {
+                header.append(",p").append((int) percentile);
+            }
+            header.append(",max");
+            for (String grade : overall.gradeDistribution().keySet()) {
+                header.append(',').append(grade);
+            }
+            writer.write(header.append('\n').toString());
+            for (Map.Entry<String, MarkStatistics> entry : getSubjects().entrySet()) {
+                writer.write(reportRow(entry.getKey(), entry.getValue()));
+            }
+            writer.write(reportRow(OVERALL, overall));
+        }
+    }
+
+    public void print() {
+        System.out.printf("%-22s %10s %7s %7s %5s %5s %5s %5s  %s%n",
+                "Subject", "Marks", "Mean", "StdDev", "Min", "p50", "p90", "Max", "Grades");
+        for (Map.Entry<String, MarkStatistics> entry : getSubjects().entrySet()) {
+            printRow(entry.getKey(), entry.getValue());
+        }
+        printRow(OVERALL, overall);
+    }
+
+    private static String reportRow(String subject, MarkStatistics statistics) {
+        StringBuilder row = new StringBuilder();
+        row.append(subject.indexOf(',') >= 0 ? '"' + subject.replace("\"", "\"\"") + '"' : subject)
+                .append(',').append(statistics.getCount())
+                .append(',').append(String.format("%.2f,%.2f", statistics.mean(), statistics.standardDeviation()))
+                .append(',').append(statistics.min());
+        for (double percentile : REPORTED_PERCENTILES) {
+            row.append(',').append(statistics.percentile(percentile));
+        }
+        row.append(',').append(statistics.max());
+        for (long marks : statistics.gradeDistribution().values()) {
+            row.append(',').append(marks);
+        }
+        return row.append('\n').toString();
+    }
+
+    private static void printRow(String subject, MarkStatistics statistics) {
+        StringBuilder grades = new StringBuilder();
+        for (Map.Entry<String, Long> band : statistics.gradeDistribution().entrySet()) {
+            grades.append(grades.length() == 0 ? "" : " ").append(band.getKey()).append('=')
+                    .append(String.format("%.1f%%", statistics.getCount() == 0 ? 0 : 100.0 * band.getValue() / statistics.getCount()));
+        }
+        System.out.printf("%-22s %10d %7.2f %7.2f %5d %5d %5d %5d  %s%n", subject, statistics.getCount(), statistics.mean(),
+                statistics.standardDeviation(), statistics.min(), statistics.percentile(50), statistics.percentile(90),
+                statistics.max(), grades);
+    }
+}
@@ -0,0 +1,51 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+// A single account whose balance is a long of cents updated by compare-and-set, so concurrent
+// tellers never take a lock. Amounts typed in dollars go through Money.toCents first.
+class ConcurrentBankAccount {
+    private final AtomicLong balanceCents;
+    private final String accountHolder;
+
+    public ConcurrentBankAccount(long initialCents, String accountHolder) {
+        if (initialCents < 0) {
+            throw new IllegalArgumentException("Initial balance cannot be negative.");
+        }
+        this.balanceCents = new AtomicLong(initialCents);
+        this.accountHolder = accountHolder;
+    }
+
+    public String getAccountHolder() {
+        return accountHolder;
+    }
+
+    public boolean deposit(long cents) {
+        if (cents <= 0) {
+            return false;
+        }
+        long current;
+        do {
+            current = balanceCents.get();
+        } while (!balanceCents.compareAndSet(current, Math.addExact(current, cents)));
+        return true;
+    }
+
+    // The balance check and the debit happen in the same CAS, so two tellers can never
+    // both pass the check against the same funds.
+    public boolean withdraw(long cents) {
+        if (cents <= 0) {
+            return false;
+        }
+        long current;
+        do {
+            current = balanceCents.get();
+            if (current < cents) {
+                return false;
+            }
+        } while (!balanceCents.compareAndSet(current, current - cents));
+        return true;
+    }
+
+    public long balanceCents() {
+        return balanceCents.get();
+    }
+}
@@ -0,0 +1,139 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Owns an input stream for the console programs. One daemon thread reads lines into a bounded
+// queue, so a read with a deadline just stops waiting when time is up: nothing is left blocked
+// on the stream, and a line typed later goes to the next read instead of to an abandoned task.
+// Reads follow Scanner: nextLine() throws NoSuchElementException once the input has ended.
+class ConsoleInput {
+    // Compared by identity, so no line read from the stream can be mistaken for it.
+    private static final String END = new String("end of input");
+    private static final int QUEUE_LINES = 1024;
+
+    private static ConsoleInput stdin;
+
+    private final BlockingQueue<String> lines = new ArrayBlockingQueue<>(QUEUE_LINES);
+    private final PrintStream out;
+    private String pending;
+    private boolean ended;
+
+    ConsoleInput(InputStream in, PrintStream out, String name) {
+        this.out = out;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in));
+        Thread thread = new Thread(() -> pump(reader), name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // The one reader of System.in, shared by everything in the process that prompts the user.
+    public static synchronized ConsoleInput stdin() {
+        if (stdin == null) {
+            stdin = new ConsoleInput(System.in, System.out, "console-input");
+        }
+        return stdin;
+    }
+
+    // Blocks until a line is available; false once the input has ended.
+    public synchronized boolean hasNextLine() {
+        try {
+            return fill(-1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public synchronized String nextLine() {
+        if (!hasNextLine()) {
+            throw new NoSuchElementException("No more input");
+        }
+        return take();
+    }
+
+    // Waits at most the timeout for a line and throws TimeoutException if none arrives.
+    public synchronized String nextLine(long timeout, TimeUnit unit) throws TimeoutException, InterruptedException {
+        if (!fill(Math.max(0, unit.toNanos(timeout)))) {
+            if (ended) {
+                throw new NoSuchElementException("No more input");
+            }
+            throw new TimeoutException("No input within " + timeout + " " + unit.toString().toLowerCase());
+        }
+        return take();
+    }
+
+    // Prompts until a whole number from min to max is entered, showing the retry prompt after
+    // anything else.
+    public synchronized int readInt(String prompt, String retryPrompt, int min, int max) {
+        out.print(prompt);
+        while (true) {
+            try {
+                int value = Integer.parseInt(nextLine().trim());
+                if (value >= min && value <= max) {
+                    return value;
+                }
+            } catch (NumberFormatException e) {
+                // Not a whole number; ask again.
+            }
+            out.print(retryPrompt);
+        }
+    }
+
+    public synchronized double readDouble(String prompt, String retryPrompt, double min, double max) {
+        out.print(prompt);
+        while (true) {
+            try {
+                double value = Double.parseDouble(nextLine().trim());
+                if (value >= min && value <= max) {
+                    return value;
+                }
+            } catch (NumberFormatException e) {
+                // Not a number; ask again.
+            }
+            out.print(retryPrompt);
+        }
+    }
+
+    // Waits up to timeoutNanos, or without limit when negative, for the next line unless one is
+    // already pending. True when a line is pending afterwards.
+    private boolean fill(long timeoutNanos) throws InterruptedException {
+        if (pending == null && !ended) {
+            String line = timeoutNanos < 0 ? lines.take() : lines.poll(timeoutNanos, TimeUnit.NANOSECONDS);
+            if (line == END) {
+                ended = true;
+            } else {
+                pending = line;
+            }
+        }
+        return pending != null;
+    }
+
+    private String take() {
+        String line = pending;
+        pending = null;
+        return line;
+    }
+
+    private void pump(BufferedReader reader) {
+        try {
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.put(line);
+                }
+            } catch (IOException e) {
+                // A broken stream ends the input the same way end of file does.
+            }
+            lines.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
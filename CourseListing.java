@@ -0,0 +1,152 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+class CourseListing {
+    static final String HEADER = String.format("%-10s %-30s %-40s %5s %10s  %s%n",
+            "Code", "Title", "Description", "Capacity", "Enrolled", "Schedule");
+
+    enum Order {
+        CODE,
+        TITLE,
+        FREE_SEATS
+    }
+
+    static final class Page {
+        private final List<StudentCourseRegistrationSystem.Course> rows;
+        private final String nextCursor;
+
+        Page(List<StudentCourseRegistrationSystem.Course> rows, String nextCursor) {
+            this.rows = rows;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<StudentCourseRegistrationSystem.Course> getRows() {
+            return rows;
+        }
+
+        // Pass back in to get the following page; null on the last page.
+        public String getNextCursor() {
+            return nextCursor;
+        }
+    }
+
+    // Most free seats first, then by code.
+    private static final Comparator<StudentCourseRegistrationSystem.Course> BY_FREE_SEATS =
+            Comparator.comparingInt(CourseListing::freeSeats).reversed()
+                    .thenComparing(StudentCourseRegistrationSystem.Course::getCode);
+
+    // Code and title orders are kept sorted as courses are added, so a page is a seek plus
+    // pageSize steps. Free seats change with every registration, so that order is computed per
+    // page with a bounded heap over all courses instead of being maintained.
+    private final ConcurrentSkipListMap<String, StudentCourseRegistrationSystem.Course> byCode;
+    private final ConcurrentSkipListMap<String, StudentCourseRegistrationSystem.Course> byTitle;
+
+    public CourseListing() {
+        byCode = new ConcurrentSkipListMap<>();
+        byTitle = new ConcurrentSkipListMap<>();
+    }
+
+    // Replaces any course already listed under the same code.
+    public void add(StudentCourseRegistrationSystem.Course course) {
+        StudentCourseRegistrationSystem.Course previous = byCode.put(course.getCode(), course);
+        if (previous != null) {
+            byTitle.remove(titleKey(previous));
+        }
+        byTitle.put(titleKey(course), course);
+    }
+
+    public int size() {
+        return byCode.size();
+    }
+
+    // The cursor is the sort key of the last row of the previous page, so paging needs no
+    // server-side state. Under FREE_SEATS a course whose seats change between pages can move
+    // across the cursor.
+    public Page page(Order order, String cursor, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive.");
+        }
+        switch (order) {
+            case TITLE:
+                return seek(byTitle, cursor, pageSize);
+            case FREE_SEATS:
+                return pageByFreeSeats(cursor, pageSize);
+            default:
+                return seek(byCode, cursor, pageSize);
+        }
+    }
+
+    // Appends one cached row per course; callers append HEADER once above the first page.
+    public static void render(Page page, StringBuilder buffer) {
+        for (StudentCourseRegistrationSystem.Course course : page.getRows()) {
+            buffer.append(course.formatRow()).append(System.lineSeparator());
+        }
+    }
+
+    private static Page seek(ConcurrentSkipListMap<String, StudentCourseRegistrationSystem.Course> sorted,
+                             String cursor, int pageSize) {
+        Map<String, StudentCourseRegistrationSystem.Course> remaining = cursor == null ? sorted : sorted.tailMap(cursor, false);
+        List<StudentCourseRegistrationSystem.Course> rows = new ArrayList<>(pageSize);
+        String last = null;
+        for (Map.Entry<String, StudentCourseRegistrationSystem.Course> entry : remaining.entrySet()) {
+            if (rows.size() == pageSize) {
+                return new Page(rows, last);
+            }
+            rows.add(entry.getValue());
+            last = entry.getKey();
+        }
+        return new Page(rows, null);
+    }
+
+    private Page pageByFreeSeats(String cursor, int pageSize) {
+        int afterSeats = Integer.MAX_VALUE;
+        String afterCode = "";
+        if (cursor != null) {
+            int separator = cursor.indexOf('|');
+            afterSeats = Integer.parseInt(cursor.substring(0, separator));
+            afterCode = cursor.substring(separator + 1);
+        }
+
+        // Keeps the pageSize best courses after the cursor, worst at the head.
+        PriorityQueue<StudentCourseRegistrationSystem.Course> best = new PriorityQueue<>(pageSize + 1, BY_FREE_SEATS.reversed());
+        boolean more = false;
+        for (StudentCourseRegistrationSystem.Course course : byCode.values()) {
+            int seats = freeSeats(course);
+            if (seats > afterSeats || (seats == afterSeats && course.getCode().compareTo(afterCode) <= 0)) {
+                continue;
+            }
+            if (best.size() == pageSize) {
+                // Most courses cannot beat the current worst row, so check before touching the heap.
+                more = true;
+                StudentCourseRegistrationSystem.Course worst = best.peek();
+                int worstSeats = freeSeats(worst);
+                if (seats < worstSeats || (seats == worstSeats && course.getCode().compareTo(worst.getCode()) > 0)) {
+                    continue;
+                }
+                best.poll();
+            }
+            best.add(course);
+        }
+
+        List<StudentCourseRegistrationSystem.Course> rows = new ArrayList<>(best);
+        rows.sort(BY_FREE_SEATS);
+        if (!more || rows.isEmpty()) {
+            return new Page(rows, null);
+        }
+        StudentCourseRegistrationSystem.Course last = rows.get(rows.size() - 1);
+        return new Page(rows, freeSeats(last) + "|" + last.getCode());
+    }
+
+    private static String titleKey(StudentCourseRegistrationSystem.Course course) {
+        return course.getTitle().toLowerCase(Locale.ROOT) + '\u0000' + course.getCode();
+    }
+
+    private static int freeSeats(StudentCourseRegistrationSystem.Course course) {
+        return Math.max(0, course.getCapacity() - course.getEnrolled());
+    }
+}
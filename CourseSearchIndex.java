@@ -0,0 +1,232 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+class CourseSearchIndex {
+    private static final int CODE_WEIGHT = 4;
+    private static final int TITLE_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int MAX_WEIGHT = CODE_WEIGHT + TITLE_WEIGHT + DESCRIPTION_WEIGHT;
+
+    static final class Hit {
+        private final StudentCourseRegistrationSystem.Course course;
+        private final double score;
+
+        Hit(StudentCourseRegistrationSystem.Course course, double score) {
+            this.course = course;
+            this.score = score;
+        }
+
+        public StudentCourseRegistrationSystem.Course getCourse() {
+            return course;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    // Every course containing a token, with the summed weight of the fields it appears in, plus
+    // the same courses grouped by that weight so a query can visit the best ones first.
+    private static final class Postings {
+        private final Map<StudentCourseRegistrationSystem.Course, Integer> weights = new ConcurrentHashMap<>();
+        private final AtomicReferenceArray<Map<StudentCourseRegistrationSystem.Course, Boolean>> byWeight =
+                new AtomicReferenceArray<>(MAX_WEIGHT + 1);
+
+        void put(StudentCourseRegistrationSystem.Course course, int weight) {
+            Map<StudentCourseRegistrationSystem.Course, Boolean> bucket = byWeight.get(weight);
+            if (bucket == null) {
+                byWeight.compareAndSet(weight, null, new ConcurrentHashMap<>());
+                bucket = byWeight.get(weight);
+            }
+            bucket.put(course, Boolean.TRUE);
+            weights.put(course, weight);
+        }
+
+        void remove(StudentCourseRegistrationSystem.Course course) {
+            Integer weight = weights.remove(course);
+            if (weight != null) {
+                byWeight.get(weight).remove(course);
+            }
+        }
+
+        int maxWeight() {
+            for (int weight = MAX_WEIGHT; weight > 0; weight--) {
+                Map<StudentCourseRegistrationSystem.Course, Boolean> bucket = byWeight.get(weight);
+                if (bucket != null && !bucket.isEmpty()) {
+                    return weight;
+                }
+            }
+            return 0;
+        }
+    }
+
+    // Codes are kept in a sorted map for prefix lookup, keyed by the upper-cased code followed by
+    // the code itself: prefixes match regardless of case, while codes the registration system
+    // tells apart (CS101 and cs101) stay separate entries. Every token of a course's code, title
+    // and description has its postings. Seat availability is not indexed: the filter
+    // reads each candidate's live seat counter, so results follow enrollment changes immediately
+    // and nothing has to be re-indexed for them.
+    private final ConcurrentSkipListMap<String, StudentCourseRegistrationSystem.Course> byCode;
+    private final Map<String, Postings> postings;
+
+    public CourseSearchIndex() {
+        byCode = new ConcurrentSkipListMap<>();
+        postings = new ConcurrentHashMap<>();
+    }
+
+    // Replaces any course already indexed under the same code.
+    public void add(StudentCourseRegistrationSystem.Course course) {
+        StudentCourseRegistrationSystem.Course previous = byCode.put(codeKey(course.getCode()), course);
+        if (previous != null && previous != course) {
+            for (Postings courses : postings.values()) {
+                courses.remove(previous);
+            }
+        }
+        Map<String, Integer> weights = new ConcurrentHashMap<>();
+        addTokens(weights, course.getCode(), CODE_WEIGHT);
+        addTokens(weights, course.getTitle(), TITLE_WEIGHT);
+        addTokens(weights, course.getDescription(), DESCRIPTION_WEIGHT);
+        for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+            postings.computeIfAbsent(weight.getKey(), token -> new Postings()).put(course, weight.getValue());
+        }
+    }
+
+    public int size() {
+        return byCode.size();
+    }
+
+    // Courses whose code starts with the prefix, in code order.
+    public List<StudentCourseRegistrationSystem.Course> findByCodePrefix(String prefix, boolean onlyWithFreeSeats, int limit) {
+        String key = normalize(prefix);
+        List<StudentCourseRegistrationSystem.Course> matches = new ArrayList<>(Math.min(limit, 64));
+        for (Map.Entry<String, StudentCourseRegistrationSystem.Course> entry : byCode.tailMap(key).entrySet()) {
+            if (matches.size() >= limit || !entry.getKey().startsWith(key)) {
+                break;
+            }
+            if (!onlyWithFreeSeats || entry.getValue().isAvailable()) {
+                matches.add(entry.getValue());
+            }
+        }
+        return matches;
+    }
+
+    // Courses containing every keyword, best first. A course scores the field weight of each
+    // keyword times its inverse document frequency, so rare words count for more; ties go to the
+    // course with more free seats, then to the lower code. Only the rarest keyword's postings are
+    // walked, heaviest weight first, with the other keywords checked by lookup. Once the best
+    // score a lighter group could still reach falls below the current top results, the walk stops.
+    public List<Hit> search(String keywords, boolean onlyWithFreeSeats, int limit) {
+        List<String> tokens = tokenize(keywords);
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<Postings> lists = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            Postings courses = postings.get(token);
+            if (courses == null) {
+                return Collections.emptyList();
+            }
+            lists.add(courses);
+        }
+        lists.sort((a, b) -> Integer.compare(a.weights.size(), b.weights.size()));
+
+        double total = Math.max(1, byCode.size());
+        double[] idf = new double[lists.size()];
+        double othersBest = 0;
+        for (int i = 0; i < idf.length; i++) {
+            idf[i] = Math.log(1 + total / Math.max(1, lists.get(i).weights.size()));
+            if (i > 0) {
+                othersBest += lists.get(i).maxWeight() * idf[i];
+            }
+        }
+
+        PriorityQueue<Hit> best = new PriorityQueue<>(Math.min(limit, 1024) + 1, CourseSearchIndex::compareWorstFirst);
+        Postings rarest = lists.get(0);
+        for (int weight = MAX_WEIGHT; weight > 0; weight--) {
+            Map<StudentCourseRegistrationSystem.Course, Boolean> bucket = rarest.byWeight.get(weight);
+            if (bucket == null) {
+                continue;
+            }
+            if (best.size() == limit && weight * idf[0] + othersBest < best.peek().score) {
+                break;
+            }
+            candidates:
+            for (StudentCourseRegistrationSystem.Course course : bucket.keySet()) {
+                double score = weight * idf[0];
+                for (int i = 1; i < lists.size(); i++) {
+                    Integer other = lists.get(i).weights.get(course);
+                    if (other == null) {
+                        continue candidates;
+                    }
+                    score += other * idf[i];
+                }
+                if ((best.size() == limit && score < best.peek().score) || (onlyWithFreeSeats && !course.isAvailable())) {
+                    continue;
+                }
+                best.add(new Hit(course, score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort((a, b) -> compareWorstFirst(b, a));
+        return hits;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                String token = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!tokens.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static void addTokens(Map<String, Integer> weights, String text, int weight) {
+        for (String token : tokenize(text)) {
+            weights.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private static int compareWorstFirst(Hit a, Hit b) {
+        int byScore = Double.compare(a.score, b.score);
+        if (byScore != 0) {
+            return byScore;
+        }
+        int bySeats = Integer.compare(freeSeats(a.course), freeSeats(b.course));
+        if (bySeats != 0) {
+            return bySeats;
+        }
+        return b.course.getCode().compareTo(a.course.getCode());
+    }
+
+    private static int freeSeats(StudentCourseRegistrationSystem.Course course) {
+        return course.getCapacity() - course.getEnrolled();
+    }
+
+    private static String normalize(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static String codeKey(String code) {
+        return normalize(code) + '\u0000' + code;
+    }
+}
@@ -0,0 +1,254 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+public class InterestBatch {
+    static final int DEFAULT_PARTITION_SIZE = 1 << 16;
+
+    static final class Policy {
+        private final int annualRateBasisPoints;
+        private final long minimumBalanceCents;
+        private final long maintenanceFeeCents;
+
+        public Policy(int annualRateBasisPoints, long minimumBalanceCents, long maintenanceFeeCents) {
+            this.annualRateBasisPoints = annualRateBasisPoints;
+            this.minimumBalanceCents = minimumBalanceCents;
+            this.maintenanceFeeCents = maintenanceFeeCents;
+        }
+    }
+
+    static final class Summary {
+        private final long[] accounts;
+        private final long[] interest;
+        private final long[] fees;
+        private final long[] elapsedNanos;
+        private final boolean[] skipped;
+        private long totalElapsedNanos;
+
+        Summary(int partitions) {
+            accounts = new long[partitions];
+            interest = new long[partitions];
+            fees = new long[partitions];
+            elapsedNanos = new long[partitions];
+            skipped = new boolean[partitions];
+        }
+
+        public long accountsProcessed() {
+            long total = 0;
+            for (long count : accounts) {
+                total += count;
+            }
+            return total;
+        }
+
+        public long totalInterestCents() {
+            long total = 0;
+            for (long cents : interest) {
+                total += cents;
+            }
+            return total;
+        }
+
+        public long totalFeeCents() {
+            long total = 0;
+            for (long cents : fees) {
+                total += cents;
+            }
+            return total;
+        }
+
+        public void print(boolean perPartition) {
+            if (perPartition) {
+                System.out.printf("%-10s %-12s %-15s %-12s %-10s%n", "Partition", "Accounts", "Interest", "Fees", "Time (ms)");
+                for (int p = 0; p < accounts.length; p++) {
+                    if (skipped[p]) {
+                        System.out.printf("%-10d %-12s%n", p, "done earlier");
+                    } else {
+                        System.out.printf("%-10d %-12d %-15s %-12s %-10.1f%n", p, accounts[p],
+                                Money.formatCents(interest[p]), Money.formatCents(fees[p]),
+                                elapsedNanos[p] / 1e6);
+                    }
+                }
+            }
+            System.out.println("Accounts processed: " + accountsProcessed());
+            System.out.println("Total interest posted: $" + Money.formatCents(totalInterestCents()));
+            System.out.println("Total fees charged: $" + Money.formatCents(totalFeeCents()));
+            System.out.printf("Elapsed: %.2fs%n", totalElapsedNanos / 1e9);
+        }
+    }
+
+    private final Ledger ledger;
+    private final Policy policy;
+    private final int partitionSize;
+    private final Path checkpointFile;
+
+    private int runId;
+    private long startSequence;
+    private BitSet completed;
+
+    public InterestBatch(Ledger ledger, Policy policy, int partitionSize, Path checkpointFile) {
+        this.ledger = ledger;
+        this.policy = policy;
+        this.partitionSize = partitionSize;
+        this.checkpointFile = checkpointFile;
+    }
+
+    // Runs (or resumes) the batch for runId. Partitions are marked complete in the checkpoint
+    // only once their postings are durable; accounts in an unfinished partition that already
+    // got a posting for this run are found in the journal tail and skipped, so no account is
+    // ever posted twice for the same run. The run holds the journal from its start sequence
+    // until the next run starts, so snapshots never prune the tail a resume has to search.
+    public Summary run(int runId) throws IOException {
+        int partitions = (ledger.size() + partitionSize - 1) / partitionSize;
+        Summary summary = new Summary(partitions);
+        long start = System.nanoTime();
+
+        TransactionJournal journal = ledger.getJournal();
+        this.runId = runId;
+        this.completed = new BitSet(partitions);
+        this.startSequence = journal == null ? 0 : journal.lastSequence();
+        BitSet alreadyPosted = new BitSet();
+        boolean resuming;
+        try {
+            resuming = loadCheckpoint(partitions);
+        } catch (IOException e) {
+            // Nothing can be trusted about which partitions finished, so redo them all; this
+            // run's postings are found after its journal hold. The hold is taken before the
+            // first checkpoint is written, so without one this run never posted anything.
+            System.out.println("Ignoring unreadable interest checkpoint " + checkpointFile + ": " + e);
+            long held = journal == null ? -1 : journal.heldAfter(runId);
+            resuming = held >= 0;
+            if (resuming) {
+                startSequence = held;
+            }
+        }
+        if (!resuming) {
+            if (journal != null) {
+                journal.hold(runId, startSequence);
+            }
+            writeCheckpoint();
+        } else if (journal != null) {
+            journal.replay(startSequence, entry -> {
+                if (entry.getOp() == TransactionJournal.OP_END_OF_DAY && entry.getAmountCents() == runId) {
+                    alreadyPosted.set(entry.getAccountId());
+                }
+            });
+        }
+
+        IntStream.range(0, partitions).parallel().forEach(p -> {
+            if (isCompleted(p)) {
+                summary.skipped[p] = true;
+                return;
+            }
+            long partitionStart = System.nanoTime();
+            int from = p * partitionSize;
+            int to = Math.min(from + partitionSize, ledger.size());
+            long[] totals = new long[2];
+            for (int accountId = from; accountId < to; accountId++) {
+                if (!alreadyPosted.get(accountId)) {
+                    ledger.postEndOfDay(accountId, policy.annualRateBasisPoints, policy.minimumBalanceCents,
+                            policy.maintenanceFeeCents, runId, totals);
+                    summary.accounts[p]++;
+                }
+            }
+            ledger.awaitDurable();
+            markCompleted(p);
+            summary.interest[p] = totals[0];
+            summary.fees[p] = totals[1];
+            summary.elapsedNanos[p] = System.nanoTime() - partitionStart;
+        });
+
+        summary.totalElapsedNanos = System.nanoTime() - start;
+        return summary;
+    }
+
+    private synchronized boolean isCompleted(int partition) {
+        return completed.get(partition);
+    }
+
+    private synchronized void markCompleted(int partition) {
+        completed.set(partition);
+        try {
+            writeCheckpoint();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write interest checkpoint", e);
+        }
+    }
+
+    // Checkpoint layout: run id, journal sequence at run start, partition size, completed bitset.
+    // Throws when the checkpoint exists but cannot be read back in full.
+    private boolean loadCheckpoint(int partitions) throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpointFile)))) {
+            int savedRunId = in.readInt();
+            long savedStartSequence = in.readLong();
+            int savedPartitionSize = in.readInt();
+            if (savedRunId != runId || savedPartitionSize != partitionSize) {
+                return false;
+            }
+            int wordCount = in.readInt();
+            if (wordCount < 0 || wordCount > (partitions + 63) / 64) {
+                throw new IOException("Corrupt interest checkpoint: " + checkpointFile);
+            }
+            long[] words = new long[wordCount];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = in.readLong();
+            }
+            startSequence = savedStartSequence;
+            completed = BitSet.valueOf(words);
+            return true;
+        }
+    }
+
+    // The temp file is forced before the rename, so the rename can never expose a checkpoint
+    // whose contents are not on disk yet.
+    private void writeCheckpoint() throws IOException {
+        Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(runId);
+            out.writeLong(startSequence);
+            out.writeInt(partitionSize);
+            long[] words = completed.toLongArray();
+            out.writeInt(words.length);
+            for (long word : words) {
+                out.writeLong(word);
+            }
+            out.flush();
+            file.getChannel().force(true);
+        }
+        Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int runId = args.length > 0 ? Integer.parseInt(args[0])
+                : Integer.parseInt(LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE));
+        Path dataDirectory = Paths.get(args.length > 1 ? args[1] : "atm-data");
+        int capacity = args.length > 2 ? Integer.parseInt(args[2]) : 1024;
+        Path snapshotDirectory = dataDirectory.resolve("snapshots");
+        Policy policy = new Policy(150, Money.toCents(500.00), Money.toCents(5.00));
+
+        try (TransactionJournal journal = new TransactionJournal(dataDirectory.resolve("journal"), 1 << 16, 0)) {
+            Ledger ledger = LedgerSnapshot.recover(snapshotDirectory, journal, capacity);
+            InterestBatch batch = new InterestBatch(ledger, policy, DEFAULT_PARTITION_SIZE,
+                    dataDirectory.resolve("interest-checkpoint.bin"));
+            System.out.println("End-of-day run " + runId + " over " + ledger.size() + " accounts");
+            batch.run(runId).print(true);
+            LedgerSnapshot.snapshot(ledger, snapshotDirectory);
+        }
+    }
+}
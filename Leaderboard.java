@@ -0,0 +1,155 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Best score per player, shared by every quiz session. Players are identified by an id the
+// server assigns; the name they typed is only carried along for display. Players are ordered in
+// a lock-free skip list, so the top K is a walk of K entries, and the number of players at each
+// score is kept in a Fenwick tree of atomic counters, so a rank or percentile is a prefix sum
+// over log(maxScore) cells. A submit locks only its player's hash bin; readers never lock. Under
+// concurrent submits a reader can see a player's old score for a moment, and counts that are one
+// update apart, but never a player twice.
+class Leaderboard {
+    static final class Entry {
+        private final long playerId;
+        private final String name;
+        private final int score;
+        private final long sequence;
+
+        Entry(long playerId, String name, int score, long sequence) {
+            this.playerId = playerId;
+            this.name = name;
+            this.score = score;
+            this.sequence = sequence;
+        }
+
+        public long getPlayerId() {
+            return playerId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getScore() {
+            return score;
+        }
+    }
+
+    // Highest score first; among equal scores whoever reached it first.
+    private static final Comparator<Entry> RANKING = Comparator.comparingInt((Entry entry) -> -entry.score)
+            .thenComparingLong(entry -> entry.sequence)
+            .thenComparingLong(entry -> entry.playerId);
+
+    private final int maxScore;
+    private final AtomicLongArray counts;
+    private final Map<Long, Entry> best;
+    private final ConcurrentSkipListSet<Entry> ranking;
+    private final AtomicLong sequence;
+
+    public Leaderboard(int maxScore) {
+        if (maxScore < 0) {
+            throw new IllegalArgumentException("Maximum score must not be negative.");
+        }
+        this.maxScore = maxScore;
+        this.counts = new AtomicLongArray(maxScore + 2);
+        this.best = new ConcurrentHashMap<>();
+        this.ranking = new ConcurrentSkipListSet<>(RANKING);
+        this.sequence = new AtomicLong();
+    }
+
+    // Keeps the player's best score, under the latest name; returns true if this score improved
+    // it. The new entry is ranked before the old one is removed, and readers skip entries that
+    // are no longer current.
+    public boolean submit(long playerId, String name, int score) {
+        if (score < 0 || score > maxScore) {
+            throw new IllegalArgumentException("Score must be between 0 and " + maxScore);
+        }
+        boolean[] improved = new boolean[1];
+        best.compute(playerId, (id, current) -> {
+            if (current != null && current.score >= score) {
+                return current;
+            }
+            Entry entry = new Entry(id, name, score, sequence.incrementAndGet());
+            ranking.add(entry);
+            addCount(score, 1);
+            if (current != null) {
+                ranking.remove(current);
+                addCount(current.score, -1);
+            }
+            improved[0] = true;
+            return entry;
+        });
+        return improved[0];
+    }
+
+    public int size() {
+        return best.size();
+    }
+
+    public int getMaxScore() {
+        return maxScore;
+    }
+
+    // Best score, or -1 for a player who has not submitted one.
+    public int getScore(long playerId) {
+        Entry entry = best.get(playerId);
+        return entry == null ? -1 : entry.score;
+    }
+
+    public List<Entry> top(int k) {
+        List<Entry> top = new ArrayList<>(Math.min(k, 1024));
+        for (Entry entry : ranking) {
+            if (top.size() >= k) {
+                break;
+            }
+            if (best.get(entry.playerId) == entry) {
+                top.add(entry);
+            }
+        }
+        return top;
+    }
+
+    // 1 plus the number of players with a higher score, so tied players share a rank; 0 for a
+    // player who has not submitted a score.
+    public long rank(long playerId) {
+        Entry entry = best.get(playerId);
+        return entry == null ? 0 : countAbove(entry.score) + 1;
+    }
+
+    public long countAbove(int score) {
+        return countAtMost(maxScore) - countAtMost(score);
+    }
+
+    // Percentile rank: the share of players below the score plus half of those tied with it.
+    public double percentile(long playerId) {
+        Entry entry = best.get(playerId);
+        if (entry == null) {
+            return 0;
+        }
+        long total = countAtMost(maxScore);
+        long below = entry.score == 0 ? 0 : countAtMost(entry.score - 1);
+        long tied = countAtMost(entry.score) - below;
+        return total == 0 ? 0 : 100.0 * (below + tied / 2.0) / total;
+    }
+
+    // Players with a score of at most the given one.
+    public long countAtMost(int score) {
+        long total = 0;
+        for (int i = Math.min(score, maxScore) + 1; i > 0; i -= i & -i) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    private void addCount(int score, long delta) {
+        for (int i = score + 1; i < counts.length(); i += i & -i) {
+            counts.getAndAdd(i, delta);
+        }
+    }
+}
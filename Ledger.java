@@ -0,0 +1,256 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+class Ledger {
+    private static final long INTEREST_DIVISOR = 10_000L * 365;
+
+    private final long[] balances;
+    private final Object[] stripes;
+    private final int stripeMask;
+    private final AtomicInteger accountCount;
+    private final TransactionJournal journal;
+
+    public Ledger(int capacity) {
+        this(capacity, null);
+    }
+
+    public Ledger(int capacity, TransactionJournal journal) {
+        this(capacity, Runtime.getRuntime().availableProcessors() * 16, journal);
+    }
+
+    // Every successful mutation is appended to the journal (when one is given) while the
+    // account's stripe is still held, so per-account journal order matches apply order.
+    public Ledger(int capacity, int stripeCount, TransactionJournal journal) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ledger capacity must be positive.");
+        }
+        int stripesPowerOfTwo = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.balances = new long[capacity];
+        this.stripes = new Object[stripesPowerOfTwo];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+        this.stripeMask = stripesPowerOfTwo - 1;
+        this.accountCount = new AtomicInteger();
+        this.journal = journal;
+    }
+
+    public int openAccount(long initialCents) {
+        if (initialCents < 0) {
+            throw new IllegalArgumentException("Initial balance cannot be negative.");
+        }
+        int accountId = accountCount.getAndIncrement();
+        if (accountId >= balances.length) {
+            accountCount.decrementAndGet();
+            throw new IllegalStateException("Ledger is full (" + balances.length + " accounts).");
+        }
+        synchronized (stripeFor(accountId)) {
+            balances[accountId] = initialCents;
+            journal(TransactionJournal.OP_OPEN, accountId, accountId, initialCents);
+        }
+        return accountId;
+    }
+
+    public TransactionJournal getJournal() {
+        return journal;
+    }
+
+    public int size() {
+        return Math.min(accountCount.get(), balances.length);
+    }
+
+    public int capacity() {
+        return balances.length;
+    }
+
+    public long balance(int accountId) {
+        checkAccount(accountId);
+        synchronized (stripeFor(accountId)) {
+            return balances[accountId];
+        }
+    }
+
+    public boolean deposit(int accountId, long cents) {
+        checkAccount(accountId);
+        if (cents <= 0) {
+            return false;
+        }
+        synchronized (stripeFor(accountId)) {
+            balances[accountId] = Math.addExact(balances[accountId], cents);
+            journal(TransactionJournal.OP_DEPOSIT, accountId, accountId, cents);
+        }
+        return true;
+    }
+
+    public boolean withdraw(int accountId, long cents) {
+        checkAccount(accountId);
+        if (cents <= 0) {
+            return false;
+        }
+        synchronized (stripeFor(accountId)) {
+            if (balances[accountId] < cents) {
+                return false;
+            }
+            balances[accountId] -= cents;
+            journal(TransactionJournal.OP_WITHDRAW, accountId, accountId, cents);
+        }
+        return true;
+    }
+
+    // Both stripes are always taken lowest index first, so two opposing transfers
+    // can never hold one lock each and wait on the other.
+    public boolean transfer(int fromAccountId, int toAccountId, long cents) {
+        checkAccount(fromAccountId);
+        checkAccount(toAccountId);
+        if (cents <= 0 || fromAccountId == toAccountId) {
+            return false;
+        }
+        int fromStripe = fromAccountId & stripeMask;
+        int toStripe = toAccountId & stripeMask;
+        Object first = stripes[Math.min(fromStripe, toStripe)];
+        Object second = stripes[Math.max(fromStripe, toStripe)];
+
+        synchronized (first) {
+            synchronized (second) {
+                if (balances[fromAccountId] < cents) {
+                    return false;
+                }
+                long credited = Math.addExact(balances[toAccountId], cents);
+                balances[fromAccountId] -= cents;
+                balances[toAccountId] = credited;
+                journal(TransactionJournal.OP_TRANSFER, fromAccountId, toAccountId, cents);
+            }
+        }
+        return true;
+    }
+
+    // End-of-day posting for one account, done under its stripe so nothing can slip between
+    // reading the balance and posting. The fee is charged when the balance after interest is
+    // below the minimum. When anything is posted, an OP_END_OF_DAY record with the run id goes
+    // first, so a resumed run can tell which accounts it already reached.
+    public void postEndOfDay(int accountId, int annualRateBasisPoints, long minimumBalanceCents,
+                             long maintenanceFeeCents, int runId, long[] totals) {
+        checkAccount(accountId);
+        synchronized (stripeFor(accountId)) {
+            long interest = dailyInterestCents(balances[accountId], annualRateBasisPoints);
+            long balance = Math.addExact(balances[accountId], interest);
+            long fee = Math.max(0, Math.min(balance < minimumBalanceCents ? maintenanceFeeCents : 0, balance));
+            if (interest == 0 && fee == 0) {
+                return;
+            }
+            journal(TransactionJournal.OP_END_OF_DAY, accountId, accountId, runId);
+            if (interest > 0) {
+                journal(TransactionJournal.OP_INTEREST, accountId, accountId, interest);
+            }
+            if (fee > 0) {
+                journal(TransactionJournal.OP_FEE, accountId, accountId, fee);
+            }
+            balances[accountId] = balance - fee;
+            totals[0] += interest;
+            totals[1] += fee;
+        }
+    }
+
+    // One day's interest, rounded down to the cent. Split so balance * rate cannot overflow.
+    static long dailyInterestCents(long balanceCents, int annualRateBasisPoints) {
+        if (balanceCents <= 0) {
+            return 0;
+        }
+        long whole = balanceCents / INTEREST_DIVISOR;
+        long rest = balanceCents % INTEREST_DIVISOR;
+        return whole * annualRateBasisPoints + rest * annualRateBasisPoints / INTEREST_DIVISOR;
+    }
+
+    public long totalBalance() {
+        return withAllStripes(0, () -> {
+            long total = 0;
+            int count = size();
+            for (int i = 0; i < count; i++) {
+                total += balances[i];
+            }
+            return total;
+        });
+    }
+
+    // Mutations journal while holding their stripe, so with every stripe held the journal's
+    // last sequence is exactly the point these balances reflect.
+    public LedgerSnapshot snapshot() {
+        return withAllStripes(0, () -> new LedgerSnapshot(
+                journal == null ? 0 : journal.lastSequence(), Arrays.copyOf(balances, size())));
+    }
+
+    void restore(LedgerSnapshot snapshot) {
+        long[] restored = snapshot.getBalances();
+        if (size() != 0) {
+            throw new IllegalStateException("Can only restore into an empty ledger.");
+        }
+        if (restored.length > balances.length) {
+            throw new IllegalStateException("Snapshot has " + restored.length + " accounts but the ledger holds " + balances.length + ".");
+        }
+        System.arraycopy(restored, 0, balances, 0, restored.length);
+        accountCount.set(restored.length);
+    }
+
+    // Re-applies a journal record during recovery without journaling it again.
+    void replay(TransactionJournal.Entry entry) {
+        int accountId = entry.getAccountId();
+        long cents = entry.getAmountCents();
+        switch (entry.getOp()) {
+            case TransactionJournal.OP_OPEN:
+                if (accountId >= balances.length) {
+                    throw new IllegalStateException("Journal opens account " + accountId + " beyond ledger capacity.");
+                }
+                balances[accountId] = cents;
+                accountCount.accumulateAndGet(accountId + 1, Math::max);
+                break;
+            case TransactionJournal.OP_DEPOSIT:
+            case TransactionJournal.OP_INTEREST:
+                balances[accountId] += cents;
+                break;
+            case TransactionJournal.OP_WITHDRAW:
+            case TransactionJournal.OP_FEE:
+                balances[accountId] -= cents;
+                break;
+            case TransactionJournal.OP_TRANSFER:
+                balances[accountId] -= cents;
+                balances[entry.getCounterpartyId()] += cents;
+                break;
+            case TransactionJournal.OP_END_OF_DAY:
+                break;
+            default:
+                throw new IllegalStateException("Unknown journal op " + entry.getOp() + " at " + entry.getSequence());
+        }
+    }
+
+    public void awaitDurable() {
+        if (journal != null) {
+            journal.sync();
+        }
+    }
+
+    private void journal(int op, int accountId, int counterpartyId, long cents) {
+        if (journal != null) {
+            journal.append(op, accountId, counterpartyId, cents);
+        }
+    }
+
+    private <T> T withAllStripes(int stripe, Supplier<T> action) {
+        if (stripe == stripes.length) {
+            return action.get();
+        }
+        synchronized (stripes[stripe]) {
+            return withAllStripes(stripe + 1, action);
+        }
+    }
+
+    private Object stripeFor(int accountId) {
+        return stripes[accountId & stripeMask];
+    }
+
+    private void checkAccount(int accountId) {
+        if (accountId < 0 || accountId >= size()) {
+            throw new IllegalArgumentException("Unknown account: " + accountId);
+        }
+    }
+}
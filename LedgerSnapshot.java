@@ -0,0 +1,196 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+class LedgerSnapshot {
+    private static final int MAGIC = 0x4C534E50;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 20;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int SNAPSHOTS_KEPT = 2;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+
+    private final long journalSequence;
+    private final long[] balances;
+
+    public LedgerSnapshot(long journalSequence, long[] balances) {
+        this.journalSequence = journalSequence;
+        this.balances = balances;
+    }
+
+    public long getJournalSequence() {
+        return journalSequence;
+    }
+
+    public long[] getBalances() {
+        return balances;
+    }
+
+    // Layout: magic, version, journal high-water mark, account count, balances, checksum.
+    // Written to a temp file and renamed, so a crash mid-write never leaves a half snapshot.
+    public Path writeTo(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(String.format("%s%020d%s", PREFIX, journalSequence, SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(journalSequence).putInt(balances.length);
+            long checksum = 0;
+            for (long balance : balances) {
+                if (buffer.remaining() < 8) {
+                    drain(channel, buffer);
+                }
+                buffer.putLong(balance);
+                checksum = mix(checksum, balance);
+            }
+            if (buffer.remaining() < 8) {
+                drain(channel, buffer);
+            }
+            buffer.putLong(mix(checksum, journalSequence));
+            drain(channel, buffer);
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        pruneOldSnapshots(directory);
+        return target;
+    }
+
+    public static LedgerSnapshot readFrom(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.limit(0);
+            fill(channel, buffer, HEADER_SIZE);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a ledger snapshot: " + file);
+            }
+            long journalSequence = buffer.getLong();
+            int count = buffer.getInt();
+            if (count < 0 || channel.size() != HEADER_SIZE + 8L * count + 8) {
+                throw new IOException("Truncated ledger snapshot: " + file);
+            }
+
+            long[] balances = new long[count];
+            long checksum = 0;
+            int index = 0;
+            while (index < count) {
+                fill(channel, buffer, 8);
+                while (buffer.remaining() >= 8 && index < count) {
+                    long balance = buffer.getLong();
+                    balances[index++] = balance;
+                    checksum = mix(checksum, balance);
+                }
+            }
+            fill(channel, buffer, 8);
+            if (buffer.getLong() != mix(checksum, journalSequence)) {
+                throw new IOException("Corrupt ledger snapshot: " + file);
+            }
+            return new LedgerSnapshot(journalSequence, balances);
+        }
+    }
+
+    // Writes a snapshot of everything journaled so far, then deletes the journal segments the
+    // oldest kept snapshot already covers, so neither disk use nor a cold start grows without bound.
+    public static Path snapshot(Ledger ledger, Path directory) throws IOException {
+        ledger.awaitDurable();
+        Path written = ledger.snapshot().writeTo(directory);
+        TransactionJournal journal = ledger.getJournal();
+        if (journal != null) {
+            List<Path> snapshots = listSnapshots(directory);
+            String oldest = snapshots.get(snapshots.size() - 1).getFileName().toString();
+            journal.deleteThrough(Long.parseLong(oldest.substring(PREFIX.length(), oldest.length() - SUFFIX.length())));
+        }
+        return written;
+    }
+
+    // Loads the newest readable snapshot (if any) and replays only the journal records after it.
+    public static Ledger recover(Path snapshotDirectory, TransactionJournal journal, int capacity) throws IOException {
+        Ledger ledger = new Ledger(capacity, journal);
+        long replayFrom = 0;
+        for (Path file : listSnapshots(snapshotDirectory)) {
+            try {
+                LedgerSnapshot snapshot = readFrom(file);
+                ledger.restore(snapshot);
+                replayFrom = snapshot.getJournalSequence();
+                break;
+            } catch (IOException e) {
+                System.out.println("Skipping unreadable snapshot " + file.getFileName() + ": " + e.getMessage());
+            }
+        }
+        journal.replay(replayFrom, ledger::replay);
+        return ledger;
+    }
+
+    public static ScheduledExecutorService schedule(Ledger ledger, Path directory, long periodSeconds) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot(ledger, directory);
+            } catch (IOException e) {
+                System.out.println("Ledger snapshot failed: " + e.getMessage());
+            }
+        }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+        return scheduler;
+    }
+
+    // Newest first.
+    private static List<Path> listSnapshots(Path directory) throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return snapshots;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path path : stream) {
+                snapshots.add(path);
+            }
+        }
+        snapshots.sort(Collections.reverseOrder());
+        return snapshots;
+    }
+
+    private static void pruneOldSnapshots(Path directory) throws IOException {
+        List<Path> snapshots = listSnapshots(directory);
+        for (int i = SNAPSHOTS_KEPT; i < snapshots.size(); i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void fill(FileChannel channel, ByteBuffer buffer, int minimum) throws IOException {
+        buffer.compact();
+        while (buffer.position() < minimum) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Unexpected end of ledger snapshot.");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static long mix(long checksum, long value) {
+        return (checksum ^ value) * 0x9E3779B97F4A7C15L + 1;
+    }
+}
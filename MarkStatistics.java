@@ -0,0 +1,109 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Running statistics for marks from 0 to 100, kept only in forms that add up: the count, sum and
+// sum of squares give the mean and variance, and a count per whole mark gives exact percentiles
+// and the grade distribution without keeping the marks themselves. Adding a mark is O(1) and
+// merging two sets is O(101), so parallel workers each keep their own and combine them at the
+// end, and a report over millions of marks never reads them again. Not thread-safe.
+class MarkStatistics {
+    static final int MAX_MARK = 100;
+
+    private final long[] histogram = new long[MAX_MARK + 1];
+    private long count;
+    private long sum;
+    private long sumOfSquares;
+
+    public void add(int mark) {
+        if (mark < 0 || mark > MAX_MARK) {
+            throw new IllegalArgumentException("Mark must be between 0 and " + MAX_MARK);
+        }
+        histogram[mark]++;
+        count++;
+        sum += mark;
+        sumOfSquares += mark * mark;
+    }
+
+    public void merge(MarkStatistics other) {
+        for (int mark = 0; mark <= MAX_MARK; mark++) {
+            histogram[mark] += other.histogram[mark];
+        }
+        count += other.count;
+        sum += other.sum;
+        sumOfSquares += other.sumOfSquares;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long countOf(int mark) {
+        return histogram[mark];
+    }
+
+    public double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    // Population variance of the marks added so far.
+    public double variance() {
+        if (count == 0) {
+            return 0;
+        }
+        double mean = mean();
+        return Math.max(0, (double) sumOfSquares / count - mean * mean);
+    }
+
+    public double standardDeviation() {
+        return Math.sqrt(variance());
+    }
+
+    // Lowest and highest mark, or -1 before any mark is added.
+    public int min() {
+        for (int mark = 0; mark <= MAX_MARK; mark++) {
+            if (histogram[mark] > 0) {
+                return mark;
+            }
+        }
+        return -1;
+    }
+
+    public int max() {
+        for (int mark = MAX_MARK; mark >= 0; mark--) {
+            if (histogram[mark] > 0) {
+                return mark;
+            }
+        }
+        return -1;
+    }
+
+    // Nearest-rank percentile: the smallest mark with at least the given share of marks at or
+    // below it. Exact, since every mark is counted; -1 before any mark is added.
+    public int percentile(double percentile) {
+        if (count == 0) {
+            return -1;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int mark = 0; mark <= MAX_MARK; mark++) {
+            seen += histogram[mark];
+            if (seen >= rank) {
+                return mark;
+            }
+        }
+        return MAX_MARK;
+    }
+
+    // How many marks fall in each grade band, best grade first.
+    public Map<String, Long> gradeDistribution() {
+        Map<String, Long> distribution = new LinkedHashMap<>();
+        for (int mark = MAX_MARK; mark >= 0; mark--) {
+            distribution.merge(StudentGradeCalculator.lookupGrade(mark), histogram[mark], Long::sum);
+        }
+        return distribution;
+    }
+}
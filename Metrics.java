@@ -0,0 +1,183 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+class Metrics {
+    // Log-linear buckets as in HdrHistogram: 16 sub-buckets per power of two keeps every
+    // recorded latency within about 6% of its true value, over the whole range of a long.
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private static final Map<String, Timer> TIMERS = new ConcurrentSkipListMap<>();
+    private static final long STARTED_NANOS = System.nanoTime();
+
+    static final class Timer {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        // Allocation-free and a single atomic add in the common case; count and mean are
+        // derived from the buckets when the metrics are read.
+        public void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        public void record(long nanos) {
+            long value = Math.max(nanos, 0);
+            buckets.getAndIncrement(bucketIndex(value));
+            long max = maxNanos.get();
+            while (value > max && !maxNanos.compareAndSet(max, value)) {
+                max = maxNanos.get();
+            }
+        }
+
+        public long count() {
+            long total = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                total += buckets.get(i);
+            }
+            return total;
+        }
+
+        public long maxNanos() {
+            return maxNanos.get();
+        }
+
+        public double meanNanos() {
+            long n = 0;
+            double total = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                long bucket = buckets.get(i);
+                n += bucket;
+                total += (double) bucket * bucketMidpoint(i);
+            }
+            return n == 0 ? 0 : total / n;
+        }
+
+        public long percentileNanos(double percentile) {
+            long[] counts = new long[BUCKET_COUNT];
+            long total = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketMidpoint(i), maxNanos());
+                }
+            }
+            return maxNanos();
+        }
+    }
+
+    private Metrics() {
+    }
+
+    public static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(name, key -> new Timer());
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long bucketMidpoint(int index) {
+        int group = index / SUB_BUCKETS;
+        long sub = index % SUB_BUCKETS;
+        if (group == 0) {
+            return sub;
+        }
+        int shift = group - 1;
+        long lower = (SUB_BUCKETS + sub) << shift;
+        return lower + ((1L << shift) >>> 1);
+    }
+
+    public static String dump() {
+        double uptimeSeconds = (System.nanoTime() - STARTED_NANOS) / 1e9;
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("Metrics (uptime %.1fs, latencies in microseconds):%n", uptimeSeconds));
+        out.append(String.format("%-28s %10s %10s %9s %9s %9s %9s %9s%n",
+                "Operation", "Count", "Ops/sec", "Mean", "p50", "p90", "p99", "Max"));
+        for (Map.Entry<String, Timer> entry : TIMERS.entrySet()) {
+            Timer timer = entry.getValue();
+            out.append(String.format("%-28s %10d %10.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n", entry.getKey(),
+                    timer.count(), timer.count() / uptimeSeconds, timer.meanNanos() / 1e3,
+                    timer.percentileNanos(50) / 1e3, timer.percentileNanos(90) / 1e3,
+                    timer.percentileNanos(99) / 1e3, timer.maxNanos() / 1e3));
+        }
+        return out.toString();
+    }
+
+    public static String toJson() {
+        double uptimeSeconds = (System.nanoTime() - STARTED_NANOS) / 1e9;
+        StringBuilder out = new StringBuilder();
+        out.append("{\"uptimeSeconds\":").append(String.format("%.1f", uptimeSeconds)).append(",\"timers\":{");
+        boolean first = true;
+        for (Map.Entry<String, Timer> entry : TIMERS.entrySet()) {
+            Timer timer = entry.getValue();
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            out.append('"').append(entry.getKey()).append("\":{")
+                    .append("\"count\":").append(timer.count())
+                    .append(",\"opsPerSec\":").append(String.format("%.1f", timer.count() / uptimeSeconds))
+                    .append(",\"meanNanos\":").append(Math.round(timer.meanNanos()))
+                    .append(",\"p50Nanos\":").append(timer.percentileNanos(50))
+                    .append(",\"p90Nanos\":").append(timer.percentileNanos(90))
+                    .append(",\"p99Nanos\":").append(timer.percentileNanos(99))
+                    .append(",\"maxNanos\":").append(timer.maxNanos())
+                    .append('}');
+        }
+        return out.append("}}\n").toString();
+    }
+
+    public static void writeJson(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, toJson().getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Enabled with -Dmetrics.file=<path> (and optionally -Dmetrics.intervalSeconds=<n>).
+    public static void startPeriodicDumpIfConfigured() {
+        String file = System.getProperty("metrics.file");
+        if (file == null) {
+            return;
+        }
+        long interval = Long.getLong("metrics.intervalSeconds", 10);
+        Path path = Paths.get(file);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                writeJson(path);
+            } catch (IOException e) {
+                System.out.println("Could not write metrics to " + path + ": " + e.getMessage());
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+    }
+}
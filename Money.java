@@ -0,0 +1,24 @@
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Dollar amounts as typed by people, converted to and from the whole cents the ledger keeps.
+class Money {
+    // Ten trillion dollars: every cent up to here is exact in a double.
+    static final double MAX_AMOUNT = 1e13;
+
+    private Money() {
+    }
+
+    // Rounds half up to the cent. Throws IllegalArgumentException for NaN, infinities and
+    // amounts beyond MAX_AMOUNT.
+    public static long toCents(double amount) {
+        if (!Double.isFinite(amount) || Math.abs(amount) > MAX_AMOUNT) {
+            throw new IllegalArgumentException("Amount out of range: " + amount);
+        }
+        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static String formatCents(long cents) {
+        return BigDecimal.valueOf(cents, 2).toPlainString();
+    }
+}
@@ -1,5 +1,4 @@
 import java.util.Random;
-import java.util.Scanner;
 
 public class NumberGame {
     private static final int MIN_NUMBER = 1;
@@ -7,7 +6,7 @@ public class NumberGame {
     private static final int MAX_ATTEMPTS = 10;
 
     public static void main(String[] args) {
-        Scanner scanner = new Scanner(System.in);
+        ConsoleInput input = ConsoleInput.stdin();
         Random random = new Random();
 
         int totalRounds = 0;
@@ -24,18 +23,18 @@ public class NumberGame {
 
             while (attemptsLeft > 0 && !hasGuessedCorrectly) {
                 System.out.println("You have " + attemptsLeft + " attempts left.");
-                System.out.print("Enter your guess: ");
-
-                int userGuess = scanner.nextInt();
+                int userGuess = input.readInt("Enter your guess: ", "Please enter a whole number: ",
+                        Integer.MIN_VALUE, Integer.MAX_VALUE);
 
                 if (userGuess < MIN_NUMBER || userGuess > MAX_NUMBER) {
                     System.out.println("Please guess a number between " + MIN_NUMBER + " and " + MAX_NUMBER + ".");
                     continue;
                 }
 
-                if (userGuess < numberToGuess) {
+                int comparison = evaluateGuess(userGuess, numberToGuess);
+                if (comparison < 0) {
                     System.out.println("Too low!");
-                } else if (userGuess > numberToGuess) {
+                } else if (comparison > 0) {
                     System.out.println("Too high!");
                 } else {
                     System.out.println("Congratulations! You guessed the number.");
@@ -58,10 +57,10 @@ public class NumberGame {
             System.out.println("Total score: " + totalScore);
 
             System.out.print("Do you want to play another round? (yes/no): ");
-            String response = scanner.next();
+            String response = input.nextLine().trim();
             if (response.equalsIgnoreCase("no")) {
                 System.out.print("Do you want to know the number you were trying to guess? (yes/no): ");
-                String revealResponse = scanner.next();
+                String revealResponse = input.nextLine().trim();
                 if (revealResponse.equalsIgnoreCase("yes")) {
                     System.out.println("The number was " + numberToGuess + ".");
                 }
@@ -71,7 +70,10 @@ public class NumberGame {
                 playAgain = response.equalsIgnoreCase("yes");
             }
         }
+    }
 
-        scanner.close();
+    // Negative when the guess is too low, positive when too high, zero when correct.
+    static int evaluateGuess(int guess, int numberToGuess) {
+        return Integer.compare(guess, numberToGuess);
     }
 }
@@ -0,0 +1,41 @@
+import java.util.List;
+
+class Question {
+    private int id;
+    private String question;
+    private List<String> options;
+    private char correctAnswer;
+    
+    public Question(String question, List<String> options, char correctAnswer) {
+        this(-1, question, options, correctAnswer);
+    }
+
+    // The id identifies the question in recorded answers: its position in the bank, or in the
+    // built-in list. Questions made up on the spot have -1 and are not recorded.
+    public Question(int id, String question, List<String> options, char correctAnswer) {
+        this.id = id;
+        this.question = question;
+        this.options = options;
+        this.correctAnswer = correctAnswer;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getQuestion() {
+        return question;
+    }
+
+    public List<String> getOptions() {
+        return options;
+    }
+
+    public char getCorrectAnswer() {
+        return correctAnswer;
+    }
+
+    public boolean isCorrect(String userAnswer) {
+        return userAnswer.length() > 0 && userAnswer.charAt(0) == correctAnswer;
+    }
+}
@@ -0,0 +1,455 @@
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// A read-only question bank file that is memory-mapped, never read in: opening it reads the
+// header and the category table, and a question is decoded from the mapping only when it is
+// drawn. The page cache holds whatever parts of the file are in use, so startup time and heap
+// use do not grow with the number of questions.
+class QuestionBank implements Closeable {
+    private static final int MAGIC = 0x5142414E;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 40;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int MAX_OPTIONS = 26;
+    // A record is at most this long, so a record starting anywhere in a chunk lies wholly inside
+    // that chunk's mapping, which overlaps the next chunk by this much.
+    private static final int MAX_RECORD_SIZE = 1 << 16;
+    private static final long CHUNK_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final MappedByteBuffer index;
+    private final MappedByteBuffer ids;
+    private final int size;
+    private final String[] categories;
+    private final int[] categoryFirst;
+    private final int[] categorySize;
+
+    // Layout: header (magic, version, question count, category count, index offset, category
+    // table offset, ids offset), the question records, an index of one record offset per
+    // question, the category table (name, first slot, size) and the question ids of every
+    // category as consecutive slots. A record is category, correct answer, option count and then
+    // the question and each option as length-prefixed UTF-8.
+    private QuestionBank(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Keep reading until the header is complete or the file ends.
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a question bank: " + file);
+            }
+            size = header.getInt();
+            int categoryCount = header.getInt();
+            long indexOffset = header.getLong();
+            long categoryOffset = header.getLong();
+            long idsOffset = header.getLong();
+            if (size < 0 || categoryCount < 0 || indexOffset < HEADER_SIZE || categoryOffset != indexOffset + 8L * size
+                    || idsOffset < categoryOffset || idsOffset + 4L * size != channel.size()) {
+                throw new IOException("Corrupt question bank: " + file);
+            }
+
+            long recordBytes = indexOffset - HEADER_SIZE;
+            chunks = new MappedByteBuffer[(int) Math.max(1, (recordBytes + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+            for (int i = 0; i < chunks.length; i++) {
+                long start = HEADER_SIZE + i * CHUNK_SIZE;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(CHUNK_SIZE + MAX_RECORD_SIZE, indexOffset - start));
+            }
+            index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, 8L * size);
+            ids = channel.map(FileChannel.MapMode.READ_ONLY, idsOffset, 4L * size);
+
+            MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, categoryOffset, idsOffset - categoryOffset);
+            categories = new String[categoryCount];
+            categoryFirst = new int[categoryCount];
+            categorySize = new int[categoryCount];
+            int position = 0;
+            for (int c = 0; c < categoryCount; c++) {
+                int length = table.getShort(position) & 0xFFFF;
+                categories[c] = decode(table, position + 2, length);
+                categoryFirst[c] = table.getInt(position + 2 + length);
+                categorySize[c] = table.getInt(position + 6 + length);
+                position += 10 + length;
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static QuestionBank open(Path file) throws IOException {
+        return new QuestionBank(file);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public List<String> getCategories() {
+        return Collections.unmodifiableList(Arrays.asList(categories));
+    }
+
+    public int getCategorySize(String category) {
+        int c = categoryIndex(category);
+        return c < 0 ? 0 : categorySize[c];
+    }
+
+    public Question get(int id) {
+        long offset = recordOffset(id);
+        ByteBuffer chunk = chunks[(int) (offset / CHUNK_SIZE)];
+        int position = (int) (offset % CHUNK_SIZE);
+        char correctAnswer = (char) chunk.get(position + 2);
+        int optionCount = chunk.get(position + 3);
+        position += 4;
+        int length = chunk.getShort(position) & 0xFFFF;
+        String text = decode(chunk, position + 2, length);
+        position += 2 + length;
+        List<String> options = new ArrayList<>(optionCount);
+        for (int i = 0; i < optionCount; i++) {
+            length = chunk.getShort(position) & 0xFFFF;
+            options.add(decode(chunk, position + 2, length));
+            position += 2 + length;
+        }
+        return new Question(id, text, options, correctAnswer);
+    }
+
+    public String getCategory(int id) {
+        long offset = recordOffset(id);
+        return categories[chunks[(int) (offset / CHUNK_SIZE)].getShort((int) (offset % CHUNK_SIZE)) & 0xFFFF];
+    }
+
+    // Every question is equally likely, each at most once.
+    public Sampler sampler(SplittableRandom random) {
+        return new Sampler(this, null, random);
+    }
+
+    // Picks a category with probability proportional to its weight among those that still have
+    // questions left, then a question of it uniformly; categories without a weight are never drawn.
+    public Sampler sampler(Map<String, Double> categoryWeights, SplittableRandom random) {
+        double[] weights = new double[categories.length];
+        for (Map.Entry<String, Double> weight : categoryWeights.entrySet()) {
+            int c = categoryIndex(weight.getKey());
+            if (c < 0) {
+                throw new IllegalArgumentException("Unknown category '" + weight.getKey() + "'");
+            }
+            if (!(weight.getValue() >= 0)) {
+                throw new IllegalArgumentException("Category weights must not be negative.");
+            }
+            weights[c] = weight.getValue();
+        }
+        return new Sampler(this, weights, random);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Draws without replacement by running Fisher-Yates lazily over each range of slots: only
+    // the slots a draw has disturbed are remembered, so memory grows with the number of draws
+    // and never with the size of the bank.
+    static final class Sampler {
+        private final QuestionBank bank;
+        private final double[] weights;
+        private final SplittableRandom random;
+        private final int[] remaining;
+        private final List<Map<Integer, Integer>> moved;
+
+        private Sampler(QuestionBank bank, double[] weights, SplittableRandom random) {
+            this.bank = bank;
+            this.weights = weights;
+            this.random = random;
+            int ranges = weights == null ? 1 : weights.length;
+            this.remaining = new int[ranges];
+            this.moved = new ArrayList<>(ranges);
+            for (int r = 0; r < ranges; r++) {
+                remaining[r] = weights == null ? bank.size : bank.categorySize[r];
+                moved.add(new HashMap<>());
+            }
+        }
+
+        // A question id not drawn before, or -1 once every eligible question has been drawn.
+        public int nextId() {
+            if (weights == null) {
+                return remaining[0] == 0 ? -1 : take(0);
+            }
+            double total = 0;
+            for (int c = 0; c < weights.length; c++) {
+                if (remaining[c] > 0) {
+                    total += weights[c];
+                }
+            }
+            if (total <= 0) {
+                return -1;
+            }
+            double pick = random.nextDouble() * total;
+            int chosen = -1;
+            for (int c = 0; c < weights.length; c++) {
+                if (remaining[c] > 0 && weights[c] > 0) {
+                    chosen = c;
+                    pick -= weights[c];
+                    if (pick < 0) {
+                        break;
+                    }
+                }
+            }
+            return bank.ids.getInt(4 * (bank.categoryFirst[chosen] + take(chosen)));
+        }
+
+        public Question next() {
+            int id = nextId();
+            return id < 0 ? null : bank.get(id);
+        }
+
+        // Up to count questions, fewer if the eligible questions run out.
+        public List<Question> draw(int count) {
+            List<Question> drawn = new ArrayList<>(Math.min(count, 1024));
+            Question question;
+            while (drawn.size() < count && (question = next()) != null) {
+                drawn.add(question);
+            }
+            return drawn;
+        }
+
+        // Swaps a random remaining slot with the last remaining one and hands out what it held.
+        private int take(int range) {
+            Map<Integer, Integer> swaps = moved.get(range);
+            int last = --remaining[range];
+            int slot = random.nextInt(last + 1);
+            Integer held = swaps.get(slot);
+            Integer lastHeld = swaps.remove(last);
+            if (slot != last) {
+                swaps.put(slot, lastHeld == null ? last : lastHeld);
+            }
+            return held == null ? slot : held;
+        }
+    }
+
+    // Streams questions to a new bank file. Only the record offsets and category slots stay in
+    // memory (12 bytes a question); the file appears under its name once finish() has written it.
+    static final class Writer implements Closeable {
+        private final Path target;
+        private final Path temp;
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final Map<String, Integer> categoryIndexes;
+        private final List<int[]> categoryIds;
+        private final List<Integer> categorySizes;
+        private long[] offsets;
+        private int size;
+        private long position;
+        private boolean finished;
+
+        Writer(Path target) throws IOException {
+            this.target = target;
+            this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+            if (target.getParent() != null) {
+                Files.createDirectories(target.getParent());
+            }
+            this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            this.categoryIndexes = new LinkedHashMap<>();
+            this.categoryIds = new ArrayList<>();
+            this.categorySizes = new ArrayList<>();
+            this.offsets = new long[1024];
+            this.position = HEADER_SIZE;
+            channel.position(HEADER_SIZE);
+        }
+
+        // Returns the new question's id.
+        public int add(String category, Question question) throws IOException {
+            List<String> options = question.getOptions();
+            if (options.size() > MAX_OPTIONS) {
+                throw new IllegalArgumentException("A question can have at most " + MAX_OPTIONS + " options.");
+            }
+            Integer c = categoryIndexes.get(category);
+            if (c == null) {
+                if (categoryIndexes.size() == 0xFFFF) {
+                    throw new IllegalArgumentException("Too many categories.");
+                }
+                c = categoryIndexes.size();
+                categoryIndexes.put(category, c);
+                categoryIds.add(new int[16]);
+                categorySizes.add(0);
+            }
+
+            byte[][] texts = new byte[options.size() + 1][];
+            texts[0] = encode(question.getQuestion());
+            int recordSize = 4 + 2 + texts[0].length;
+            for (int i = 0; i < options.size(); i++) {
+                texts[i + 1] = encode(options.get(i));
+                recordSize += 2 + texts[i + 1].length;
+            }
+            if (recordSize > MAX_RECORD_SIZE) {
+                throw new IllegalArgumentException("Question and options exceed " + MAX_RECORD_SIZE + " bytes.");
+            }
+            if (buffer.remaining() < recordSize) {
+                drain();
+            }
+            buffer.putShort((short) (int) c).put((byte) question.getCorrectAnswer()).put((byte) options.size());
+            for (byte[] text : texts) {
+                buffer.putShort((short) text.length).put(text);
+            }
+
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            offsets[size] = position;
+            position += recordSize;
+            int categorySize = categorySizes.get(c);
+            int[] categoryList = categoryIds.get(c);
+            if (categorySize == categoryList.length) {
+                categoryList = Arrays.copyOf(categoryList, categorySize * 2);
+                categoryIds.set(c, categoryList);
+            }
+            categoryList[categorySize] = size;
+            categorySizes.set(c, categorySize + 1);
+            return size++;
+        }
+
+        public Path finish() throws IOException {
+            long indexOffset = position;
+            for (int i = 0; i < size; i++) {
+                if (buffer.remaining() < 8) {
+                    drain();
+                }
+                buffer.putLong(offsets[i]);
+            }
+            long categoryOffset = indexOffset + 8L * size;
+            position = categoryOffset;
+            int first = 0;
+            for (Map.Entry<String, Integer> category : categoryIndexes.entrySet()) {
+                byte[] name = encode(category.getKey());
+                if (buffer.remaining() < name.length + 10) {
+                    drain();
+                }
+                int categorySize = categorySizes.get(category.getValue());
+                buffer.putShort((short) name.length).put(name).putInt(first).putInt(categorySize);
+                first += categorySize;
+                position += name.length + 10;
+            }
+            long idsOffset = position;
+            for (int c = 0; c < categoryIds.size(); c++) {
+                int[] categoryList = categoryIds.get(c);
+                for (int i = 0; i < categorySizes.get(c); i++) {
+                    if (buffer.remaining() < 4) {
+                        drain();
+                    }
+                    buffer.putInt(categoryList[i]);
+                }
+            }
+            drain();
+
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(categoryIndexes.size())
+                    .putLong(indexOffset).putLong(categoryOffset).putLong(idsOffset);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, HEADER_SIZE - buffer.remaining());
+            }
+            channel.force(true);
+            channel.close();
+            finished = true;
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return target;
+        }
+
+        // Without finish() the partial file is discarded.
+        @Override
+        public void close() throws IOException {
+            if (!finished) {
+                channel.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private static byte[] encode(String text) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IllegalArgumentException("Text longer than 65535 bytes.");
+            }
+            return bytes;
+        }
+    }
+
+    // One question per line: category, question, correct answer letter and then the options,
+    // separated by tabs. Blank lines and lines starting with '#' are skipped.
+    // Returns the number of questions imported.
+    public static int importTsv(Path tsv, Path bank) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(tsv, StandardCharsets.UTF_8);
+             Writer writer = new Writer(bank)) {
+            String line;
+            int lineNumber = 0;
+            int imported = 0;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t");
+                if (fields.length < 5 || fields[2].trim().length() != 1) {
+                    throw new IOException("Line " + lineNumber + ": expected category, question, answer letter and options");
+                }
+                char correctAnswer = Character.toUpperCase(fields[2].trim().charAt(0));
+                List<String> options = Arrays.asList(Arrays.copyOfRange(fields, 3, fields.length));
+                if (correctAnswer < 'A' || correctAnswer >= 'A' + options.size()) {
+                    throw new IOException("Line " + lineNumber + ": answer " + correctAnswer + " is not one of the options");
+                }
+                writer.add(fields[0].trim(), new Question(fields[1].trim(), options, correctAnswer));
+                imported++;
+            }
+            writer.finish();
+            return imported;
+        }
+    }
+
+    // Offset of the record from the start of the first chunk.
+    private long recordOffset(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No question " + id + " in a bank of " + size);
+        }
+        return index.getLong(8 * id) - HEADER_SIZE;
+    }
+
+    private int categoryIndex(String category) {
+        for (int c = 0; c < categories.length; c++) {
+            if (categories[c].equals(category)) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    private static String decode(ByteBuffer buffer, int position, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,60 +1,28 @@
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.*;
 
-class Question {
-    private String question;
-    private List<String> options;
-    private char correctAnswer;
-    
-    public Question(String question, List<String> options, char correctAnswer) {
-        this.question = question;
-        this.options = options;
-        this.correctAnswer = correctAnswer;
-    }
-
-    public String getQuestion() {
-        return question;
-    }
-
-    public List<String> getOptions() {
-        return options;
-    }
-
-    public char getCorrectAnswer() {
-        return correctAnswer;
-    }
-}
-
-class UserAnswer {
-    String questionText;
-    char correctAnswer;
-    char userAnswer;
-    boolean isCorrect;
-
-    public UserAnswer(String questionText, char correctAnswer, char userAnswer, boolean isCorrect) {
-        this.questionText = questionText;
-        this.correctAnswer = correctAnswer;
-        this.userAnswer = userAnswer;
-        this.isCorrect = isCorrect;
-    }
-}
-
 class Quiz {
+    private static final long ANSWER_SECONDS = 15;
+
     private List<Question> questions;
     private List<UserAnswer> userAnswers;
     private int score;
     private String playerName;
+    private AnswerLog answers;
 
-    public Quiz(List<Question> questions, String playerName) {
+    // Answers are appended to the log once the quiz ends; pass null to keep them in memory only.
+    public Quiz(List<Question> questions, String playerName, AnswerLog answers) {
         this.questions = questions;
         this.userAnswers = new ArrayList<>();
         this.score = 0;
         this.playerName = playerName;
+        this.answers = answers;
     }
 
-    public void start() {
-        Scanner scanner = new Scanner(System.in);
-        ExecutorService executor = Executors.newSingleThreadExecutor();
+    public void start() throws IOException {
+        ConsoleInput input = ConsoleInput.stdin();
         int questionNumber = 1;
 
         System.out.println("\nWelcome, " + playerName + "! Get ready to test your knowledge!");
@@ -67,17 +35,13 @@ class Quiz {
                 System.out.println((char) ('A' + i) + ": " + options.get(i));
             }
 
-            System.out.println("You have 15 seconds to answer. Please enter your choice (A, B, C, D):");
-
-            Future<String> futureAnswer = executor.submit(() -> {
-                String answer = scanner.nextLine().trim().toUpperCase(); // Convert input to uppercase
-                return answer;
-            });
+            System.out.println("You have " + ANSWER_SECONDS + " seconds to answer. Please enter your choice (A, B, C, D):");
 
+            long askedNanos = System.nanoTime();
             try {
-                String userAnswer = futureAnswer.get(15, TimeUnit.SECONDS);
+                String userAnswer = input.nextLine(ANSWER_SECONDS, TimeUnit.SECONDS).trim().toUpperCase(); // Convert input to uppercase
 
-                boolean isCorrect = userAnswer.length() > 0 && userAnswer.charAt(0) == question.getCorrectAnswer();
+                boolean isCorrect = isCorrect(question, userAnswer);
                 if (isCorrect) {
                     System.out.println("Correct!");
                     score++;
@@ -85,25 +49,41 @@ class Quiz {
                     System.out.println("Incorrect! The correct answer was " + question.getCorrectAnswer());
                 }
 
-                userAnswers.add(new UserAnswer(question.getQuestion(), question.getCorrectAnswer(),
-                        userAnswer.isEmpty() ? ' ' : userAnswer.charAt(0), isCorrect));
+                userAnswers.add(new UserAnswer(question.getId(), question.getQuestion(), question.getCorrectAnswer(),
+                        userAnswer.isEmpty() ? ' ' : userAnswer.charAt(0), isCorrect, millisSince(askedNanos), false));
 
             } catch (TimeoutException e) {
                 System.out.println("Time's up! The correct answer was " + question.getCorrectAnswer());
-                futureAnswer.cancel(true);
 
-                userAnswers.add(new UserAnswer(question.getQuestion(), question.getCorrectAnswer(), ' ', false));
-            } catch (Exception e) {
-                System.out.println("An error occurred while reading the answer.");
+                userAnswers.add(new UserAnswer(question.getId(), question.getQuestion(), question.getCorrectAnswer(), ' ', false,
+                        millisSince(askedNanos), true));
+            } catch (NoSuchElementException e) {
+                System.out.println("No more input. The correct answer was " + question.getCorrectAnswer());
+
+                userAnswers.add(new UserAnswer(question.getId(), question.getQuestion(), question.getCorrectAnswer(), ' ', false,
+                        millisSince(askedNanos), false));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
             }
 
             questionNumber++;
         }
 
-        executor.shutdown();
+        if (answers != null) {
+            answers.appendAll(userAnswers);
+        }
         showResults();
     }
 
+    private static long millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    static boolean isCorrect(Question question, String userAnswer) {
+        return question.isCorrect(userAnswer);
+    }
+
     private void showResults() {
         System.out.println("\nQuiz Completed!");
         System.out.println("+--------------------------------------------------+---------------+----------------+--------------+");
@@ -133,18 +113,57 @@ class Quiz {
 }
 
 public class QuizApplication {
-    public static void main(String[] args) {
-        // Initialize questions
+    static final int DEFAULT_QUIZ_LENGTH = 10;
+
+    static List<Question> sampleQuestions() {
         List<Question> questions = new ArrayList<>();
-        questions.add(new Question("What is the capital of France?", Arrays.asList("Berlin", "Madrid", "Paris", "Lisbon"), 'C'));
-        questions.add(new Question("What is 2 + 2?", Arrays.asList("3", "4", "5", "6"), 'B'));
-        questions.add(new Question("Which planet is known as the Red Planet?", Arrays.asList("Earth", "Mars", "Jupiter", "Saturn"), 'B'));
+        questions.add(new Question(0, "What is the capital of France?", Arrays.asList("Berlin", "Madrid", "Paris", "Lisbon"), 'C'));
+        questions.add(new Question(1, "What is 2 + 2?", Arrays.asList("3", "4", "5", "6"), 'B'));
+        questions.add(new Question(2, "Which planet is known as the Red Planet?", Arrays.asList("Earth", "Mars", "Jupiter", "Saturn"), 'B'));
+        return questions;
+    }
+
+    // Weights are "category=weight,..."; without them every question in the bank is equally likely.
+    static List<Question> drawQuestions(QuestionBank bank, int count, String weights, SplittableRandom random) {
+        if (weights == null || weights.isBlank()) {
+            return bank.sampler(random).draw(count);
+        }
+        Map<String, Double> categoryWeights = new HashMap<>();
+        for (String entry : weights.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected category=weight but got '" + entry + "'");
+            }
+            categoryWeights.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+        }
+        return bank.sampler(categoryWeights, random).draw(count);
+    }
+
+    // With no arguments the built-in questions are asked. "bank-file [count [category=weight,...]]"
+    // draws the quiz from a question bank, and "--import questions.tsv bank-file" builds one. As
+    // with QuizServer, answers go to the log named by -Dquiz.answerLog (default quiz-answers.log).
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("--import")) {
+            int imported = QuestionBank.importTsv(Paths.get(args[1]), Paths.get(args[2]));
+            System.out.println("Imported " + imported + " questions into " + args[2]);
+            return;
+        }
+        List<Question> questions;
+        if (args.length > 0) {
+            int count = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_QUIZ_LENGTH;
+            try (QuestionBank bank = QuestionBank.open(Paths.get(args[0]))) {
+                questions = drawQuestions(bank, count, args.length > 2 ? args[2] : null, new SplittableRandom());
+            }
+        } else {
+            questions = sampleQuestions();
+        }
 
-        Scanner scanner = new Scanner(System.in);
         System.out.print("Enter your name to start the quiz: ");
-        String playerName = scanner.nextLine().trim();
+        String playerName = ConsoleInput.stdin().nextLine().trim();
 
-        Quiz quiz = new Quiz(questions, playerName);
-        quiz.start();
+        try (AnswerLog answers = new AnswerLog(Paths.get(System.getProperty("quiz.answerLog", "quiz-answers.log")))) {
+            Quiz quiz = new Quiz(questions, playerName, answers);
+            quiz.start();
+        }
     }
 }
@@ -0,0 +1,210 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class QuizServer {
+    static final int DEFAULT_PORT = 5060;
+    static final int DEFAULT_ANSWER_SECONDS = 15;
+    static final String END_OF_RESPONSE = ".";
+
+    private static final Metrics.Timer ANSWER_TIMER = Metrics.timer("quiz.answer");
+    private static final long TICK_MILLIS = 10;
+    private static final int WHEEL_SIZE = 1024;
+    // Each connection is its own leaderboard entry: anyone can type any name, so names are shown
+    // but never used to tell players apart.
+    private static final AtomicLong NEXT_PLAYER_ID = new AtomicLong();
+
+    // Same line protocol as AtmServer: the client sends one line at a time and every response is
+    // followed by a line containing only END_OF_RESPONSE. When a question's time runs out the
+    // server sends the "Time's up!" response and the next question without waiting for input.
+    // Given a question bank file, every player gets their own draw from it. Finished quizzes are
+    // appended to the answer log named by -Dquiz.answerLog (default quiz-answers.log). Like
+    // AtmServer it listens on the loopback interface only.
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int answerSeconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ANSWER_SECONDS;
+        int quizLength = args.length > 3 ? Integer.parseInt(args[3]) : QuizApplication.DEFAULT_QUIZ_LENGTH;
+        String weights = args.length > 4 ? args[4] : null;
+        long answerNanos = TimeUnit.SECONDS.toNanos(answerSeconds);
+        Metrics.startPeriodicDumpIfConfigured();
+
+        QuestionBank bank = args.length > 2 ? QuestionBank.open(Paths.get(args[2])) : null;
+        List<Question> sampleQuestions = QuizApplication.sampleQuestions();
+        Leaderboard leaderboard = new Leaderboard(bank == null ? sampleQuestions.size() : quizLength);
+        AnswerLog answers = new AnswerLog(Paths.get(System.getProperty("quiz.answerLog", "quiz-answers.log")));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                answers.close();
+            } catch (IOException e) {
+                System.out.println("Could not close the answer log: " + e.getMessage());
+            }
+        }));
+        ExecutorService players = VirtualThreads.newThreadPerTaskExecutor("quiz-player");
+        try (TimerWheel deadlines = new TimerWheel("quiz-deadlines", TICK_MILLIS, WHEEL_SIZE, players);
+             ServerSocket serverSocket = new ServerSocket(port, 4096, InetAddress.getLoopbackAddress())) {
+            System.out.println("Quiz server listening on port " + port + " with " + answerSeconds + " seconds per question"
+                    + (bank == null ? "" : " and " + bank.size() + " questions in the bank")
+                    + (VirtualThreads.isAvailable() ? " (virtual threads)" : " (platform threads)"));
+            while (true) {
+                Socket socket = serverSocket.accept();
+                players.execute(() -> serve(socket, bank == null ? sampleQuestions
+                        : QuizApplication.drawQuestions(bank, quizLength, weights, new SplittableRandom()), answerNanos, deadlines,
+                        leaderboard, answers));
+            }
+        }
+    }
+
+    static void serve(Socket socket, List<Question> questions, long answerNanos, TimerWheel deadlines, Leaderboard leaderboard,
+                      AnswerLog answers) {
+        try (Socket client = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8))) {
+            client.setTcpNoDelay(true);
+            Player player = new Player(NEXT_PLAYER_ID.incrementAndGet(), new QuizSession(questions, answerNanos), out,
+                    deadlines, leaderboard, answers);
+            player.start();
+
+            String line;
+            while (!player.isClosed() && (line = in.readLine()) != null) {
+                player.handle(line);
+            }
+            player.cancelDeadline();
+        } catch (IOException e) {
+            // The player disconnected mid-quiz; a pending deadline finds the socket closed and gives up.
+        }
+    }
+
+    // One connected player. The player's own thread and deadline tasks both drive the session,
+    // so each step and the write of its response happen under one lock; a ReentrantLock rather
+    // than synchronized, so a virtual thread blocked writing does not pin its carrier.
+    static final class Player {
+        private final long id;
+        private final QuizSession session;
+        private final Writer out;
+        private final TimerWheel deadlines;
+        private final Leaderboard leaderboard;
+        private final AnswerLog answers;
+        private final ReentrantLock lock = new ReentrantLock();
+        private TimerWheel.Timeout deadline;
+        private int scheduledQuestion = -1;
+
+        Player(long id, QuizSession session, Writer out, TimerWheel deadlines, Leaderboard leaderboard, AnswerLog answers) {
+            this.id = id;
+            this.session = session;
+            this.out = out;
+            this.deadlines = deadlines;
+            this.leaderboard = leaderboard;
+            this.answers = answers;
+        }
+
+        boolean isClosed() {
+            lock.lock();
+            try {
+                return session.isClosed();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void start() throws IOException {
+            lock.lock();
+            try {
+                send(out, session.start());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void handle(String line) throws IOException {
+            long start = System.nanoTime();
+            lock.lock();
+            try {
+                String response = session.handle(line, start);
+                scheduleDeadline();
+                send(out, finishIfDone(response));
+            } finally {
+                lock.unlock();
+            }
+            ANSWER_TIMER.recordSince(start);
+        }
+
+        void cancelDeadline() {
+            lock.lock();
+            try {
+                if (deadline != null) {
+                    deadline.cancel();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void expire(int questionIndex) {
+            lock.lock();
+            try {
+                String response = session.expire(questionIndex, System.nanoTime());
+                if (response != null) {
+                    scheduleDeadline();
+                    send(out, finishIfDone(response));
+                }
+            } catch (IOException e) {
+                // The player's own thread sees the broken socket and ends the session.
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // The step that ends the quiz records the answers, submits the score and reports where it
+        // places the player.
+        private String finishIfDone(String response) throws IOException {
+            if (!session.isClosed()) {
+                return response;
+            }
+            answers.appendAll(session.getUserAnswers());
+            leaderboard.submit(id, session.getPlayerName(), session.getScore());
+            return response + String.format("Leaderboard: your best score %d ranks %d of %d players (percentile %.1f).\n",
+                    leaderboard.getScore(id), leaderboard.rank(id), leaderboard.size(), leaderboard.percentile(id));
+        }
+
+        // Each question gets one timeout on the shared wheel; moving on cancels the old one.
+        private void scheduleDeadline() {
+            int question = session.getQuestionIndex();
+            if (question == scheduledQuestion) {
+                return;
+            }
+            if (deadline != null) {
+                deadline.cancel();
+                deadline = null;
+            }
+            scheduledQuestion = question;
+            if (question >= 0) {
+                long delay = session.getDeadlineNanos() - System.nanoTime();
+                deadline = deadlines.schedule(delay, TimeUnit.NANOSECONDS, () -> expire(question));
+            }
+        }
+    }
+
+    private static void send(Writer out, String response) throws IOException {
+        out.write(response);
+        if (!response.endsWith("\n")) {
+            out.write('\n');
+        }
+        out.write(END_OF_RESPONSE);
+        out.write('\n');
+        out.flush();
+    }
+}
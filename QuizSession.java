@@ -0,0 +1,188 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+class QuizSession {
+    enum State {
+        NAME, QUESTION, CLOSED
+    }
+
+    private final List<Question> questions;
+    private final long answerNanos;
+    private final StringBuilder output;
+    private final List<UserAnswer> userAnswers;
+    private String playerName;
+    private State state;
+    private int current;
+    private int score;
+    private long askedNanos;
+    private long deadlineNanos;
+
+    // The quiz as a state machine with no I/O or timers of its own: every call takes one line of
+    // input (or a deadline notice) and returns everything to show, ending with the next prompt.
+    // Callers serialize calls per session.
+    public QuizSession(List<Question> questions, long answerNanos) {
+        this.questions = questions;
+        this.answerNanos = answerNanos;
+        this.output = new StringBuilder(512);
+        this.userAnswers = new ArrayList<>(questions.size());
+        this.state = State.NAME;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isClosed() {
+        return state == State.CLOSED;
+    }
+
+    // Index of the question being asked, or -1 outside the QUESTION state.
+    public int getQuestionIndex() {
+        return state == State.QUESTION ? current : -1;
+    }
+
+    public long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public List<UserAnswer> getUserAnswers() {
+        return userAnswers;
+    }
+
+    public String start() {
+        output.setLength(0);
+        output.append("Enter your name to start the quiz: ");
+        return output.toString();
+    }
+
+    // An answer is the option letter, optionally preceded by the question number ("2 B"). A
+    // numbered answer to a question that already timed out is refused instead of being taken as
+    // the answer to the question now showing.
+    public String handle(String line, long nowNanos) {
+        output.setLength(0);
+        String input = line.trim();
+
+        switch (state) {
+            case NAME:
+                playerName = input.isEmpty() ? "Player" : input;
+                output.append("\nWelcome, ").append(playerName).append("! Get ready to test your knowledge!\n");
+                ask(nowNanos);
+                break;
+            case QUESTION:
+                if (nowNanos - deadlineNanos >= 0) {
+                    timeOut(nowNanos);
+                    break;
+                }
+                int space = input.indexOf(' ');
+                if (space > 0 && Character.isDigit(input.charAt(0))) {
+                    int number = parseInt(input.substring(0, space));
+                    if (number != current + 1) {
+                        output.append("Question ").append(number).append(" is not open. ");
+                        prompt();
+                        break;
+                    }
+                    input = input.substring(space + 1).trim();
+                }
+                answer(input.toUpperCase(Locale.ROOT), nowNanos);
+                break;
+            default:
+                break;
+        }
+        return output.toString();
+    }
+
+    // Called when the deadline of the given question passes. Returns what to show, or null if
+    // the question was answered in time and there is nothing to do.
+    public String expire(int questionIndex, long nowNanos) {
+        if (state != State.QUESTION || current != questionIndex) {
+            return null;
+        }
+        output.setLength(0);
+        timeOut(nowNanos);
+        return output.toString();
+    }
+
+    private void answer(String userAnswer, long nowNanos) {
+        Question question = questions.get(current);
+        boolean isCorrect = question.isCorrect(userAnswer);
+        if (isCorrect) {
+            output.append("Correct!\n");
+            score++;
+        } else {
+            output.append("Incorrect! The correct answer was ").append(question.getCorrectAnswer()).append('\n');
+        }
+        userAnswers.add(new UserAnswer(question.getId(), question.getQuestion(), question.getCorrectAnswer(),
+                userAnswer.isEmpty() ? ' ' : userAnswer.charAt(0), isCorrect, (nowNanos - askedNanos) / 1_000_000, false));
+        next(nowNanos);
+    }
+
+    private void timeOut(long nowNanos) {
+        Question question = questions.get(current);
+        output.append("Time's up! The correct answer was ").append(question.getCorrectAnswer()).append('\n');
+        userAnswers.add(new UserAnswer(question.getId(), question.getQuestion(), question.getCorrectAnswer(), ' ', false,
+                (nowNanos - askedNanos) / 1_000_000, true));
+        next(nowNanos);
+    }
+
+    private void next(long nowNanos) {
+        current++;
+        if (current < questions.size()) {
+            ask(nowNanos);
+        } else {
+            finish();
+        }
+    }
+
+    private void ask(long nowNanos) {
+        state = State.QUESTION;
+        askedNanos = nowNanos;
+        deadlineNanos = nowNanos + answerNanos;
+        Question question = questions.get(current);
+        output.append("\nQuestion ").append(current + 1).append(": ").append(question.getQuestion()).append('\n');
+        List<String> options = question.getOptions();
+        for (int i = 0; i < options.size(); i++) {
+            output.append((char) ('A' + i)).append(": ").append(options.get(i)).append('\n');
+        }
+        output.append("You have ").append(answerNanos / 1_000_000_000L).append(" seconds to answer. ");
+        prompt();
+    }
+
+    private void prompt() {
+        List<String> options = questions.get(current).getOptions();
+        output.append("Please enter your choice (");
+        for (int i = 0; i < options.size(); i++) {
+            output.append(i == 0 ? "" : ", ").append((char) ('A' + i));
+        }
+        output.append("):\n");
+    }
+
+    private void finish() {
+        state = State.CLOSED;
+        output.append("\nQuiz Completed!\n");
+        for (UserAnswer answer : userAnswers) {
+            output.append(answer.isCorrect ? "  Correct    " : answer.userAnswer == ' ' ? "  Skipped    " : "  Incorrect  ")
+                    .append(answer.questionText).append('\n');
+        }
+        output.append("Your final score: ").append(score).append('/').append(questions.size()).append('\n');
+        output.append("Thank you for playing, ").append(playerName).append("! We hope you enjoyed the quiz.\n");
+    }
+
+    // Non-negative integer, or -1 when the input is not one.
+    private static int parseInt(String input) {
+        try {
+            int value = Integer.parseInt(input);
+            return value < 0 ? -1 : value;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,329 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class RegistrationImporter {
+    static final int DEFAULT_CHUNK_ROWS = 8_192;
+    private static final String SCHEDULE_HEADER = "code,capacity,schedule,";
+
+    enum Kind {
+        COURSES("code,"),
+        STUDENTS("id,"),
+        ENROLLMENTS("student,");
+
+        private final String header;
+
+        Kind(String header) {
+            this.header = header;
+        }
+    }
+
+    static final class Summary {
+        private final Kind kind;
+        private long rows;
+        private long loaded;
+        private long waitlisted;
+        private long rejected;
+        private long elapsedNanos;
+
+        Summary(Kind kind) {
+            this.kind = kind;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getLoaded() {
+            return loaded;
+        }
+
+        public long getWaitlisted() {
+            return waitlisted;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: rows: %d, loaded: %d, waitlisted: %d, rejected: %d, elapsed: %.2fs, throughput: %.0f rows/sec",
+                    kind.name().toLowerCase(), rows, loaded, waitlisted, rejected, elapsedNanos / 1e9, rowsPerSecond());
+        }
+    }
+
+    private final StudentCourseRegistrationSystem.RegistrationSystem system;
+    private final int threads;
+    private final int chunkRows;
+
+    public RegistrationImporter(StudentCourseRegistrationSystem.RegistrationSystem system, int threads, int chunkRows) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive.");
+        }
+        if (chunkRows <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive.");
+        }
+        this.system = system;
+        this.threads = threads;
+        this.chunkRows = chunkRows;
+    }
+
+    // Files are loaded in dependency order so every enrollment can see its student and course.
+    // Any of the inputs may be null. Rejected rows go to the report as "file,row,reason". With a
+    // durable registration system the log is forced once, after the last file.
+    public Summary[] importAll(Path courses, Path students, Path enrollments, Path report) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+            writer.write("file,row,reason\n");
+            Summary[] summaries = {
+                    importFile(Kind.COURSES, courses, writer),
+                    importFile(Kind.STUDENTS, students, writer),
+                    importFile(Kind.ENROLLMENTS, enrollments, writer)
+            };
+            system.awaitDurable();
+            return summaries;
+        }
+    }
+
+    // The file is read once on the calling thread and cut into chunks of lines. With more than
+    // one thread the chunks are parsed and applied by a pool, and at most two chunks per thread
+    // are in flight, so memory stays bounded however large the file is. The registration system
+    // is safe for concurrent use, but rows of a full course are waitlisted in whichever order
+    // their chunks happen to run.
+    public Summary importFile(Kind kind, Path input, BufferedWriter report) throws IOException {
+        Summary summary = new Summary(kind);
+        if (input == null) {
+            return summary;
+        }
+        long start = System.nanoTime();
+        String fileName = String.valueOf(input.getFileName());
+        ExecutorService pool = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+        Semaphore inFlight = new Semaphore(threads * 2);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            String[] chunk = new String[chunkRows];
+            long firstRow = 1;
+            long rowNumber = 0;
+            int pending = 0;
+            boolean withSchedule = false;
+            String text;
+
+            while ((text = reader.readLine()) != null) {
+                rowNumber++;
+                if (rowNumber == 1 && text.regionMatches(true, 0, kind.header, 0, kind.header.length())) {
+                    withSchedule = kind == Kind.COURSES && text.regionMatches(true, 0, SCHEDULE_HEADER, 0, SCHEDULE_HEADER.length());
+                    text = "";
+                }
+                chunk[pending++] = text;
+                if (pending == chunkRows) {
+                    submit(kind, chunk, pending, firstRow, withSchedule, fileName, report, summary, pool, inFlight, failure);
+                    chunk = new String[chunkRows];
+                    firstRow = rowNumber + 1;
+                    pending = 0;
+                }
+            }
+            submit(kind, chunk, pending, firstRow, withSchedule, fileName, report, summary, pool, inFlight, failure);
+            inFlight.acquireUninterruptibly(threads * 2);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof IOException) {
+            throw (IOException) error;
+        }
+        if (error != null) {
+            throw new IllegalStateException("Import of " + input + " failed", error);
+        }
+        summary.elapsedNanos = System.nanoTime() - start;
+        return summary;
+    }
+
+    private void submit(Kind kind, String[] lines, int count, long firstRow, boolean withSchedule, String fileName,
+                        BufferedWriter report, Summary summary, ExecutorService pool, Semaphore inFlight,
+                        AtomicReference<Throwable> failure)
+            throws IOException {
+        if (count == 0) {
+            return;
+        }
+        if (pool == null) {
+            applyChunk(kind, lines, count, firstRow, withSchedule, fileName, report, summary);
+            return;
+        }
+        inFlight.acquireUninterruptibly();
+        pool.execute(() -> {
+            try {
+                if (failure.get() == null) {
+                    applyChunk(kind, lines, count, firstRow, withSchedule, fileName, report, summary);
+                }
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    // Counts and rejections are gathered per chunk and merged under the report lock once.
+    private void applyChunk(Kind kind, String[] lines, int count, long firstRow, boolean withSchedule,
+                            String fileName, BufferedWriter report, Summary summary) throws IOException {
+        StringBuilder rejections = new StringBuilder();
+        long rows = 0;
+        long loaded = 0;
+        long waitlisted = 0;
+        long rejected = 0;
+
+        for (int i = 0; i < count; i++) {
+            String text = lines[i];
+            if (text.isEmpty()) {
+                continue;
+            }
+            rows++;
+            String reason;
+            switch (kind) {
+                case COURSES:
+                    reason = applyCourse(text, withSchedule);
+                    break;
+                case STUDENTS:
+                    reason = applyStudent(text);
+                    break;
+                default:
+                    reason = applyEnrollment(text);
+                    break;
+            }
+            if (reason == null) {
+                loaded++;
+            } else if (reason.isEmpty()) {
+                waitlisted++;
+            } else {
+                rejected++;
+                rejections.append(fileName).append(',').append(firstRow + i).append(',').append(reason).append('\n');
+            }
+        }
+
+        synchronized (report) {
+            report.append(rejections);
+            summary.rows += rows;
+            summary.loaded += loaded;
+            summary.waitlisted += waitlisted;
+            summary.rejected += rejected;
+        }
+    }
+
+    // Each apply method returns null when the row was loaded, "" when it was waitlisted and the
+    // rejection reason otherwise.
+
+    // "code,capacity,title,description", where the description may itself contain commas. When
+    // the header is "code,capacity,schedule,..." a meeting-times column such as
+    // "MON/WED 09:00-10:30" follows the capacity.
+    private String applyCourse(String text, boolean withSchedule) {
+        int first = text.indexOf(',');
+        int second = first < 0 ? -1 : text.indexOf(',', first + 1);
+        int scheduleEnd = second < 0 || !withSchedule ? second : text.indexOf(',', second + 1);
+        int third = scheduleEnd < 0 ? -1 : text.indexOf(',', scheduleEnd + 1);
+        if (third < 0) {
+            return "malformed row";
+        }
+        if (first == 0) {
+            return "missing course code";
+        }
+        int capacity = parseInt(text, first + 1, second);
+        if (capacity <= 0) {
+            return "invalid capacity";
+        }
+        WeeklySchedule schedule = WeeklySchedule.NONE;
+        if (withSchedule) {
+            try {
+                schedule = WeeklySchedule.parse(text.substring(second + 1, scheduleEnd));
+            } catch (IllegalArgumentException e) {
+                return "invalid schedule";
+            }
+        }
+        if (third == scheduleEnd + 1) {
+            return "missing title";
+        }
+        String code = text.substring(0, first).trim();
+        String title = text.substring(scheduleEnd + 1, third).trim();
+        String description = text.substring(third + 1).trim();
+        return system.addCourse(code, title, description, capacity, schedule) ? null : "duplicate course";
+    }
+
+    // "id,name", where the name may contain commas.
+    private String applyStudent(String text) {
+        int first = text.indexOf(',');
+        if (first <= 0 || first == text.length() - 1) {
+            return "malformed row";
+        }
+        String id = text.substring(0, first).trim();
+        String name = text.substring(first + 1).trim();
+        return system.createStudent(id, name) ? null : "duplicate student";
+    }
+
+    // "studentId,courseCode".
+    private String applyEnrollment(String text) {
+        int first = text.indexOf(',');
+        if (first <= 0 || first == text.length() - 1 || text.indexOf(',', first + 1) >= 0) {
+            return "malformed row";
+        }
+        StudentCourseRegistrationSystem.RegistrationResult result =
+                system.tryRegister(text.substring(0, first).trim(), text.substring(first + 1).trim());
+        switch (result) {
+            case REGISTERED:
+                return null;
+            case WAITLISTED:
+                return "";
+            default:
+                return result.getMessage();
+        }
+    }
+
+    // Positive decimal int, or -1 when malformed or too large.
+    private static int parseInt(String text, int start, int end) {
+        if (start >= end || end - start > 9) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.out.println("Usage: java RegistrationImporter <courses.csv> <students.csv> <enrollments.csv> <report.csv> [threads]");
+            return;
+        }
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        if (threads <= 0) {
+            System.out.println("The thread count must be at least 1.");
+            return;
+        }
+        StudentCourseRegistrationSystem.RegistrationSystem system =
+                new StudentCourseRegistrationSystem.RegistrationSystem(Boolean.getBoolean("registration.compact"));
+        RegistrationImporter importer = new RegistrationImporter(system, threads, DEFAULT_CHUNK_ROWS);
+        for (Summary summary : importer.importAll(Paths.get(args[0]), Paths.get(args[1]), Paths.get(args[2]), Paths.get(args[3]))) {
+            System.out.println(summary);
+        }
+        System.out.println("Rejected rows written to " + args[3]);
+    }
+}
@@ -0,0 +1,396 @@
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+class RegistrationLog implements Closeable {
+    public static final int OP_COURSE = 1;
+    public static final int OP_STUDENT = 2;
+    public static final int OP_ENROLL = 3;
+    public static final int OP_UNENROLL = 4;
+    public static final int OP_WAITLIST = 5;
+    public static final int OP_UNWAITLIST = 6;
+    public static final int OP_SCHEDULE = 7;
+
+    // length(4) checksum(4), then the body: sequence(8) op(1) number(4) and three strings,
+    // each a short byte length (-1 for null) followed by UTF-8 bytes.
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_BODY_SIZE = 13 + 3 * (2 + 0xFFFE);
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String PREFIX = "registration-";
+    private static final String SUFFIX = ".log";
+
+    static final class Record {
+        private final long sequence;
+        private final int op;
+        private final String first;
+        private final String second;
+        private final String third;
+        private final int number;
+
+        Record(long sequence, int op, String first, String second, String third, int number) {
+            this.sequence = sequence;
+            this.op = op;
+            this.first = first;
+            this.second = second;
+            this.third = third;
+            this.number = number;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public int getOp() {
+            return op;
+        }
+
+        public String getFirst() {
+            return first;
+        }
+
+        public String getSecond() {
+            return second;
+        }
+
+        public String getThird() {
+            return third;
+        }
+
+        public int getNumber() {
+            return number;
+        }
+    }
+
+    private final Path directory;
+    private final TreeMap<Long, Path> files;
+    private final Object syncLock;
+    private final CRC32C crc;
+    private ByteBuffer pending;
+    private FileChannel channel;
+    private long nextSequence;
+    private volatile long durableSequence;
+    private volatile long syncCount;
+    private Thread flusher;
+    private boolean closed;
+
+    // With groupCommitMillis > 0 a daemon thread forces the log on that interval, so appenders
+    // that do not call awaitDurable still reach disk within one interval.
+    public RegistrationLog(Path directory, long groupCommitMillis) throws IOException {
+        this.directory = directory;
+        this.files = new TreeMap<>();
+        this.syncLock = new Object();
+        this.crc = new CRC32C();
+        this.pending = ByteBuffer.allocate(BUFFER_SIZE);
+        Files.createDirectories(directory);
+        listFiles();
+
+        if (files.isEmpty()) {
+            nextSequence = 1;
+            openFile(1);
+        } else {
+            Map.Entry<Long, Path> last = files.lastEntry();
+            long[] lastSequence = {last.getKey() - 1};
+            long validEnd = readRecords(last.getValue(), record -> lastSequence[0] = record.getSequence());
+            nextSequence = lastSequence[0] + 1;
+            channel = FileChannel.open(last.getValue(), StandardOpenOption.WRITE);
+            // Drops a torn record left by a crash mid-write, so new records follow the last good one.
+            channel.truncate(validEnd);
+            channel.position(validEnd);
+        }
+        durableSequence = nextSequence - 1;
+
+        if (groupCommitMillis > 0) {
+            flusher = new Thread(() -> runFlusher(groupCommitMillis), "registration-group-commit");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    public synchronized long append(int op, String first, String second, String third, int number) {
+        if (closed) {
+            throw new IllegalStateException("Registration log is closed.");
+        }
+        byte[] firstBytes = encode(first);
+        byte[] secondBytes = encode(second);
+        byte[] thirdBytes = encode(third);
+        int bodySize = 13 + length(firstBytes) + length(secondBytes) + length(thirdBytes);
+        if (pending.remaining() < HEADER_SIZE + bodySize) {
+            writePending();
+            if (pending.capacity() < HEADER_SIZE + bodySize) {
+                pending = ByteBuffer.allocate(HEADER_SIZE + bodySize);
+            }
+        }
+
+        long sequence = nextSequence++;
+        int start = pending.position();
+        pending.putInt(bodySize).putInt(0);
+        pending.putLong(sequence).put((byte) op).putInt(number);
+        put(firstBytes);
+        put(secondBytes);
+        put(thirdBytes);
+        crc.reset();
+        crc.update(pending.array(), start + HEADER_SIZE, bodySize);
+        pending.putInt(start + 4, (int) crc.getValue());
+        return sequence;
+    }
+
+    public synchronized long lastSequence() {
+        return nextSequence - 1;
+    }
+
+    public long durableSequence() {
+        return durableSequence;
+    }
+
+    public long getSyncCount() {
+        return syncCount;
+    }
+
+    // Group commit: whoever gets the sync lock writes and forces everything appended so far, and
+    // the callers queued behind it usually find their sequence already durable. Appenders only
+    // wait for the write, never for the force.
+    public void awaitDurable(long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            long target;
+            FileChannel current;
+            synchronized (this) {
+                writePending();
+                target = nextSequence - 1;
+                current = channel;
+            }
+            try {
+                current.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not force registration log", e);
+            }
+            durableSequence = target;
+            syncCount++;
+        }
+    }
+
+    public void sync() {
+        awaitDurable(lastSequence());
+    }
+
+    // Starts a new log file and returns the last sequence written to the previous ones, all of
+    // which are durable by the time this returns. Used as the high-water mark of a snapshot.
+    public long roll() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                writePending();
+                channel.force(false);
+                channel.close();
+                durableSequence = nextSequence - 1;
+                syncCount++;
+                openFile(nextSequence);
+                return nextSequence - 1;
+            }
+        }
+    }
+
+    // Deletes log files whose records are all at or below the sequence; the current file is kept.
+    public synchronized void deleteThrough(long sequence) throws IOException {
+        List<Long> bases = new ArrayList<>(files.keySet());
+        for (int i = 0; i + 1 < bases.size(); i++) {
+            if (bases.get(i + 1) - 1 > sequence) {
+                break;
+            }
+            Files.deleteIfExists(files.remove(bases.get(i)));
+        }
+    }
+
+    // Replays every record after the given sequence in order; used to rebuild state on startup,
+    // before anything new is appended.
+    public void replay(long afterSequence, Consumer<Record> consumer) throws IOException {
+        List<Map.Entry<Long, Path>> entries;
+        synchronized (this) {
+            writePending();
+            entries = new ArrayList<>(files.entrySet());
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            if (i + 1 < entries.size() && entries.get(i + 1).getKey() - 1 <= afterSequence) {
+                continue;
+            }
+            readRecords(entries.get(i).getValue(), record -> {
+                if (record.getSequence() > afterSequence) {
+                    consumer.accept(record);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        if (flusher != null) {
+            flusher.interrupt();
+        }
+        synchronized (syncLock) {
+            synchronized (this) {
+                writePending();
+                channel.force(false);
+                durableSequence = nextSequence - 1;
+                channel.close();
+            }
+        }
+    }
+
+    private void runFlusher(long intervalMillis) {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+            }
+            sync();
+        }
+    }
+
+    private void writePending() {
+        if (pending.position() == 0) {
+            return;
+        }
+        pending.flip();
+        try {
+            while (pending.hasRemaining()) {
+                channel.write(pending);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write registration log", e);
+        }
+        pending.clear();
+    }
+
+    private void openFile(long baseSequence) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", PREFIX, baseSequence, SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        files.put(baseSequence, path);
+    }
+
+    private void listFiles() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                files.put(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())), path);
+            }
+        }
+    }
+
+    // Returns the offset just past the last intact record. A short read, a checksum mismatch or
+    // a sequence gap marks the end of the log.
+    private static long readRecords(Path path, Consumer<Record> consumer) throws IOException {
+        long validEnd = 0;
+        long expected = -1;
+        CRC32C crc = new CRC32C();
+        byte[] body = new byte[256];
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE))) {
+            while (true) {
+                int bodySize;
+                int checksum;
+                try {
+                    bodySize = in.readInt();
+                    checksum = in.readInt();
+                    if (bodySize < 13 || bodySize > MAX_BODY_SIZE) {
+                        break;
+                    }
+                    if (body.length < bodySize) {
+                        body = new byte[Math.max(bodySize, body.length * 2)];
+                    }
+                    in.readFully(body, 0, bodySize);
+                } catch (EOFException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(body, 0, bodySize);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                Record record = decode(ByteBuffer.wrap(body, 0, bodySize));
+                if (record == null || (expected >= 0 && record.getSequence() != expected)) {
+                    break;
+                }
+                expected = record.getSequence() + 1;
+                consumer.accept(record);
+                validEnd += HEADER_SIZE + bodySize;
+            }
+        }
+        return validEnd;
+    }
+
+    private static Record decode(ByteBuffer body) {
+        long sequence = body.getLong();
+        int op = body.get();
+        int number = body.getInt();
+        String first = decodeString(body);
+        String second = decodeString(body);
+        String third = decodeString(body);
+        return body.hasRemaining() ? null : new Record(sequence, op, first, second, third, number);
+    }
+
+    private static String decodeString(ByteBuffer body) {
+        int length = body.getShort();
+        if (length == -1) {
+            return null;
+        }
+        length &= 0xFFFF;
+        String value = new String(body.array(), body.arrayOffset() + body.position(), length, StandardCharsets.UTF_8);
+        body.position(body.position() + length);
+        return value;
+    }
+
+    private void put(byte[] bytes) {
+        if (bytes == null) {
+            pending.putShort((short) -1);
+        } else {
+            pending.putShort((short) bytes.length).put(bytes);
+        }
+    }
+
+    private static byte[] encode(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFE) {
+            throw new IllegalArgumentException("Field too long for the registration log.");
+        }
+        return bytes;
+    }
+
+    private static int length(byte[] bytes) {
+        return 2 + (bytes == null ? 0 : bytes.length);
+    }
+}
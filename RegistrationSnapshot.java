@@ -0,0 +1,231 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+class RegistrationSnapshot {
+    private static final int MAGIC = 0x52534E50;
+    private static final int VERSION = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int SNAPSHOTS_KEPT = 2;
+    private static final int MAX_COURSES_PER_STUDENT = 1 << 16;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+
+    private RegistrationSnapshot() {
+    }
+
+    // Layout: magic, version, log high-water mark, then each course (code, title, description,
+    // capacity, schedule, waitlist in order) and each student (id, name, course codes), each entry
+    // preceded by a 1 and each section ended by a 0, then a CRC32C of everything before it.
+    // Written to a temp file and renamed, so a crash mid-write never leaves a half snapshot.
+    //
+    // The snapshot is fuzzy: it is written while registrations continue, reading each course and
+    // student under its own lock. Every record up to the high-water mark is already applied when
+    // writing starts, and replaying the later records is idempotent, so recovery ends up exact.
+    public static Path write(StudentCourseRegistrationSystem.RegistrationSystem system, long logSequence,
+                             Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(String.format("%s%020d%s", PREFIX, logSequence, SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+
+        CRC32C crc = new CRC32C();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new CheckedOutputStream(Files.newOutputStream(temp), crc), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(logSequence);
+
+            for (StudentCourseRegistrationSystem.Course course : system.getCourses()) {
+                List<String> waitlist = course.getWaitlist();
+                out.writeByte(1);
+                out.writeUTF(course.getCode());
+                out.writeUTF(course.getTitle());
+                out.writeUTF(course.getDescription());
+                out.writeInt(course.getCapacity());
+                out.writeUTF(course.getSchedule().toString());
+                out.writeInt(waitlist.size());
+                for (String studentId : waitlist) {
+                    out.writeUTF(studentId);
+                }
+            }
+            out.writeByte(0);
+
+            for (StudentCourseRegistrationSystem.Student student : system.getStudents()) {
+                String[] courseCodes;
+                synchronized (student) {
+                    courseCodes = student.getRegisteredCourses().toArray(new String[0]);
+                }
+                out.writeByte(1);
+                out.writeUTF(student.getId());
+                out.writeUTF(student.getName());
+                out.writeInt(courseCodes.length);
+                for (String courseCode : courseCodes) {
+                    out.writeUTF(courseCode);
+                }
+            }
+            out.writeByte(0);
+            out.flush();
+            out.writeLong(crc.getValue());
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return target;
+    }
+
+    // Loads the snapshot into a freshly constructed system and returns its log high-water mark.
+    // The checksum is only known at the end, so on failure the system must be thrown away.
+    public static long readInto(Path file, StudentCourseRegistrationSystem.RegistrationSystem system) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE), crc))) {
+            int version = in.readInt() == MAGIC ? in.readInt() : -1;
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Not a registration snapshot: " + file);
+            }
+            long logSequence = in.readLong();
+
+            while (in.readByte() == 1) {
+                String code = in.readUTF();
+                String title = in.readUTF();
+                String description = in.readUTF();
+                int capacity = in.readInt();
+                // Version 1 snapshots predate meeting times.
+                WeeklySchedule schedule = version >= 2 ? parseSchedule(in.readUTF(), file) : WeeklySchedule.NONE;
+                int waitlistSize = in.readInt();
+                List<String> waitlist = new ArrayList<>(Math.min(waitlistSize, 1024));
+                for (int i = 0; i < waitlistSize; i++) {
+                    waitlist.add(in.readUTF());
+                }
+                system.restoreCourse(code, title, description, capacity, schedule, waitlist);
+            }
+            // Courses come first, so every student's enrollments resolve as they are read.
+            while (in.readByte() == 1) {
+                String id = in.readUTF();
+                String name = in.readUTF();
+                int count = in.readInt();
+                if (count < 0 || count > MAX_COURSES_PER_STUDENT) {
+                    throw new IOException("Corrupt registration snapshot: " + file);
+                }
+                String[] courseCodes = new String[count];
+                for (int i = 0; i < courseCodes.length; i++) {
+                    courseCodes[i] = in.readUTF();
+                }
+                system.restoreStudent(id, name, courseCodes);
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Corrupt registration snapshot: " + file);
+            }
+            return logSequence;
+        } catch (EOFException e) {
+            throw new IOException("Truncated registration snapshot: " + file, e);
+        }
+    }
+
+    // Loads the newest readable snapshot (if any), replays only the log records after it and
+    // then attaches the log, so every later mutation is persisted.
+    public static StudentCourseRegistrationSystem.RegistrationSystem recover(Path dataDirectory, boolean compactEnrollments,
+                                                                            long groupCommitMillis) throws IOException {
+        Path snapshotDirectory = dataDirectory.resolve("snapshots");
+        StudentCourseRegistrationSystem.RegistrationSystem system = null;
+        long replayFrom = 0;
+        for (Path file : listSnapshots(snapshotDirectory)) {
+            StudentCourseRegistrationSystem.RegistrationSystem candidate =
+                    new StudentCourseRegistrationSystem.RegistrationSystem(compactEnrollments);
+            try {
+                replayFrom = readInto(file, candidate);
+                system = candidate;
+                break;
+            } catch (IOException e) {
+                System.out.println("Skipping unreadable snapshot " + file.getFileName() + ": " + e.getMessage());
+            }
+        }
+        if (system == null) {
+            system = new StudentCourseRegistrationSystem.RegistrationSystem(compactEnrollments);
+        }
+
+        RegistrationLog log = new RegistrationLog(dataDirectory.resolve("log"), groupCommitMillis);
+        log.replay(replayFrom, system::replay);
+        system.attachLog(log);
+        return system;
+    }
+
+    // Rolls the log, writes a snapshot at the roll point and drops log files no kept snapshot needs.
+    public static Path snapshot(StudentCourseRegistrationSystem.RegistrationSystem system, Path dataDirectory) throws IOException {
+        RegistrationLog log = system.getLog();
+        if (log == null) {
+            throw new IllegalStateException("Registration system is not durable.");
+        }
+        Path snapshotDirectory = dataDirectory.resolve("snapshots");
+        Path written = write(system, system.rollLog(), snapshotDirectory);
+
+        List<Path> snapshots = listSnapshots(snapshotDirectory);
+        for (int i = SNAPSHOTS_KEPT; i < snapshots.size(); i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+        Path oldest = snapshots.get(Math.min(SNAPSHOTS_KEPT, snapshots.size()) - 1);
+        String name = oldest.getFileName().toString();
+        log.deleteThrough(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+        return written;
+    }
+
+    public static ScheduledExecutorService schedule(StudentCourseRegistrationSystem.RegistrationSystem system,
+                                                    Path dataDirectory, long periodSeconds) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "registration-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot(system, dataDirectory);
+            } catch (IOException e) {
+                System.out.println("Registration snapshot failed: " + e.getMessage());
+            }
+        }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+        return scheduler;
+    }
+
+    private static WeeklySchedule parseSchedule(String text, Path file) throws IOException {
+        try {
+            return WeeklySchedule.parse(text);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt registration snapshot: " + file, e);
+        }
+    }
+
+    // Newest first.
+    private static List<Path> listSnapshots(Path directory) throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return snapshots;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path path : stream) {
+                snapshots.add(path);
+            }
+        }
+        snapshots.sort(Collections.reverseOrder());
+        return snapshots;
+    }
+}
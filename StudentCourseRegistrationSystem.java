@@ -1,20 +1,64 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class StudentCourseRegistrationSystem {
 
+    enum RegistrationResult {
+        REGISTERED("Registration successful."),
+        DROPPED("Course dropped successfully."),
+        STUDENT_NOT_FOUND("Student not found."),
+        COURSE_NOT_FOUND("Course not found."),
+        COURSE_FULL("Course is full."),
+        WAITLISTED("Course is full. Added to the waitlist."),
+        ALREADY_WAITLISTED("Student is already on the waitlist for this course."),
+        LEFT_WAITLIST("Removed from the waitlist."),
+        ALREADY_REGISTERED("Student is already registered for this course."),
+        SCHEDULE_CONFLICT("Course meeting times clash with an existing registration."),
+        NOT_REGISTERED("Student is not registered for this course.");
+
+        private final String message;
+
+        RegistrationResult(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
     static class Course {
         private String code;
         private String title;
         private String description;
         private int capacity;
-        private int enrolled;
+        private AtomicInteger enrolled;
+        private LinkedHashSet<String> waitlist;
+        private Set<String> roster;
+        private RegistrationLog log;
+        private volatile WeeklySchedule schedule;
+        private volatile FormattedRow row;
         
         public Course(String code, String title, String description, int capacity) {
+            this(code, title, description, capacity, WeeklySchedule.NONE);
+        }
+
+        public Course(String code, String title, String description, int capacity, WeeklySchedule schedule) {
             this.code = code;
             this.title = title;
             this.description = description;
             this.capacity = capacity;
-            this.enrolled = 0;
+            this.enrolled = new AtomicInteger();
+            this.waitlist = new LinkedHashSet<>();
+            this.roster = ConcurrentHashMap.newKeySet();
+            this.schedule = schedule;
         }
         
         public String getCode() {
@@ -33,30 +77,164 @@ public class StudentCourseRegistrationSystem {
             return capacity;
         }
 
+        public WeeklySchedule getSchedule() {
+            return schedule;
+        }
+
         public int getEnrolled() {
-            return enrolled;
+            return enrolled.get();
         }
 
         public boolean isAvailable() {
-            return enrolled < capacity;
+            return enrolled.get() < capacity;
         }
 
-        public void enrollStudent() {
-            if (isAvailable()) {
-                enrolled++;
-            }
+        // The capacity check and the increment are one CAS, so a registration rush can never
+        // push a course past capacity.
+        public boolean enrollStudent() {
+            int current;
+            do {
+                current = enrolled.get();
+                if (current >= capacity) {
+                    return false;
+                }
+            } while (!enrolled.compareAndSet(current, current + 1));
+            return true;
         }
 
         public void dropStudent() {
-            if (enrolled > 0) {
-                enrolled--;
+            int current;
+            do {
+                current = enrolled.get();
+                if (current == 0) {
+                    return;
+                }
+            } while (!enrolled.compareAndSet(current, current - 1));
+        }
+
+        // The waitlist is a FIFO with O(1) removal, guarded by the course monitor. A seat is only
+        // ever released back to the pool while the waitlist is empty, and a student is only queued
+        // while no seat is free, so nobody can be left waiting next to an empty seat.
+        // Waitlist changes are logged inside the monitor, so the log has them in queue order.
+        public synchronized RegistrationResult enrollOrWaitlist(String studentId) {
+            if (waitlist.isEmpty() && enrollStudent()) {
+                return RegistrationResult.REGISTERED;
             }
+            if (!waitlist.add(studentId)) {
+                return RegistrationResult.ALREADY_WAITLISTED;
+            }
+            if (log != null) {
+                log.append(RegistrationLog.OP_WAITLIST, studentId, code, null, 0);
+            }
+            return RegistrationResult.WAITLISTED;
+        }
+
+        // Called with a seat just given up: hands it to the head of the waitlist (returned, seat
+        // still counted) or, when nobody is waiting, releases it and returns null.
+        public synchronized String releaseSeatOrPromote() {
+            Iterator<String> head = waitlist.iterator();
+            if (!head.hasNext()) {
+                dropStudent();
+                return null;
+            }
+            String next = head.next();
+            head.remove();
+            if (log != null) {
+                log.append(RegistrationLog.OP_UNWAITLIST, next, code, null, 0);
+            }
+            return next;
+        }
+
+        public synchronized boolean leaveWaitlist(String studentId) {
+            if (!waitlist.remove(studentId)) {
+                return false;
+            }
+            if (log != null) {
+                log.append(RegistrationLog.OP_UNWAITLIST, studentId, code, null, 0);
+            }
+            return true;
+        }
+
+        public synchronized List<String> getWaitlist() {
+            return new ArrayList<>(waitlist);
+        }
+
+        public synchronized boolean isWaitlisted(String studentId) {
+            return waitlist.contains(studentId);
+        }
+
+        public synchronized int getWaitlistSize() {
+            return waitlist.size();
+        }
+
+        public Set<String> getRoster() {
+            return Collections.unmodifiableSet(roster);
+        }
+
+        public int getRosterSize() {
+            return roster.size();
+        }
+
+        public boolean hasOnRoster(String studentId) {
+            return roster.contains(studentId);
+        }
+
+        // Listings reuse the formatted row until the enrollment count it shows goes stale.
+        public String formatRow() {
+            int current = enrolled.get();
+            FormattedRow cached = row;
+            if (cached == null || cached.enrolled != current) {
+                cached = new FormattedRow(current, String.format("%-10s %-30s %-40s %5d %10d  %s",
+                        code, title, description, capacity, current, schedule));
+                row = cached;
+            }
+            return cached.text;
         }
 
         @Override
         public String toString() {
-            return String.format("%-10s %-30s %-40s %5d %10d",
-                    code, title, description, capacity, enrolled);
+            return formatRow();
+        }
+    }
+
+    private static final class FormattedRow {
+        private final int enrolled;
+        private final String text;
+
+        FormattedRow(int enrolled, String text) {
+            this.enrolled = enrolled;
+            this.text = text;
+        }
+    }
+
+    // Interns course codes to dense int ids so compact students can store enrollments as ints.
+    static class CourseCodes {
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        private volatile String[] codes = new String[16];
+        private int size;
+
+        public synchronized int intern(String code) {
+            Integer existing = ids.get(code);
+            if (existing != null) {
+                return existing;
+            }
+            String[] current = codes;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size * 2);
+            }
+            current[size] = code;
+            codes = current;
+            ids.put(code, size);
+            return size++;
+        }
+
+        public int idOf(String code) {
+            Integer id = ids.get(code);
+            return id == null ? -1 : id;
+        }
+
+        public String codeOf(int id) {
+            return codes[id];
         }
     }
 
@@ -64,11 +242,16 @@ public class StudentCourseRegistrationSystem {
         private String id;
         private String name;
         private Set<String> registeredCourses;
+        private volatile int[] bookedMeetings = WeeklySchedule.NO_MEETINGS;
 
         public Student(String id, String name) {
+            this(id, name, ConcurrentHashMap.newKeySet());
+        }
+
+        protected Student(String id, String name, Set<String> registeredCourses) {
             this.id = id;
             this.name = name;
-            this.registeredCourses = new HashSet<>();
+            this.registeredCourses = registeredCourses;
         }
 
         public String getId() {
@@ -83,109 +266,680 @@ public class StudentCourseRegistrationSystem {
             return registeredCourses;
         }
 
-        public void registerCourse(String courseCode) {
-            registeredCourses.add(courseCode);
+        public boolean isRegisteredFor(String courseCode) {
+            return registeredCourses.contains(courseCode);
+        }
+
+        // Booked meetings of every registered course, kept as a sorted interval index and
+        // replaced as a whole under the student's lock.
+        public boolean clashesWith(WeeklySchedule schedule) {
+            return schedule.clashesWith(bookedMeetings);
+        }
+
+        int[] getBookedMeetings() {
+            return bookedMeetings;
+        }
+
+        void bookMeetings(WeeklySchedule schedule) {
+            bookedMeetings = schedule.bookInto(bookedMeetings);
+        }
+
+        void releaseMeetings(WeeklySchedule schedule) {
+            bookedMeetings = schedule.releaseFrom(bookedMeetings);
+        }
+
+        public boolean registerCourse(String courseCode) {
+            return registeredCourses.add(courseCode);
         }
 
-        public void dropCourse(String courseCode) {
-            registeredCourses.remove(courseCode);
+        public boolean dropCourse(String courseCode) {
+            return registeredCourses.remove(courseCode);
+        }
+    }
+
+    // Keeps enrollments as a sorted int[] of interned course ids instead of a set of code strings,
+    // which is a few dozen bytes per student rather than a few hundred. The array is replaced on
+    // every change, so readers always see a consistent snapshot without locking.
+    static class CompactStudent extends Student {
+        private static final int[] NO_COURSES = new int[0];
+
+        private final CourseCodes courseCodes;
+        private volatile int[] courseIds = NO_COURSES;
+
+        public CompactStudent(String id, String name, CourseCodes courseCodes) {
+            super(id, name, null);
+            this.courseCodes = courseCodes;
+        }
+
+        @Override
+        public Set<String> getRegisteredCourses() {
+            int[] snapshot = courseIds;
+            return new AbstractSet<String>() {
+                @Override
+                public boolean contains(Object code) {
+                    if (!(code instanceof String)) {
+                        return false;
+                    }
+                    int courseId = courseCodes.idOf((String) code);
+                    return courseId >= 0 && Arrays.binarySearch(snapshot, courseId) >= 0;
+                }
+
+                @Override
+                public Iterator<String> iterator() {
+                    return new Iterator<String>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < snapshot.length;
+                        }
+
+                        @Override
+                        public String next() {
+                            if (next >= snapshot.length) {
+                                throw new NoSuchElementException();
+                            }
+                            return courseCodes.codeOf(snapshot[next++]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return snapshot.length;
+                }
+            };
+        }
+
+        @Override
+        public boolean isRegisteredFor(String courseCode) {
+            int courseId = courseCodes.idOf(courseCode);
+            return courseId >= 0 && Arrays.binarySearch(courseIds, courseId) >= 0;
+        }
+
+        @Override
+        public synchronized boolean registerCourse(String courseCode) {
+            int courseId = courseCodes.idOf(courseCode);
+            if (courseId < 0) {
+                courseId = courseCodes.intern(courseCode);
+            }
+            int[] current = courseIds;
+            int position = Arrays.binarySearch(current, courseId);
+            if (position >= 0) {
+                return false;
+            }
+            position = -position - 1;
+            int[] next = new int[current.length + 1];
+            System.arraycopy(current, 0, next, 0, position);
+            next[position] = courseId;
+            System.arraycopy(current, position, next, position + 1, current.length - position);
+            courseIds = next;
+            return true;
+        }
+
+        @Override
+        public synchronized boolean dropCourse(String courseCode) {
+            int courseId = courseCodes.idOf(courseCode);
+            int[] current = courseIds;
+            int position = courseId < 0 ? -1 : Arrays.binarySearch(current, courseId);
+            if (position < 0) {
+                return false;
+            }
+            int[] next = current.length == 1 ? NO_COURSES : new int[current.length - 1];
+            System.arraycopy(current, 0, next, 0, position);
+            System.arraycopy(current, position + 1, next, position, current.length - position - 1);
+            courseIds = next;
+            return true;
         }
     }
 
     static class RegistrationSystem {
+        private static final Metrics.Timer REGISTER_TIMER = Metrics.timer("registration.registerStudent");
+        private static final Metrics.Timer DROP_TIMER = Metrics.timer("registration.dropCourse");
+        private static final int SEARCH_RESULT_LIMIT = 20;
+        static final int DEFAULT_PAGE_SIZE = 20;
+
         private Map<String, Course> courses;
         private Map<String, Student> students;
+        private CourseCodes courseCodes;
+        private boolean compactEnrollments;
+        private volatile RegistrationLog log;
+        // Held shared while a course or student is logged and published, and exclusively while
+        // the log rolls for a snapshot.
+        private final ReadWriteLock creationLock = new ReentrantReadWriteLock();
+        private CourseSearchIndex searchIndex;
+        private CourseListing listing;
+        private final StringBuilder listingBuffer = new StringBuilder(1 << 16);
         
         public RegistrationSystem() {
-            courses = new HashMap<>();
-            students = new HashMap<>();
+            this(false);
+        }
+
+        public RegistrationSystem(boolean compactEnrollments) {
+            courses = new ConcurrentHashMap<>();
+            students = new ConcurrentHashMap<>();
+            courseCodes = new CourseCodes();
+            searchIndex = new CourseSearchIndex();
+            listing = new CourseListing();
+            this.compactEnrollments = compactEnrollments;
             initializeCourses();
         }
 
         private void initializeCourses() {
-            courses.put("CS101", new Course("CS101", "Introduction to Programming", "Learn the basics of programming.", 30));
-            courses.put("MATH201", new Course("MATH201", "Calculus I", "An introduction to calculus.", 25));
-            courses.put("BIO301", new Course("BIO301", "Biology Fundamentals", "Study the fundamentals of biology.", 20));
+            addCourse("CS101", "Introduction to Programming", "Learn the basics of programming.", 30,
+                    WeeklySchedule.parse("MON/WED 09:00-10:30"));
+            addCourse("MATH201", "Calculus I", "An introduction to calculus.", 25,
+                    WeeklySchedule.parse("TUE/THU 09:00-10:30"));
+            addCourse("BIO301", "Biology Fundamentals", "Study the fundamentals of biology.", 20,
+                    WeeklySchedule.parse("FRI 13:00-16:00"));
+        }
+
+        public boolean isCompactEnrollments() {
+            return compactEnrollments;
+        }
+
+        // The code is interned before the course becomes visible, so a compact student can always
+        // resolve the id of any course it is able to register for. The course is logged inside
+        // computeIfAbsent, so its record always precedes any registration for it, and under the
+        // creation lock, so a snapshot never rolls between the record and the course appearing.
+        public boolean addCourse(String code, String title, String description, int capacity) {
+            return addCourse(code, title, description, capacity, WeeklySchedule.NONE);
+        }
+
+        public boolean addCourse(String code, String title, String description, int capacity, WeeklySchedule schedule) {
+            courseCodes.intern(code);
+            RegistrationLog current = log;
+            Course course = new Course(code, title, description, capacity, schedule);
+            course.log = current;
+            boolean added;
+            creationLock.readLock().lock();
+            try {
+                added = courses.computeIfAbsent(code, key -> {
+                    if (current != null) {
+                        current.append(RegistrationLog.OP_COURSE, code, title, description, capacity);
+                        if (!schedule.isEmpty()) {
+                            current.append(RegistrationLog.OP_SCHEDULE, code, schedule.toString(), null, 0);
+                        }
+                    }
+                    return course;
+                }) == course;
+            } finally {
+                creationLock.readLock().unlock();
+            }
+            if (added) {
+                searchIndex.add(course);
+                listing.add(course);
+            }
+            return added;
+        }
+
+        public Collection<Course> getCourses() {
+            return courses.values();
+        }
+
+        public Collection<Student> getStudents() {
+            return students.values();
+        }
+
+        public Course getCourse(String code) {
+            return courses.get(code);
+        }
+
+        public Student getStudent(String id) {
+            return students.get(id);
+        }
+
+        public boolean createStudent(String id, String name) {
+            RegistrationLog current = log;
+            Student student = compactEnrollments ? new CompactStudent(id, name, courseCodes) : new Student(id, name);
+            creationLock.readLock().lock();
+            try {
+                return students.computeIfAbsent(id, key -> {
+                    if (current != null) {
+                        current.append(RegistrationLog.OP_STUDENT, id, name, null, 0);
+                    }
+                    return student;
+                }) == student;
+            } finally {
+                creationLock.readLock().unlock();
+            }
         }
 
         public void addStudent(String id, String name) {
-            if (students.containsKey(id)) {
+            if (!createStudent(id, name)) {
                 System.out.println("Student with this ID already exists.");
                 return;
             }
-            Student newStudent = new Student(id, name);
-            students.put(id, newStudent);
-
             displayCourses();
-            Scanner scanner = new Scanner(System.in);
-
             System.out.println("Select courses for registration (enter course codes separated by commas):");
-            String[] courseCodes = scanner.nextLine().split(",");
+            String[] courseCodes = ConsoleInput.stdin().nextLine().split(",");
 
             for (String courseCode : courseCodes) {
                 courseCode = courseCode.trim();
                 Course course = courses.get(courseCode);
-                if (course != null && course.isAvailable()) {
-                    newStudent.registerCourse(courseCode);
-                    course.enrollStudent();
+                RegistrationResult result = course == null ? RegistrationResult.COURSE_NOT_FOUND : tryRegister(id, courseCode);
+                awaitDurable();
+                if (result == RegistrationResult.REGISTERED) {
                     System.out.println("Registered for " + course.getTitle() + " successfully.");
+                } else if (result == RegistrationResult.WAITLISTED) {
+                    System.out.println("Course " + courseCode + " is full. Added to the waitlist.");
                 } else {
                     System.out.println("Course " + courseCode + " is not available or does not exist.");
                 }
             }
         }
 
+        public CourseSearchIndex getSearchIndex() {
+            return searchIndex;
+        }
+
+        // A single-word query also matches course codes by prefix; those come first, followed by
+        // keyword matches over code, title and description in ranked order.
+        public List<Course> searchCourses(String query, boolean onlyWithFreeSeats, int limit) {
+            List<Course> results = new ArrayList<>();
+            String trimmed = query.trim();
+            if (!trimmed.isEmpty() && trimmed.indexOf(' ') < 0) {
+                results.addAll(searchIndex.findByCodePrefix(trimmed, onlyWithFreeSeats, limit));
+            }
+            if (results.size() < limit) {
+                for (CourseSearchIndex.Hit hit : searchIndex.search(trimmed, onlyWithFreeSeats, limit)) {
+                    if (results.size() == limit) {
+                        break;
+                    }
+                    if (!results.contains(hit.getCourse())) {
+                        results.add(hit.getCourse());
+                    }
+                }
+            }
+            return results;
+        }
+
+        public void displaySearchResults(String query, boolean onlyWithFreeSeats) {
+            List<Course> results = searchCourses(query, onlyWithFreeSeats, SEARCH_RESULT_LIMIT);
+            if (results.isEmpty()) {
+                System.out.println("No matching courses.");
+                return;
+            }
+            synchronized (listingBuffer) {
+                listingBuffer.setLength(0);
+                listingBuffer.append(System.lineSeparator()).append("Matching Courses:").append(System.lineSeparator())
+                        .append(CourseListing.HEADER);
+                CourseListing.render(new CourseListing.Page(results, null), listingBuffer);
+                flush(listingBuffer);
+            }
+        }
+
+        public CourseListing.Page listCourses(CourseListing.Order order, String cursor, int pageSize) {
+            return listing.page(order, cursor, pageSize);
+        }
+
+        // Renders one page into the reusable buffer and writes it with a single flush. Returns the
+        // cursor of the next page, or null after the last one.
+        public String displayCoursePage(CourseListing.Order order, String cursor, int pageSize) {
+            CourseListing.Page page = listing.page(order, cursor, pageSize);
+            synchronized (listingBuffer) {
+                listingBuffer.setLength(0);
+                if (cursor == null) {
+                    listingBuffer.append(System.lineSeparator()).append("Available Courses:").append(System.lineSeparator())
+                            .append(CourseListing.HEADER);
+                }
+                CourseListing.render(page, listingBuffer);
+                flush(listingBuffer);
+            }
+            return page.getNextCursor();
+        }
+
         public void displayCourses() {
-            System.out.println("\nAvailable Courses:");
-            System.out.printf("%-10s %-30s %-40s %5s %10s\n", "Code", "Title", "Description", "Capacity", "Enrolled");
-            for (Course course : courses.values()) {
-                System.out.println(course);
+            String cursor = displayCoursePage(CourseListing.Order.CODE, null, DEFAULT_PAGE_SIZE);
+            while (cursor != null) {
+                cursor = displayCoursePage(CourseListing.Order.CODE, cursor, DEFAULT_PAGE_SIZE);
             }
         }
+
+        private static StringBuilder appendPadded(StringBuilder buffer, String text, int width) {
+            buffer.append(text);
+            for (int i = text.length(); i < width; i++) {
+                buffer.append(' ');
+            }
+            return buffer;
+        }
+
+        private static void flush(StringBuilder buffer) {
+            System.out.print(buffer);
+            System.out.flush();
+        }
         
         public void registerStudent(String studentId, String courseCode) {
-            Student student = students.get(studentId);
-            Course course = courses.get(courseCode);
+            RegistrationResult result = tryRegister(studentId, courseCode);
+            awaitDurable();
+            System.out.println(result.getMessage());
+        }
 
-            if (student == null) {
-                System.out.println("Student not found.");
-                return;
+        public void registerStudent(String studentId, Collection<String> courseCodes) {
+            RegistrationResult result = tryRegisterAll(studentId, courseCodes);
+            awaitDurable();
+            System.out.println(result.getMessage());
+        }
+
+        public void dropCourse(String studentId, String courseCode) {
+            RegistrationResult result = tryDrop(studentId, courseCode);
+            awaitDurable();
+            System.out.println(result.getMessage());
+        }
+
+        // Seats are claimed lock-free on the course; the student is locked only against their
+        // own concurrent requests, so thousands of students can rush the same course at once.
+        public RegistrationResult tryRegister(String studentId, String courseCode) {
+            long start = System.nanoTime();
+            try {
+                Student student = students.get(studentId);
+                Course course = courses.get(courseCode);
+
+                if (student == null) {
+                    return RegistrationResult.STUDENT_NOT_FOUND;
+                }
+
+                if (course == null) {
+                    return RegistrationResult.COURSE_NOT_FOUND;
+                }
+
+                synchronized (student) {
+                    if (student.isRegisteredFor(courseCode)) {
+                        return RegistrationResult.ALREADY_REGISTERED;
+                    }
+                    if (student.clashesWith(course.getSchedule())) {
+                        return RegistrationResult.SCHEDULE_CONFLICT;
+                    }
+                    RegistrationResult result = course.enrollStudent()
+                            ? RegistrationResult.REGISTERED : course.enrollOrWaitlist(studentId);
+                    if (result == RegistrationResult.REGISTERED) {
+                        enroll(student, course);
+                    }
+                    return result;
+                }
+            } finally {
+                REGISTER_TIMER.recordSince(start);
             }
+        }
 
-            if (course == null) {
-                System.out.println("Course not found.");
-                return;
+        // All or nothing: seats are claimed one course at a time and handed back if any course
+        // turns out to be full, so the student is never left half registered.
+        public RegistrationResult tryRegisterAll(String studentId, Collection<String> courseCodes) {
+            long start = System.nanoTime();
+            try {
+                Student student = students.get(studentId);
+                if (student == null) {
+                    return RegistrationResult.STUDENT_NOT_FOUND;
+                }
+                List<Course> wanted = new ArrayList<>(courseCodes.size());
+                Set<String> seen = new HashSet<>();
+                for (String courseCode : courseCodes) {
+                    Course course = courses.get(courseCode);
+                    if (course == null) {
+                        return RegistrationResult.COURSE_NOT_FOUND;
+                    }
+                    if (seen.add(courseCode)) {
+                        wanted.add(course);
+                    }
+                }
+
+                List<Course> claimed;
+                synchronized (student) {
+                    for (Course course : wanted) {
+                        if (student.isRegisteredFor(course.getCode())) {
+                            return RegistrationResult.ALREADY_REGISTERED;
+                        }
+                    }
+                    // The wanted courses must fit the existing timetable and each other.
+                    int[] booked = student.getBookedMeetings();
+                    for (Course course : wanted) {
+                        if (course.getSchedule().clashesWith(booked)) {
+                            return RegistrationResult.SCHEDULE_CONFLICT;
+                        }
+                        booked = course.getSchedule().bookInto(booked);
+                    }
+                    int i = 0;
+                    while (i < wanted.size() && wanted.get(i).enrollStudent()) {
+                        i++;
+                    }
+                    if (i == wanted.size()) {
+                        for (Course course : wanted) {
+                            enroll(student, course);
+                        }
+                        return RegistrationResult.REGISTERED;
+                    }
+                    claimed = wanted.subList(0, i);
+                }
+                // Seats claimed before reaching the full course go back the way a drop returns
+                // them, after the student's lock is released, so anyone waitlisted meanwhile
+                // gets promoted into them.
+                for (Course course : claimed) {
+                    promoteFromWaitlist(course);
+                }
+                return RegistrationResult.COURSE_FULL;
+            } finally {
+                REGISTER_TIMER.recordSince(start);
+            }
+        }
+
+        public RegistrationResult tryDrop(String studentId, String courseCode) {
+            long start = System.nanoTime();
+            try {
+                Student student = students.get(studentId);
+                Course course = courses.get(courseCode);
+
+                if (student == null) {
+                    return RegistrationResult.STUDENT_NOT_FOUND;
+                }
+
+                if (course == null) {
+                    return RegistrationResult.COURSE_NOT_FOUND;
+                }
+
+                synchronized (student) {
+                    if (!unenroll(student, course)) {
+                        return course.leaveWaitlist(studentId)
+                                ? RegistrationResult.LEFT_WAITLIST : RegistrationResult.NOT_REGISTERED;
+                    }
+                }
+                promoteFromWaitlist(course);
+                return RegistrationResult.DROPPED;
+            } finally {
+                DROP_TIMER.recordSince(start);
             }
+        }
 
-            if (course.isAvailable()) {
-                student.registerCourse(courseCode);
-                course.enrollStudent();
-                System.out.println("Registration successful.");
-            } else {
-                System.out.println("Course is full.");
+        // The student -> courses set and the course -> roster index only ever change together,
+        // under the student's lock, so each side can answer membership without scanning the other.
+        // The change is logged under the same lock, so the log has each student's changes in order.
+        private boolean enroll(Student student, Course course) {
+            if (!student.registerCourse(course.getCode())) {
+                return false;
+            }
+            student.bookMeetings(course.getSchedule());
+            course.roster.add(student.getId());
+            RegistrationLog current = log;
+            if (current != null) {
+                current.append(RegistrationLog.OP_ENROLL, student.getId(), course.getCode(), null, 0);
             }
+            return true;
         }
 
-        public void dropCourse(String studentId, String courseCode) {
+        private boolean unenroll(Student student, Course course) {
+            if (!student.dropCourse(course.getCode())) {
+                return false;
+            }
+            student.releaseMeetings(course.getSchedule());
+            course.roster.remove(student.getId());
+            RegistrationLog current = log;
+            if (current != null) {
+                current.append(RegistrationLog.OP_UNENROLL, student.getId(), course.getCode(), null, 0);
+            }
+            return true;
+        }
+
+        // Mutations made after this are logged. Called once recovery has finished.
+        void attachLog(RegistrationLog log) {
+            for (Course course : courses.values()) {
+                course.log = log;
+            }
+            this.log = log;
+        }
+
+        public RegistrationLog getLog() {
+            return log;
+        }
+
+        // Rolls the log once no course or student is between its record and being published, so
+        // everything logged up to the returned sequence is already visible to a snapshot.
+        long rollLog() throws IOException {
+            creationLock.writeLock().lock();
+            try {
+                return log.roll();
+            } finally {
+                creationLock.writeLock().unlock();
+            }
+        }
+
+        // Blocks until every mutation so far is on disk; a no-op without a log.
+        public void awaitDurable() {
+            RegistrationLog current = log;
+            if (current != null) {
+                current.sync();
+            }
+        }
+
+        // Restore and replay run before the log is attached, so nothing they do is logged again.
+        // Replay is idempotent: each record sets the final state of one student/course pair or
+        // waitlist entry, so replaying records a fuzzy snapshot already reflects is harmless.
+        void restoreCourse(String code, String title, String description, int capacity, WeeklySchedule schedule,
+                           List<String> waitlist) {
+            courseCodes.intern(code);
+            Course course = new Course(code, title, description, capacity, schedule);
+            course.waitlist.addAll(waitlist);
+            courses.put(code, course);
+            searchIndex.add(course);
+            listing.add(course);
+        }
+
+        void restoreStudent(String id, String name, String[] courseCodes) {
+            createStudent(id, name);
+            for (String courseCode : courseCodes) {
+                replayEnroll(id, courseCode);
+            }
+        }
+
+        void replay(RegistrationLog.Record record) {
+            switch (record.getOp()) {
+                case RegistrationLog.OP_COURSE:
+                    addCourse(record.getFirst(), record.getSecond(), record.getThird(), record.getNumber());
+                    break;
+                case RegistrationLog.OP_SCHEDULE: {
+                    Course course = courses.get(record.getFirst());
+                    if (course != null) {
+                        course.schedule = WeeklySchedule.parse(record.getSecond());
+                        course.row = null;
+                    }
+                    break;
+                }
+                case RegistrationLog.OP_STUDENT:
+                    createStudent(record.getFirst(), record.getSecond());
+                    break;
+                case RegistrationLog.OP_ENROLL:
+                    replayEnroll(record.getFirst(), record.getSecond());
+                    break;
+                case RegistrationLog.OP_UNENROLL: {
+                    Student student = students.get(record.getFirst());
+                    Course course = courses.get(record.getSecond());
+                    if (student != null && course != null && unenroll(student, course)) {
+                        course.dropStudent();
+                    }
+                    break;
+                }
+                case RegistrationLog.OP_WAITLIST: {
+                    Course course = courses.get(record.getSecond());
+                    if (course != null) {
+                        synchronized (course) {
+                            course.waitlist.add(record.getFirst());
+                        }
+                    }
+                    break;
+                }
+                case RegistrationLog.OP_UNWAITLIST: {
+                    Course course = courses.get(record.getSecond());
+                    if (course != null) {
+                        course.leaveWaitlist(record.getFirst());
+                    }
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown registration log op " + record.getOp());
+            }
+        }
+
+        private void replayEnroll(String studentId, String courseCode) {
             Student student = students.get(studentId);
             Course course = courses.get(courseCode);
-
-            if (student == null) {
-                System.out.println("Student not found.");
-                return;
+            if (student != null && course != null && enroll(student, course)) {
+                course.enrolled.incrementAndGet();
             }
+        }
 
+        public Set<String> getRoster(String courseCode) {
+            Course course = courses.get(courseCode);
+            return course == null ? Collections.emptySet() : course.getRoster();
+        }
+
+        public int getEnrolledCount(String courseCode) {
+            Course course = courses.get(courseCode);
+            return course == null ? 0 : course.getRosterSize();
+        }
+
+        public boolean isEnrolled(String studentId, String courseCode) {
+            Course course = courses.get(courseCode);
+            return course != null && course.hasOnRoster(studentId);
+        }
+
+        public void displayRoster(String courseCode) {
+            Course course = courses.get(courseCode);
             if (course == null) {
                 System.out.println("Course not found.");
                 return;
             }
 
-            if (student.getRegisteredCourses().contains(courseCode)) {
-                student.dropCourse(courseCode);
-                course.dropStudent();
-                System.out.println("Course dropped successfully.");
-            } else {
-                System.out.println("Student is not registered for this course.");
+            synchronized (listingBuffer) {
+                listingBuffer.setLength(0);
+                listingBuffer.append(System.lineSeparator()).append(course.getTitle()).append(" Roster (")
+                        .append(course.getRosterSize()).append(" enrolled, ").append(course.getWaitlistSize())
+                        .append(" waitlisted):").append(System.lineSeparator());
+                appendPadded(listingBuffer, "ID", 10).append(' ').append("Name").append(System.lineSeparator());
+                for (String studentId : course.getRoster()) {
+                    Student student = students.get(studentId);
+                    if (student != null) {
+                        appendPadded(listingBuffer, student.getId(), 10).append(' ')
+                                .append(student.getName()).append(System.lineSeparator());
+                    }
+                }
+                flush(listingBuffer);
+            }
+        }
+
+        // Runs without the dropping student's lock, and takes each promoted student's lock only
+        // after the course monitor is released, so it never nests locks in the opposite order
+        // to tryRegister. A waitlisted student who registered some other way, or whose timetable
+        // has since filled the course's meeting times, is skipped.
+        private void promoteFromWaitlist(Course course) {
+            String nextId;
+            while ((nextId = course.releaseSeatOrPromote()) != null) {
+                Student next = students.get(nextId);
+                if (next == null) {
+                    continue;
+                }
+                synchronized (next) {
+                    if (!next.clashesWith(course.getSchedule()) && enroll(next, course)) {
+                        return;
+                    }
+                }
             }
         }
 
@@ -197,18 +951,55 @@ public class StudentCourseRegistrationSystem {
                 return;
             }
 
-            System.out.println("\n" + student.getName() + "'s Registered Courses:");
-            System.out.printf("%-10s %-30s %-40s %5s %10s\n", "Code", "Title", "Description", "Capacity", "Enrolled");
+            List<Course> registered = new ArrayList<>();
             for (String courseCode : student.getRegisteredCourses()) {
-                Course course = courses.get(courseCode);
-                System.out.println(course);
+                registered.add(courses.get(courseCode));
+            }
+            synchronized (listingBuffer) {
+                listingBuffer.setLength(0);
+                listingBuffer.append(System.lineSeparator()).append(student.getName()).append("'s Registered Courses:")
+                        .append(System.lineSeparator()).append(CourseListing.HEADER);
+                CourseListing.render(new CourseListing.Page(registered, null), listingBuffer);
+                flush(listingBuffer);
             }
         }
     }
 
-    public static void main(String[] args) {
-        Scanner scanner = new Scanner(System.in);
-        RegistrationSystem system = new RegistrationSystem();
+    public static void main(String[] args) throws IOException {
+        Path dataDirectory = Paths.get("registration-data");
+        Metrics.startPeriodicDumpIfConfigured();
+        RegistrationSystem system = RegistrationSnapshot.recover(dataDirectory, Boolean.getBoolean("registration.compact"), 0);
+        ScheduledExecutorService snapshots = RegistrationSnapshot.schedule(system, dataDirectory, 60);
+
+        // Optional preload: <courses.csv> <students.csv> <enrollments.csv> [report.csv]
+        if (args.length >= 3) {
+            String report = args.length > 3 ? args[3] : "registration-import-report.csv";
+            RegistrationImporter importer = new RegistrationImporter(system,
+                    Runtime.getRuntime().availableProcessors(), RegistrationImporter.DEFAULT_CHUNK_ROWS);
+            try {
+                for (RegistrationImporter.Summary summary : importer.importAll(
+                        Paths.get(args[0]), Paths.get(args[1]), Paths.get(args[2]), Paths.get(report))) {
+                    System.out.println(summary);
+                }
+            } catch (IOException e) {
+                System.out.println("Import failed: " + e.getMessage());
+            }
+        }
+
+        try {
+            runMenu(system);
+        } catch (NoSuchElementException e) {
+            // Input ended mid-menu (e.g. a script ran out); still take the final snapshot.
+            System.out.println("\nNo more input. Goodbye!");
+        }
+
+        snapshots.shutdownNow();
+        RegistrationSnapshot.snapshot(system, dataDirectory);
+        system.getLog().close();
+    }
+
+    private static void runMenu(RegistrationSystem system) {
+        ConsoleInput input = ConsoleInput.stdin();
 
         while (true) {
             System.out.println("\nStudent Course Registration System");
@@ -218,55 +1009,86 @@ public class StudentCourseRegistrationSystem {
             System.out.println("4. Drop a Course");
             System.out.println("5. Display Registered Courses");
             System.out.println("6. Exit");
-            System.out.print("Choose an option: ");
-            int choice = scanner.nextInt();
-            scanner.nextLine();
+            System.out.println("7. Show Metrics");
+            System.out.println("8. Display Course Roster");
+            System.out.println("9. Search Courses");
+            int choice = input.readInt("Choose an option: ", "Invalid choice. Choose an option (1-9): ", 1, 9);
 
             switch (choice) {
                 case 1:
                     System.out.print("Enter student ID: ");
-                    String studentId = scanner.nextLine();
+                    String studentId = input.nextLine();
                     System.out.print("Enter student name: ");
-                    String studentName = scanner.nextLine();
+                    String studentName = input.nextLine();
                     system.addStudent(studentId, studentName);
                     break;
                 case 2:
-                    system.displayCourses();
+                    System.out.print("Sort by (code/title/seats): ");
+                    String sortBy = input.nextLine().trim().toLowerCase();
+                    CourseListing.Order order = sortBy.startsWith("t") ? CourseListing.Order.TITLE
+                            : sortBy.startsWith("s") ? CourseListing.Order.FREE_SEATS : CourseListing.Order.CODE;
+                    String cursor = system.displayCoursePage(order, null, RegistrationSystem.DEFAULT_PAGE_SIZE);
+                    while (cursor != null) {
+                        System.out.print("Press Enter for more, or q to stop: ");
+                        if (input.nextLine().trim().equalsIgnoreCase("q")) {
+                            break;
+                        }
+                        cursor = system.displayCoursePage(order, cursor, RegistrationSystem.DEFAULT_PAGE_SIZE);
+                    }
                     break;
                 case 3:
                     System.out.print("Enter student ID: ");
-                    String regStudentId = scanner.nextLine();
-                    System.out.print("Enter course code: ");
-                    String regCourseCode = scanner.nextLine();
-                    system.registerStudent(regStudentId, regCourseCode);
+                    String regStudentId = input.nextLine();
+                    System.out.print("Enter course code (several separated by commas to register for all or none): ");
+                    String regCourseCode = input.nextLine();
+                    if (regCourseCode.contains(",")) {
+                        List<String> codes = new ArrayList<>();
+                        for (String code : regCourseCode.split(",")) {
+                            codes.add(code.trim());
+                        }
+                        system.registerStudent(regStudentId, codes);
+                    } else {
+                        system.registerStudent(regStudentId, regCourseCode);
+                    }
                     break;
                 case 4:
                     System.out.print("Enter student ID: ");
-                    String dropStudentId = scanner.nextLine();
+                    String dropStudentId = input.nextLine();
                     System.out.print("Enter course code: ");
-                    String dropCourseCode = scanner.nextLine();
+                    String dropCourseCode = input.nextLine();
                     system.dropCourse(dropStudentId, dropCourseCode);
                     break;
                 case 5:
                     System.out.print("Enter student ID: ");
-                    String displayStudentId = scanner.nextLine();
+                    String displayStudentId = input.nextLine();
                     system.displayStudentCourses(displayStudentId);
                     break;
                 case 6:
                     System.out.println("Thank you for using the Student Course Registration System. Have a great day!");
                     return;
-                default:
-                    System.out.println("Invalid choice. Please try again.");
+                case 7:
+                    System.out.print(Metrics.dump());
+                    break;
+                case 8:
+                    System.out.print("Enter course code: ");
+                    String rosterCourseCode = input.nextLine();
+                    system.displayRoster(rosterCourseCode);
+                    break;
+                case 9:
+                    System.out.print("Enter course code prefix or keywords: ");
+                    String query = input.nextLine();
+                    System.out.print("Only courses with free seats? (yes/no): ");
+                    boolean onlyWithFreeSeats = input.nextLine().trim().equalsIgnoreCase("yes");
+                    system.displaySearchResults(query, onlyWithFreeSeats);
+                    break;
             }
 
             System.out.print("Do you want to continue? (yes/no): ");
-            String continueChoice = scanner.nextLine().trim().toLowerCase();
+            String continueChoice = input.nextLine().trim().toLowerCase();
             if (!continueChoice.equals("yes")) {
                 System.out.println("Thank you for using the Student Course Registration System. Goodbye!");
                 break;
             }
         }
-
-        scanner.close();
     }
 }
@@ -1,48 +1,61 @@
-import java.util.Scanner;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 public class StudentGradeCalculator {
-    public static void main(String[] args) {
-        Scanner scanner = new Scanner(System.in);
+    // gradeFor at every whole percentage. Its thresholds are whole numbers, so the whole part of
+    // an average picks the same grade as the full comparison chain.
+    private static final String[] GRADE_BY_PERCENT = new String[101];
 
-        System.out.print("Enter the number of subjects: ");
-        int numSubjects = scanner.nextInt();
-        scanner.nextLine(); 
+    static {
+        for (int percent = 0; percent <= 100; percent++) {
+            GRADE_BY_PERCENT[percent] = gradeFor(percent);
+        }
+    }
+
+    // With "--batch marks.csv results.csv [threads [statistics.csv]]" a whole cohort is graded
+    // from a file of "student,subject,mark" rows instead of one student typed in at the prompt.
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("--batch")) {
+            int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+            if (threads <= 0) {
+                System.out.println("The thread count must be at least 1.");
+                return;
+            }
+            BatchGrader grader = new BatchGrader(threads, BatchGrader.DEFAULT_SEGMENT_BYTES);
+            BatchGrader.Summary summary = grader.grade(Paths.get(args[1]), Paths.get(args[2]));
+            System.out.println(summary);
+            System.out.println("Results written to " + args[2]);
+            System.out.println();
+            summary.getStatistics().print();
+            if (args.length > 4) {
+                summary.getStatistics().writeReport(Paths.get(args[4]));
+                System.out.println("Statistics written to " + args[4]);
+            }
+            return;
+        }
+        ConsoleInput input = ConsoleInput.stdin();
+
+        int numSubjects = input.readInt("Enter the number of subjects: ",
+                "Please enter a whole number of subjects (at least 1): ", 1, Integer.MAX_VALUE);
 
         String[] subjects = new String[numSubjects];
         int[] marks = new int[numSubjects];
         int totalMarks = 0;
+        MarkStatistics statistics = new MarkStatistics();
         
         for (int i = 0; i < numSubjects; i++) {
             System.out.print("Enter the name of subject " + (i + 1) + ": ");
-            subjects[i] = scanner.nextLine();
+            subjects[i] = input.nextLine();
 
-            System.out.print("Enter marks for " + subjects[i] + " (out of 100): ");
-            marks[i] = scanner.nextInt();
-            scanner.nextLine(); 
-
-            while (marks[i] < 0 || marks[i] > 100) {
-                System.out.print("Invalid marks. Enter marks for " + subjects[i] + " (out of 100): ");
-                marks[i] = scanner.nextInt();
-                scanner.nextLine(); 
-            }
+            marks[i] = input.readInt("Enter marks for " + subjects[i] + " (out of 100): ",
+                    "Invalid marks. Enter marks for " + subjects[i] + " (out of 100): ", 0, 100);
 
             totalMarks += marks[i];
+            statistics.add(marks[i]);
         }
 
-        double averagePercentage = (double) totalMarks / numSubjects;
-
-        String grade;
-        if (averagePercentage >= 90) {
-            grade = "A";
-        } else if (averagePercentage >= 80) {
-            grade = "B";
-        } else if (averagePercentage >= 70) {
-            grade = "C";
-        } else if (averagePercentage >= 60) {
-            grade = "D";
-        } else {
-            grade = "F";
-        }
+        double averagePercentage = averagePercentage(marks);
+        String grade = lookupGrade(averagePercentage);
 
         System.out.println("\nSubject-wise Marks:");
         System.out.println("---------------------------------------------------");
@@ -55,8 +68,34 @@ public class StudentGradeCalculator {
 
         System.out.println("Total Marks: " + totalMarks);
         System.out.println("Average Percentage: " + averagePercentage + "%");
+        System.out.printf("Median Marks: %d, Lowest: %d, Highest: %d, Standard Deviation: %.2f%n",
+                statistics.percentile(50), statistics.min(), statistics.max(), statistics.standardDeviation());
         System.out.println("Grade: " + grade);
+    }
+
+    static double averagePercentage(int[] marks) {
+        int totalMarks = 0;
+        for (int mark : marks) {
+            totalMarks += mark;
+        }
+        return (double) totalMarks / marks.length;
+    }
+
+    static String lookupGrade(double averagePercentage) {
+        return GRADE_BY_PERCENT[(int) Math.max(0, Math.min(100, averagePercentage))];
+    }
 
-        scanner.close();
+    static String gradeFor(double averagePercentage) {
+        if (averagePercentage >= 90) {
+            return "A";
+        } else if (averagePercentage >= 80) {
+            return "B";
+        } else if (averagePercentage >= 70) {
+            return "C";
+        } else if (averagePercentage >= 60) {
+            return "D";
+        } else {
+            return "F";
+        }
     }
 }
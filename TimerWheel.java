@@ -0,0 +1,130 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// A hashed timing wheel: one thread advances a ring of buckets once per tick and hands every
+// timeout that comes due to an executor, so thousands of pending deadlines cost one thread and
+// a list entry each instead of a sleeping thread each. Deadlines are rounded up to the next
+// tick; a timeout further away than one turn of the wheel waits out the extra rounds in its
+// bucket.
+class TimerWheel implements AutoCloseable {
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    static final class Timeout {
+        private final Runnable task;
+        private final long deadlineTick;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        Timeout(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        // False if the task already ran or was handed to the executor. A cancelled timeout
+        // stays in its bucket until the wheel next passes it.
+        public boolean cancel() {
+            return state.compareAndSet(PENDING, CANCELLED);
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+    }
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<List<Timeout>> buckets;
+    private final Queue<Timeout> added;
+    private final Executor executor;
+    private final Thread ticker;
+    private final long startNanos;
+    private volatile boolean closed;
+
+    // Scheduling is a queue offer from any thread; only the ticker thread touches the buckets.
+    public TimerWheel(String name, long tickMillis, int wheelSize, Executor executor) {
+        if (tickMillis <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Tick must be positive and wheel size a power of two.");
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.mask = wheelSize - 1;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.added = new ConcurrentLinkedQueue<>();
+        this.executor = executor;
+        this.startNanos = System.nanoTime();
+        this.ticker = new Thread(this::run, name);
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    public Timeout schedule(long delay, TimeUnit unit, Runnable task) {
+        if (closed) {
+            throw new IllegalStateException("Timer wheel is closed.");
+        }
+        long dueNanos = System.nanoTime() - startNanos + unit.toNanos(Math.max(delay, 0));
+        Timeout timeout = new Timeout(task, (dueNanos + tickNanos - 1) / tickNanos);
+        added.add(timeout);
+        return timeout;
+    }
+
+    // Pending timeouts are dropped without running.
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(ticker);
+    }
+
+    private void run() {
+        long tick = 0;
+        while (!closed) {
+            long wakeNanos = startNanos + (tick + 1) * tickNanos;
+            long sleepNanos;
+            while ((sleepNanos = wakeNanos - System.nanoTime()) > 0 && !closed) {
+                LockSupport.parkNanos(this, sleepNanos);
+            }
+            tick++;
+            transferAdded(tick);
+            expire(buckets.get((int) (tick & mask)), tick);
+        }
+    }
+
+    // Anything already due (scheduled with a deadline in the past, or added while the ticker was
+    // late) lands in the current bucket and runs on this tick.
+    private void transferAdded(long tick) {
+        Timeout timeout;
+        while ((timeout = added.poll()) != null) {
+            if (!timeout.isCancelled()) {
+                buckets.get((int) (Math.max(timeout.deadlineTick, tick) & mask)).add(timeout);
+            }
+        }
+    }
+
+    private void expire(List<Timeout> bucket, long tick) {
+        int kept = 0;
+        for (int i = 0; i < bucket.size(); i++) {
+            Timeout timeout = bucket.get(i);
+            if (timeout.deadlineTick > tick) {
+                if (!timeout.isCancelled()) {
+                    bucket.set(kept++, timeout);
+                }
+            } else if (timeout.state.compareAndSet(PENDING, EXPIRED)) {
+                try {
+                    executor.execute(timeout.task);
+                } catch (RejectedExecutionException e) {
+                    // The executor is shutting down; the deadline no longer matters.
+                }
+            }
+        }
+        bucket.subList(kept, bucket.size()).clear();
+    }
+}
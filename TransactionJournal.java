@@ -0,0 +1,456 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+class TransactionJournal implements Closeable {
+    public static final int OP_OPEN = 1;
+    public static final int OP_DEPOSIT = 2;
+    public static final int OP_WITHDRAW = 3;
+    public static final int OP_TRANSFER = 4;
+    public static final int OP_INTEREST = 5;
+    public static final int OP_FEE = 6;
+    // Precedes an end-of-day run's postings for one account; the amount field holds the run id.
+    public static final int OP_END_OF_DAY = 7;
+
+    // sequence(8) timestamp(8) amount(8) account(4) counterparty(4) op(4) checksum(4)
+    static final int RECORD_SIZE = 40;
+    static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 20;
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String HOLD_FILE = "hold.bin";
+
+    static final class Entry {
+        private final long sequence;
+        private final long timestamp;
+        private final long amountCents;
+        private final int accountId;
+        private final int counterpartyId;
+        private final int op;
+
+        Entry(long sequence, long timestamp, long amountCents, int accountId, int counterpartyId, int op) {
+            this.sequence = sequence;
+            this.timestamp = timestamp;
+            this.amountCents = amountCents;
+            this.accountId = accountId;
+            this.counterpartyId = counterpartyId;
+            this.op = op;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public long getAmountCents() {
+            return amountCents;
+        }
+
+        public int getAccountId() {
+            return accountId;
+        }
+
+        public int getCounterpartyId() {
+            return counterpartyId;
+        }
+
+        public int getOp() {
+            return op;
+        }
+
+        public boolean involves(int account) {
+            return accountId == account || (op == OP_TRANSFER && counterpartyId == account);
+        }
+    }
+
+    private static final class Segment {
+        private final long baseSequence;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        Segment(long baseSequence, FileChannel channel, MappedByteBuffer buffer) {
+            this.baseSequence = baseSequence;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final TreeMap<Long, Segment> segments;
+    private final Object syncLock;
+    private Segment current;
+    private long nextSequence;
+    private volatile long durableSequence;
+    private Thread flusher;
+    private boolean closed;
+    private int holdOwner;
+    private long holdSequence = -1;
+
+    public TransactionJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_RECORDS_PER_SEGMENT, 0);
+    }
+
+    // With groupCommitMillis > 0 a daemon thread forces the journal on that interval, so
+    // appenders that do not call awaitDurable still reach disk within one interval.
+    public TransactionJournal(Path directory, int recordsPerSegment, long groupCommitMillis) throws IOException {
+        if (recordsPerSegment <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive.");
+        }
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        this.segments = new TreeMap<>();
+        this.syncLock = new Object();
+        Files.createDirectories(directory);
+        openExistingSegments();
+        loadHold();
+
+        if (segments.isEmpty()) {
+            current = createSegment(1);
+            nextSequence = 1;
+        } else {
+            current = segments.lastEntry().getValue();
+            int valid = countValidRecords(current);
+            clearFrom(current, valid);
+            nextSequence = current.baseSequence + valid;
+        }
+        durableSequence = nextSequence - 1;
+
+        if (groupCommitMillis > 0) {
+            flusher = new Thread(() -> runFlusher(groupCommitMillis), "journal-group-commit");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    public synchronized long append(int op, int accountId, int counterpartyId, long amountCents) {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed.");
+        }
+        long sequence = nextSequence;
+        int slot = (int) (sequence - current.baseSequence);
+        if (slot == recordsPerSegment) {
+            rollSegment(sequence);
+            slot = 0;
+        }
+        long timestamp = System.currentTimeMillis();
+        int offset = slot * RECORD_SIZE;
+        MappedByteBuffer buffer = current.buffer;
+        buffer.putLong(offset, sequence);
+        buffer.putLong(offset + 8, timestamp);
+        buffer.putLong(offset + 16, amountCents);
+        buffer.putInt(offset + 24, accountId);
+        buffer.putInt(offset + 28, counterpartyId);
+        buffer.putInt(offset + 32, op);
+        buffer.putInt(offset + 36, checksum(sequence, timestamp, amountCents, accountId, counterpartyId, op));
+        nextSequence = sequence + 1;
+        return sequence;
+    }
+
+    // The oldest sequence still kept; earlier segments have been deleted.
+    public synchronized long firstSequence() {
+        return segments.firstKey();
+    }
+
+    public synchronized long lastSequence() {
+        return nextSequence - 1;
+    }
+
+    public long durableSequence() {
+        return durableSequence;
+    }
+
+    // Group commit: whoever gets the sync lock forces everything appended so far, and the
+    // callers queued behind it usually find their sequence already durable.
+    public void awaitDurable(long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            long target;
+            MappedByteBuffer buffer;
+            synchronized (this) {
+                target = nextSequence - 1;
+                buffer = current.buffer;
+            }
+            buffer.force();
+            durableSequence = target;
+        }
+    }
+
+    public void sync() {
+        awaitDurable(lastSequence());
+    }
+
+    public Entry read(long sequence) {
+        Segment segment;
+        synchronized (this) {
+            if (sequence < segments.firstKey() || sequence >= nextSequence) {
+                throw new IllegalArgumentException("No journal record " + sequence);
+            }
+            segment = segments.floorEntry(sequence).getValue();
+        }
+        return decode(segment, (int) (sequence - segment.baseSequence));
+    }
+
+    // Newest first: returns up to pageSize records for the account with a sequence below
+    // beforeSequence. Pass the last returned sequence back in to get the next page. History
+    // ends at the oldest segment still kept.
+    public List<Entry> readBackward(int accountId, long beforeSequence, int pageSize) {
+        List<Entry> page = new ArrayList<>(pageSize);
+        long sequence = Math.min(beforeSequence - 1, lastSequence());
+        while (sequence >= 1 && page.size() < pageSize) {
+            Segment segment;
+            synchronized (this) {
+                Map.Entry<Long, Segment> floor = segments.floorEntry(sequence);
+                if (floor == null) {
+                    break;
+                }
+                segment = floor.getValue();
+            }
+            for (int slot = (int) (sequence - segment.baseSequence); slot >= 0 && page.size() < pageSize; slot--) {
+                int offset = slot * RECORD_SIZE;
+                int op = segment.buffer.getInt(offset + 32);
+                if (segment.buffer.getInt(offset + 24) == accountId
+                        || (op == OP_TRANSFER && segment.buffer.getInt(offset + 28) == accountId)) {
+                    page.add(decode(segment, slot));
+                }
+            }
+            sequence = segment.baseSequence - 1;
+        }
+        return page;
+    }
+
+    // Replays every record after the given sequence in order; used to rebuild state on startup.
+    public void replay(long afterSequence, Consumer<Entry> consumer) {
+        long last = lastSequence();
+        long sequence = afterSequence + 1;
+        synchronized (this) {
+            if (sequence <= last && sequence < segments.firstKey()) {
+                throw new IllegalStateException("Journal records from " + sequence + " to "
+                        + (segments.firstKey() - 1) + " have been deleted.");
+            }
+        }
+        while (sequence <= last) {
+            Segment segment;
+            synchronized (this) {
+                segment = segments.floorEntry(sequence).getValue();
+            }
+            long segmentEnd = Math.min(last, segment.baseSequence + recordsPerSegment - 1);
+            for (; sequence <= segmentEnd; sequence++) {
+                consumer.accept(decode(segment, (int) (sequence - segment.baseSequence)));
+            }
+        }
+    }
+
+    // Pins every record after the sequence against deleteThrough until another owner takes the
+    // hold. The hold is on disk before this returns, so it also binds later processes.
+    public synchronized void hold(int owner, long afterSequence) throws IOException {
+        Path temp = directory.resolve(HOLD_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(12).putInt(owner).putLong(afterSequence);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(HOLD_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        holdOwner = owner;
+        holdSequence = afterSequence;
+    }
+
+    // The sequence the owner's hold keeps records after, or -1 when the owner holds nothing.
+    public synchronized long heldAfter(int owner) {
+        return holdSequence >= 0 && holdOwner == owner ? holdSequence : -1;
+    }
+
+    // Deletes segments whose records are all at or below the sequence; the current one is kept.
+    // Called with the oldest kept snapshot's sequence, so recovery never needs what is deleted.
+    // Nothing after a hold's sequence is deleted.
+    public synchronized void deleteThrough(long sequence) throws IOException {
+        if (holdSequence >= 0) {
+            sequence = Math.min(sequence, holdSequence);
+        }
+        while (segments.size() > 1) {
+            Map.Entry<Long, Segment> oldest = segments.firstEntry();
+            if (oldest.getKey() + recordsPerSegment - 1 > sequence) {
+                break;
+            }
+            segments.remove(oldest.getKey());
+            oldest.getValue().channel.close();
+            Files.deleteIfExists(segmentPath(oldest.getKey()));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        if (flusher != null) {
+            flusher.interrupt();
+        }
+        synchronized (syncLock) {
+            current.buffer.force();
+            durableSequence = nextSequence - 1;
+        }
+        synchronized (this) {
+            for (Segment segment : segments.values()) {
+                segment.channel.close();
+            }
+        }
+    }
+
+    private void runFlusher(long intervalMillis) {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+            }
+            sync();
+        }
+    }
+
+    private void rollSegment(long baseSequence) {
+        current.buffer.force();
+        durableSequence = Math.max(durableSequence, baseSequence - 1);
+        try {
+            current = createSegment(baseSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not roll journal segment", e);
+        }
+    }
+
+    private Segment createSegment(long baseSequence) throws IOException {
+        return mapSegment(baseSequence, segmentPath(baseSequence));
+    }
+
+    private Path segmentPath(long baseSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, baseSequence, SEGMENT_SUFFIX));
+    }
+
+    private Segment mapSegment(long baseSequence, Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+        Segment segment = new Segment(baseSequence, channel, buffer);
+        segments.put(baseSequence, segment);
+        return segment;
+    }
+
+    private void openExistingSegments() throws IOException {
+        Map<Long, Path> found = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                found.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())), path);
+            }
+        }
+        for (Map.Entry<Long, Path> entry : found.entrySet()) {
+            mapSegment(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void loadHold() throws IOException {
+        Path file = directory.resolve(HOLD_FILE);
+        if (Files.exists(file)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buffer.remaining() != 12) {
+                throw new IOException("Corrupt journal hold: " + file);
+            }
+            holdOwner = buffer.getInt();
+            holdSequence = buffer.getLong();
+        }
+    }
+
+    // A torn or never-written slot fails the sequence or checksum test, which marks the end of the log.
+    private int countValidRecords(Segment segment) {
+        int slot = 0;
+        while (slot < recordsPerSegment) {
+            int offset = slot * RECORD_SIZE;
+            MappedByteBuffer buffer = segment.buffer;
+            long sequence = buffer.getLong(offset);
+            if (sequence != segment.baseSequence + slot) {
+                break;
+            }
+            int expected = checksum(sequence, buffer.getLong(offset + 8), buffer.getLong(offset + 16),
+                    buffer.getInt(offset + 24), buffer.getInt(offset + 28), buffer.getInt(offset + 32));
+            if (buffer.getInt(offset + 36) != expected) {
+                break;
+            }
+            slot++;
+        }
+        return slot;
+    }
+
+    // Zeroes every slot from the first invalid one on, so records left behind a torn write can
+    // never line up with the sequence again after a later crash. Slots already empty are not
+    // touched, which keeps the untouched rest of a fresh segment sparse.
+    private void clearFrom(Segment segment, int firstSlot) {
+        MappedByteBuffer buffer = segment.buffer;
+        boolean cleared = false;
+        for (int slot = firstSlot; slot < recordsPerSegment; slot++) {
+            int offset = slot * RECORD_SIZE;
+            for (int field = 0; field < RECORD_SIZE; field += 8) {
+                if (buffer.getLong(offset + field) != 0) {
+                    for (int zero = 0; zero < RECORD_SIZE; zero += 8) {
+                        buffer.putLong(offset + zero, 0);
+                    }
+                    cleared = true;
+                    break;
+                }
+            }
+        }
+        if (cleared) {
+            buffer.force();
+        }
+    }
+
+    private static Entry decode(Segment segment, int slot) {
+        int offset = slot * RECORD_SIZE;
+        MappedByteBuffer buffer = segment.buffer;
+        return new Entry(buffer.getLong(offset), buffer.getLong(offset + 8), buffer.getLong(offset + 16),
+                buffer.getInt(offset + 24), buffer.getInt(offset + 28), buffer.getInt(offset + 32));
+    }
+
+    private static int checksum(long sequence, long timestamp, long amountCents, int accountId, int counterpartyId, int op) {
+        long h = sequence * 0x9E3779B97F4A7C15L;
+        h = (h ^ timestamp) * 0x9E3779B97F4A7C15L;
+        h = (h ^ amountCents) * 0x9E3779B97F4A7C15L;
+        h = (h ^ accountId) * 0x9E3779B97F4A7C15L;
+        h = (h ^ counterpartyId) * 0x9E3779B97F4A7C15L;
+        h = (h ^ op) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) | 1;
+    }
+}
@@ -0,0 +1,24 @@
+class UserAnswer {
+    String questionText;
+    char correctAnswer;
+    char userAnswer;
+    boolean isCorrect;
+    int questionId;
+    long answerMillis;
+    boolean timedOut;
+
+    public UserAnswer(String questionText, char correctAnswer, char userAnswer, boolean isCorrect) {
+        this(-1, questionText, correctAnswer, userAnswer, isCorrect, 0, false);
+    }
+
+    public UserAnswer(int questionId, String questionText, char correctAnswer, char userAnswer, boolean isCorrect,
+                      long answerMillis, boolean timedOut) {
+        this.questionId = questionId;
+        this.questionText = questionText;
+        this.correctAnswer = correctAnswer;
+        this.userAnswer = userAnswer;
+        this.isCorrect = isCorrect;
+        this.answerMillis = answerMillis;
+        this.timedOut = timedOut;
+    }
+}
@@ -0,0 +1,34 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class VirtualThreads {
+    private static final long FALLBACK_STACK_SIZE = 256 * 1024;
+
+    private VirtualThreads() {
+    }
+
+    // One virtual thread per task on JDK 21+. Older runtimes get a cached pool of daemon
+    // platform threads with small stacks, which behaves the same at lower session counts.
+    public static ExecutorService newThreadPerTaskExecutor(String name) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(null, runnable, name + "-" + counter.incrementAndGet(), FALLBACK_STACK_SIZE);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public static boolean isAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
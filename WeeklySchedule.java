@@ -0,0 +1,189 @@
+import java.util.Arrays;
+
+// A course's weekly meeting times, as start/end minute pairs counted from Monday 00:00, sorted
+// and non-overlapping. A student's booked meetings use the same layout, which makes it an
+// interval index: one binary search per meeting finds any clash.
+class WeeklySchedule {
+    static final int[] NO_MEETINGS = new int[0];
+    static final WeeklySchedule NONE = new WeeklySchedule(NO_MEETINGS);
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final String[] DAYS = {"MON", "TUE", "WED", "THU", "FRI", "SAT", "SUN"};
+
+    private final int[] meetings;
+
+    private WeeklySchedule(int[] meetings) {
+        this.meetings = meetings;
+    }
+
+    // Meetings separated by ';', each "DAY[/DAY...] HH:MM-HH:MM", e.g. "MON/WED 09:00-10:30".
+    // An empty string means no fixed meeting times.
+    public static WeeklySchedule parse(String text) {
+        String trimmed = text.trim();
+        if (trimmed.isEmpty()) {
+            return NONE;
+        }
+        int[] meetings = NO_MEETINGS;
+        for (String part : trimmed.split(";")) {
+            String[] dayAndTime = part.trim().split("\\s+");
+            if (dayAndTime.length != 2) {
+                throw new IllegalArgumentException("Expected 'DAY HH:MM-HH:MM' but got '" + part.trim() + "'");
+            }
+            String[] times = dayAndTime[1].split("-");
+            if (times.length != 2) {
+                throw new IllegalArgumentException("Expected a time range but got '" + dayAndTime[1] + "'");
+            }
+            int start = parseTime(times[0]);
+            int end = parseTime(times[1]);
+            if (end <= start) {
+                throw new IllegalArgumentException("Meeting must end after it starts: '" + part.trim() + "'");
+            }
+            for (String day : dayAndTime[0].split("/")) {
+                int offset = dayIndex(day) * MINUTES_PER_DAY;
+                int[] meeting = {offset + start, offset + end};
+                if (overlaps(meetings, meeting)) {
+                    throw new IllegalArgumentException("Meetings overlap in '" + trimmed + "'");
+                }
+                meetings = merge(meetings, meeting);
+            }
+        }
+        return new WeeklySchedule(meetings);
+    }
+
+    public boolean isEmpty() {
+        return meetings.length == 0;
+    }
+
+    public int getMeetingCount() {
+        return meetings.length / 2;
+    }
+
+    public boolean overlaps(WeeklySchedule other) {
+        return overlaps(meetings, other.meetings);
+    }
+
+    // True if any of the meetings intersects a booked interval. Booked intervals never overlap,
+    // so only the last one starting before a meeting ends can intersect it.
+    boolean clashesWith(int[] booked) {
+        return overlaps(booked, meetings);
+    }
+
+    static boolean overlaps(int[] booked, int[] meetings) {
+        for (int i = 0; i < meetings.length; i += 2) {
+            int before = startsBefore(booked, meetings[i + 1]);
+            if (before > 0 && booked[2 * before - 1] > meetings[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int[] bookInto(int[] booked) {
+        return meetings.length == 0 ? booked : merge(booked, meetings);
+    }
+
+    // Removes exactly this schedule's meetings from the booked intervals.
+    int[] releaseFrom(int[] booked) {
+        if (meetings.length == 0 || booked.length == 0) {
+            return booked;
+        }
+        int[] kept = new int[booked.length];
+        int size = 0;
+        int next = 0;
+        for (int i = 0; i < booked.length; i += 2) {
+            if (next < meetings.length && booked[i] == meetings[next] && booked[i + 1] == meetings[next + 1]) {
+                next += 2;
+                continue;
+            }
+            kept[size++] = booked[i];
+            kept[size++] = booked[i + 1];
+        }
+        return size == 0 ? NO_MEETINGS : Arrays.copyOf(kept, size);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < meetings.length; i += 2) {
+            if (i > 0) {
+                text.append(';');
+            }
+            text.append(DAYS[meetings[i] / MINUTES_PER_DAY]).append(' ');
+            appendTime(text, meetings[i] % MINUTES_PER_DAY);
+            text.append('-');
+            appendTime(text, meetings[i + 1] - meetings[i] / MINUTES_PER_DAY * MINUTES_PER_DAY);
+        }
+        return text.toString();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof WeeklySchedule && Arrays.equals(meetings, ((WeeklySchedule) other).meetings);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(meetings);
+    }
+
+    // Number of booked intervals that start before the given minute.
+    private static int startsBefore(int[] booked, int minute) {
+        int low = 0;
+        int high = booked.length / 2;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (booked[2 * middle] < minute) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int[] merge(int[] a, int[] b) {
+        int[] merged = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length || j < b.length) {
+            if (j >= b.length || (i < a.length && a[i] <= b[j])) {
+                merged[k++] = a[i++];
+                merged[k++] = a[i++];
+            } else {
+                merged[k++] = b[j++];
+                merged[k++] = b[j++];
+            }
+        }
+        return merged;
+    }
+
+    private static int parseTime(String text) {
+        String[] parts = text.trim().split(":");
+        try {
+            int hours = Integer.parseInt(parts[0]);
+            int minutes = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+            if (parts.length > 2 || hours < 0 || minutes < 0 || minutes > 59 || hours * 60 + minutes > MINUTES_PER_DAY) {
+                throw new IllegalArgumentException("Invalid time '" + text + "'");
+            }
+            return hours * 60 + minutes;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid time '" + text + "'");
+        }
+    }
+
+    private static int dayIndex(String day) {
+        for (int i = 0; i < DAYS.length; i++) {
+            if (DAYS[i].equalsIgnoreCase(day)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown day '" + day + "'");
+    }
+
+    private static void appendTime(StringBuilder text, int minute) {
+        int hours = minute / 60;
+        int minutes = minute % 60;
+        text.append(hours < 10 ? "0" : "").append(hours).append(':').append(minutes < 10 ? "0" : "").append(minutes);
+    }
+}
@@ -0,0 +1,77 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BankAccountBenchmark {
+    private static final MethodHandle NEW_LEDGER = Programs.constructor("Ledger", int.class);
+    private static final MethodHandle OPEN_ACCOUNT = Programs.method("Ledger", "openAccount", long.class);
+    private static final MethodHandle NEW_ACCOUNT = Programs.constructor("BankAccount",
+            Programs.type("Ledger"), int.class, String.class);
+    private static final MethodHandle DEPOSIT = Programs.method("BankAccount", "deposit", double.class);
+    private static final MethodHandle WITHDRAW = Programs.method("BankAccount", "withdraw", double.class);
+
+    static Object openAccount() throws Throwable {
+        Object ledger = NEW_LEDGER.invoke(1);
+        int accountId = (int) OPEN_ACCOUNT.invoke(ledger, Long.MAX_VALUE / 4);
+        return NEW_ACCOUNT.invoke(ledger, accountId, "Benchmark");
+    }
+
+    @State(Scope.Thread)
+    public static class PrivateAccount {
+        Object account;
+
+        @Setup
+        public void setUp() throws Throwable {
+            account = openAccount();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SharedAccount {
+        Object account;
+
+        @Setup
+        public void setUp() throws Throwable {
+            account = openAccount();
+        }
+    }
+
+    @Benchmark
+    public boolean deposit(PrivateAccount state) throws Throwable {
+        return (boolean) DEPOSIT.invoke(state.account, 12.34);
+    }
+
+    @Benchmark
+    public boolean withdraw(PrivateAccount state) throws Throwable {
+        return (boolean) WITHDRAW.invoke(state.account, 12.34);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean depositContended(SharedAccount state) throws Throwable {
+        return (boolean) DEPOSIT.invoke(state.account, 12.34);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean withdrawContended(SharedAccount state) throws Throwable {
+        return (boolean) WITHDRAW.invoke(state.account, 12.34);
+    }
+}
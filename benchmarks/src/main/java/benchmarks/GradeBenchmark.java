@@ -0,0 +1,51 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GradeBenchmark {
+    private static final MethodHandle AVERAGE = Programs.method("StudentGradeCalculator", "averagePercentage", int[].class);
+    private static final MethodHandle GRADE_FOR = Programs.method("StudentGradeCalculator", "gradeFor", double.class);
+
+    @Param({"5", "50"})
+    int subjects;
+
+    private int[][] students;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(11);
+        students = new int[1024][subjects];
+        for (int[] marks : students) {
+            for (int i = 0; i < marks.length; i++) {
+                marks[i] = random.nextInt(101);
+            }
+        }
+    }
+
+    @Benchmark
+    public Object gradeStudent() throws Throwable {
+        int[] marks = students[next++ & (students.length - 1)];
+        double average = (double) AVERAGE.invoke(marks);
+        return GRADE_FOR.invoke(average);
+    }
+}
@@ -0,0 +1,59 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NumberGameBenchmark {
+    private static final MethodHandle EVALUATE_GUESS = Programs.method("NumberGame", "evaluateGuess", int.class, int.class);
+
+    private int[] targets;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(9);
+        targets = new int[1024];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = 1 + random.nextInt(100);
+        }
+    }
+
+    // One full round of the guess loop with a bisecting player; returns attempts used.
+    @Benchmark
+    public int playRound() throws Throwable {
+        int target = targets[next++ & (targets.length - 1)];
+        int low = 1;
+        int high = 100;
+        int attempts = 0;
+        while (attempts < 10) {
+            int guess = (low + high) >>> 1;
+            attempts++;
+            int comparison = (int) EVALUATE_GUESS.invoke(guess, target);
+            if (comparison == 0) {
+                break;
+            } else if (comparison < 0) {
+                low = guess + 1;
+            } else {
+                high = guess - 1;
+            }
+        }
+        return attempts;
+    }
+}
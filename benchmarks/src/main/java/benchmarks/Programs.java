@@ -0,0 +1,42 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+// The programs live in the unnamed package, which no named package can import from (and JMH
+// requires benchmarks to have a package). Benchmarks bind to them once through static final
+// method handles, which the JIT treats as constants and inlines like direct calls.
+final class Programs {
+    private Programs() {
+    }
+
+    static Class<?> type(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Program class not on the classpath: " + className, e);
+        }
+    }
+
+    static MethodHandle method(String className, String name, Class<?>... parameterTypes) {
+        try {
+            Method method = type(className).getDeclaredMethod(name, parameterTypes);
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot bind " + className + "." + name, e);
+        }
+    }
+
+    static MethodHandle constructor(String className, Class<?>... parameterTypes) {
+        try {
+            Constructor<?> constructor = type(className).getDeclaredConstructor(parameterTypes);
+            constructor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(constructor);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot bind constructor of " + className, e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QuizBenchmark {
+    private static final MethodHandle NEW_QUESTION = Programs.constructor("Question", String.class, List.class, char.class);
+    private static final MethodHandle IS_CORRECT = Programs.method("Quiz", "isCorrect", Programs.type("Question"), String.class);
+
+    private Object[] questions;
+    private String[] rawAnswers;
+    private int next;
+
+    @Setup
+    public void setUp() throws Throwable {
+        SplittableRandom random = new SplittableRandom(5);
+        questions = new Object[1024];
+        rawAnswers = new String[questions.length];
+        for (int i = 0; i < questions.length; i++) {
+            char correct = (char) ('A' + random.nextInt(4));
+            questions[i] = NEW_QUESTION.invoke("Question " + i, Arrays.asList("w", "x", "y", "z"), correct);
+            char typed = (char) ('a' + random.nextInt(4));
+            rawAnswers[i] = random.nextBoolean() ? " " + typed + " " : String.valueOf(typed);
+        }
+    }
+
+    // Same steps as Quiz.start for one answer: normalise the typed line, then check it.
+    @Benchmark
+    public boolean checkAnswer() throws Throwable {
+        int i = next++ & (questions.length - 1);
+        String answer = rawAnswers[i].trim().toUpperCase();
+        return (boolean) IS_CORRECT.invoke(questions[i], answer);
+    }
+}
@@ -0,0 +1,96 @@
+package benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// RegistrationSystem methods print to System.out; output goes to a discarding stream so the
+// numbers measure the lookups, seat accounting and formatting rather than the terminal.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistrationBenchmark {
+    private static final String SYSTEM = "StudentCourseRegistrationSystem$RegistrationSystem";
+    private static final MethodHandle NEW_SYSTEM = Programs.constructor(SYSTEM);
+    private static final MethodHandle ADD_COURSE =
+            Programs.method(SYSTEM, "addCourse", String.class, String.class, String.class, int.class);
+    private static final MethodHandle CREATE_STUDENT = Programs.method(SYSTEM, "createStudent", String.class, String.class);
+    private static final MethodHandle REGISTER = Programs.method(SYSTEM, "registerStudent", String.class, String.class);
+    private static final MethodHandle DROP = Programs.method(SYSTEM, "dropCourse", String.class, String.class);
+    private static final MethodHandle DISPLAY_COURSES = Programs.method(SYSTEM, "displayCourses");
+    // More seats than any thread count, so @Threads(MAX) never fills it and sends students to the
+    // waitlist; the sample courses hold only 20 to 30.
+    private static final String COURSE = "BENCH100";
+    private static final int COURSE_CAPACITY = 1 << 20;
+
+    @State(Scope.Benchmark)
+    public static class SharedSystem {
+        Object system;
+        final AtomicInteger nextStudent = new AtomicInteger();
+        private PrintStream originalOut;
+
+        @Setup
+        public void setUp() throws Throwable {
+            originalOut = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            system = NEW_SYSTEM.invoke();
+            ADD_COURSE.invoke(system, COURSE, "Benchmark Course", "Registered and dropped by every thread.", COURSE_CAPACITY);
+        }
+
+        @TearDown
+        public void tearDown() {
+            System.setOut(originalOut);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadStudent {
+        String studentId;
+
+        @Setup
+        public void setUp(SharedSystem shared) throws Throwable {
+            studentId = "S" + shared.nextStudent.incrementAndGet();
+            CREATE_STUDENT.invoke(shared.system, studentId, "Benchmark Student");
+        }
+    }
+
+    // Paired so each thread holds at most one seat across iterations.
+    @Benchmark
+    public void registerStudentThenDropCourse(SharedSystem shared, ThreadStudent student) throws Throwable {
+        REGISTER.invoke(shared.system, student.studentId, COURSE);
+        DROP.invoke(shared.system, student.studentId, COURSE);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void registerStudentThenDropCourseContended(SharedSystem shared, ThreadStudent student) throws Throwable {
+        REGISTER.invoke(shared.system, student.studentId, COURSE);
+        DROP.invoke(shared.system, student.studentId, COURSE);
+    }
+
+    @Benchmark
+    public void registerStudentUnknownCourse(SharedSystem shared, ThreadStudent student) throws Throwable {
+        REGISTER.invoke(shared.system, student.studentId, "NOPE999");
+    }
+
+    @Benchmark
+    public void displayCourses(SharedSystem shared) throws Throwable {
+        DISPLAY_COURSES.invoke(shared.system);
+    }
+}
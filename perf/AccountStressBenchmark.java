@@ -0,0 +1,112 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AccountStressBenchmark {
+    private static final long INITIAL_CENTS = 1_000_000L;
+    private static final int OPS_PER_THREAD = 2_000_000;
+
+    // Races threads against one ConcurrentBankAccount: first withdrawing a cent at a time until it
+    // is empty, where exactly the opening balance may succeed, then a mixed deposit/withdraw load
+    // at doubling thread counts whose final balance must equal what every thread saw succeed.
+    // Prints ops/sec per thread count and exits non-zero on any lost update or overdraft.
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+        boolean ok = checkNoOverdraft(maxThreads);
+
+        System.out.printf("%-10s %-15s %-15s %-10s%n", "Threads", "Ops/sec", "Final balance", "Result");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ok &= runMixedLoad(threads);
+        }
+
+        if (!ok) {
+            System.out.println("Stress test FAILED.");
+            System.exit(1);
+        }
+        System.out.println("Stress test passed: no lost updates and no overdrafts.");
+    }
+
+    // Every thread races to withdraw one cent at a time; exactly the opening balance may succeed.
+    private static boolean checkNoOverdraft(int threads) throws InterruptedException {
+        ConcurrentBankAccount account = new ConcurrentBankAccount(100_000, "Overdraft Check");
+        AtomicLong successful = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                awaitQuietly(start);
+                long mine = 0;
+                while (account.withdraw(1)) {
+                    mine++;
+                }
+                successful.addAndGet(mine);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        boolean ok = successful.get() == 100_000 && account.balanceCents() == 0;
+        System.out.println("Overdraft check with " + threads + " threads: " + successful.get()
+                + " withdrawals, final balance " + account.balanceCents() + (ok ? " (OK)" : " (FAILED)"));
+        return ok;
+    }
+
+    private static boolean runMixedLoad(int threads) throws InterruptedException {
+        ConcurrentBankAccount account = new ConcurrentBankAccount(INITIAL_CENTS, "Stress Test");
+        AtomicLong deposited = new AtomicLong();
+        AtomicLong withdrawn = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long myDeposits = 0;
+                long myWithdrawals = 0;
+                awaitQuietly(start);
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    long cents = 1 + random.nextInt(500);
+                    if (random.nextBoolean()) {
+                        account.deposit(cents);
+                        myDeposits += cents;
+                    } else if (account.withdraw(cents)) {
+                        myWithdrawals += cents;
+                    }
+                }
+                deposited.addAndGet(myDeposits);
+                withdrawn.addAndGet(myWithdrawals);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        long expected = INITIAL_CENTS + deposited.get() - withdrawn.get();
+        boolean ok = account.balanceCents() == expected && account.balanceCents() >= 0;
+        double opsPerSec = (double) threads * OPS_PER_THREAD / (elapsedNanos / 1e9);
+        System.out.printf("%-10d %-15.0f %-15s %-10s%n", threads, opsPerSec,
+                Money.formatCents(account.balanceCents()), ok ? "OK" : "LOST UPDATE");
+        return ok;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class AnswerAnalyticsBenchmark {
+    private static final int OPTIONS = 4;
+    private static final int TRACED_QUESTIONS = 5;
+
+    // Writes a log of simulated attempts where every question has its own difficulty, skip and
+    // timeout rates and typical answer time, then analyzes it at each thread count. Counts and
+    // option distributions must match what was written exactly; the p50 answer time of a few
+    // questions is checked against an exact sort within the bucket precision. Run with a small
+    // heap (e.g. -Xmx64m) to see that memory does not depend on the number of attempts.
+    public static void main(String[] args) throws IOException {
+        int attempts = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        int questions = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        String[] threadCounts = (args.length > 2 ? args[2] : "1,2,4").split(",");
+
+        double[] difficulty = new double[questions];
+        double[] skipRate = new double[questions];
+        double[] timeoutRate = new double[questions];
+        int[] typicalMillis = new int[questions];
+        SplittableRandom random = new SplittableRandom(17);
+        for (int q = 0; q < questions; q++) {
+            difficulty[q] = 0.2 + 0.75 * random.nextDouble();
+            skipRate[q] = 0.05 * random.nextDouble();
+            timeoutRate[q] = 0.1 * random.nextDouble();
+            typicalMillis[q] = 2_000 + random.nextInt(10_000);
+        }
+        int[][] expected = new int[questions][4 + OPTIONS];
+        List<List<Integer>> traced = new ArrayList<>();
+        for (int q = 0; q < TRACED_QUESTIONS; q++) {
+            traced.add(new ArrayList<>());
+        }
+
+        Path file = Files.createTempFile("answers", ".log");
+        Files.delete(file);
+        try {
+            long start = System.nanoTime();
+            try (AnswerLog log = new AnswerLog(file)) {
+                for (int i = 0; i < attempts; i++) {
+                    int q = random.nextInt(questions);
+                    double roll = random.nextDouble();
+                    int choice;
+                    int millis = (int) (typicalMillis[q] * (0.5 + random.nextDouble()));
+                    if (roll < timeoutRate[q]) {
+                        choice = AnswerLog.TIMED_OUT;
+                        millis = 15_000;
+                        expected[q][2]++;
+                    } else if (roll < timeoutRate[q] + skipRate[q]) {
+                        choice = AnswerLog.SKIPPED;
+                        expected[q][1]++;
+                    } else {
+                        choice = random.nextDouble() < difficulty[q] ? 0 : 1 + random.nextInt(OPTIONS - 1);
+                        expected[q][4 + choice]++;
+                    }
+                    boolean correct = choice == 0;
+                    expected[q][0]++;
+                    expected[q][3] += correct ? 1 : 0;
+                    if (q < TRACED_QUESTIONS) {
+                        traced.get(q).add(millis);
+                    }
+                    log.append(q, choice, correct, millis);
+                }
+            }
+            double writeSeconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d attempts over %d questions: %.1f MB written at %.0f answers/sec%n", attempts, questions,
+                    Files.size(file) / 1e6, attempts / writeSeconds);
+
+            boolean ok = true;
+            for (String count : threadCounts) {
+                int threads = Integer.parseInt(count.trim());
+                AnswerAnalytics.analyze(file, threads, AnswerAnalytics.DEFAULT_CHUNK_RECORDS);
+                AnswerAnalytics.Report report = AnswerAnalytics.analyze(file, threads, AnswerAnalytics.DEFAULT_CHUNK_RECORDS);
+                System.out.printf("%2d threads: %.0f answers/sec%n", threads, report.recordsPerSecond());
+                ok &= matches(report, expected, traced);
+            }
+            System.out.println(ok ? "Analytics match the written answers (consistent)" : "Analytics differ (INCONSISTENT)");
+            if (!ok) {
+                System.exit(1);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static boolean matches(AnswerAnalytics.Report report, int[][] expected, List<List<Integer>> traced) {
+        boolean ok = report.getQuestions().size() == expected.length;
+        for (AnswerAnalytics.QuestionStats stats : report.getQuestions()) {
+            int[] counts = expected[stats.getQuestionId()];
+            ok &= stats.getAttempts() == counts[0] && stats.getSkipped() == counts[1] && stats.getTimedOut() == counts[2]
+                    && stats.getCorrect() == counts[3];
+            for (int option = 0; option < OPTIONS; option++) {
+                ok &= stats.getOptionCount(option) == counts[4 + option];
+            }
+        }
+        for (int q = 0; q < traced.size(); q++) {
+            List<Integer> times = new ArrayList<>(traced.get(q));
+            Collections.sort(times);
+            long exact = times.get((int) Math.ceil(0.5 * times.size()) - 1);
+            long estimate = report.getQuestions().get(q).percentileMillis(50);
+            ok &= Math.abs(estimate - exact) <= exact * 0.04;
+        }
+        return ok;
+    }
+}
@@ -0,0 +1,133 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AtmLoadGenerator {
+    private static final String[] OPERATIONS = {"Deposit", "Withdraw", "Balance"};
+
+    public static void main(String[] args) throws InterruptedException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : AtmServer.DEFAULT_PORT;
+        String[] sessionCounts = (args.length > 2 ? args[2] : "1000,10000").split(",");
+        int opsPerSession = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        int accounts = args.length > 4 ? Integer.parseInt(args[4]) : AtmServer.DEFAULT_ACCOUNTS;
+
+        for (String count : sessionCounts) {
+            run(host, port, Integer.parseInt(count.trim()), opsPerSession, accounts);
+        }
+    }
+
+    private static void run(String host, int port, int sessions, int opsPerSession, int accounts) throws InterruptedException {
+        long[][][] latencies = new long[sessions][OPERATIONS.length][];
+        int[][] counts = new int[sessions][OPERATIONS.length];
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(sessions);
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("atm-client");
+
+        long start = System.nanoTime();
+        for (int s = 0; s < sessions; s++) {
+            int session = s;
+            executor.execute(() -> {
+                try {
+                    for (int op = 0; op < OPERATIONS.length; op++) {
+                        latencies[session][op] = new long[opsPerSession];
+                    }
+                    runSession(host, port, new SplittableRandom(session), opsPerSession, accounts,
+                            latencies[session], counts[session]);
+                } catch (IOException e) {
+                    failures.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsedNanos = System.nanoTime() - start;
+        executor.shutdown();
+
+        long totalOps = 0;
+        System.out.println("\n" + sessions + " concurrent sessions, " + opsPerSession + " operations each"
+                + (failures.get() > 0 ? " (" + failures.get() + " sessions failed)" : ""));
+        System.out.printf("%-10s %-10s %-12s %-12s %-12s%n", "Operation", "Count", "p50 (us)", "p99 (us)", "max (us)");
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            int total = 0;
+            for (int s = 0; s < sessions; s++) {
+                total += counts[s][op];
+            }
+            long[] merged = new long[total];
+            int offset = 0;
+            for (int s = 0; s < sessions; s++) {
+                System.arraycopy(latencies[s][op], 0, merged, offset, counts[s][op]);
+                offset += counts[s][op];
+            }
+            Arrays.sort(merged);
+            totalOps += total;
+            System.out.printf("%-10s %-10d %-12d %-12d %-12d%n", OPERATIONS[op], total,
+                    percentile(merged, 0.50) / 1000, percentile(merged, 0.99) / 1000,
+                    total == 0 ? 0 : merged[total - 1] / 1000);
+        }
+        System.out.printf("Throughput: %.0f operations/sec%n", totalOps / (elapsedNanos / 1e9));
+    }
+
+    private static void runSession(String host, int port, SplittableRandom random, int ops, int accounts,
+                                   long[][] latencies, int[] counts) throws IOException {
+        try (Socket socket = new Socket(host, port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            readResponse(in);
+            exchange(in, out, String.valueOf(random.nextInt(accounts)));
+            exchange(in, out, String.valueOf(AtmSession.TESTING_PIN));
+
+            for (int i = 0; i < ops; i++) {
+                int op = random.nextInt(OPERATIONS.length);
+                long start;
+                if (op == 2) {
+                    start = System.nanoTime();
+                    exchange(in, out, "3");
+                } else {
+                    exchange(in, out, op == 0 ? "1" : "2");
+                    String amount = (1 + random.nextInt(50)) + ".00";
+                    start = System.nanoTime();
+                    exchange(in, out, amount);
+                }
+                latencies[op][counts[op]++] = System.nanoTime() - start;
+                exchange(in, out, "yes");
+            }
+            exchange(in, out, "5");
+        }
+    }
+
+    private static void exchange(BufferedReader in, BufferedWriter out, String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+        out.flush();
+        readResponse(in);
+    }
+
+    private static void readResponse(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.equals(AtmServer.END_OF_RESPONSE)) {
+                return;
+            }
+        }
+        throw new IOException("Server closed the session.");
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,114 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+public class BatchGradeBenchmark {
+    private static final String[] SUBJECTS = {
+            "Mathematics", "Physics", "Chemistry", "Biology", "English", "History",
+            "Geography", "\"Art, Design\"", "Music", "Computer Science", "Economics", "French"
+    };
+    private static final int MALFORMED_EVERY = 10_000;
+    private static final int SMALL_SEGMENT_BYTES = 64 * 1024 + 7;
+
+    // Generates a marks file with a sprinkling of bad rows and grades it at each thread count,
+    // plus once with small odd-sized segments so many rows straddle a segment boundary. Every run
+    // must reproduce each student's subject count and total exactly, the grade in the result file
+    // must be the one the full comparison chain gives for that student's average, and every
+    // accepted mark must be counted once in the statistics of its subject.
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int students = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+        String threadCounts = args.length > 2 ? args[2] : "1,2,4";
+
+        Path directory = Files.createTempDirectory("batch-grade");
+        Path marks = directory.resolve("marks.csv");
+        Path results = directory.resolve("results.csv");
+        try {
+            int[] subjects = new int[students];
+            long[] totals = new long[students];
+            long malformed = generate(marks, rows, subjects, totals);
+            System.out.printf("%d rows (%.0f MB) for %d students%n", rows, Files.size(marks) / 1e6, students);
+
+            boolean ok = true;
+            for (String count : threadCounts.split(",")) {
+                int threads = Integer.parseInt(count.trim());
+                BatchGrader.Summary summary = new BatchGrader(threads, BatchGrader.DEFAULT_SEGMENT_BYTES).grade(marks, results);
+                System.out.printf("%2d threads: %s%n", threads, summary);
+                ok &= accounted(summary, rows, malformed) && verify(results, subjects, totals);
+            }
+            BatchGrader.Summary summary = new BatchGrader(1, SMALL_SEGMENT_BYTES).grade(marks, results);
+            System.out.printf("%d-byte segments: %s%n", SMALL_SEGMENT_BYTES, summary);
+            ok &= accounted(summary, rows, malformed) && verify(results, subjects, totals);
+
+            System.out.println(ok ? "Every student's totals and grade match (consistent)" : "Results differ (INCONSISTENT)");
+            if (!ok) {
+                System.exit(1);
+            }
+        } finally {
+            Files.deleteIfExists(marks);
+            Files.deleteIfExists(results);
+            Files.delete(directory);
+        }
+    }
+
+    // Returns the number of rows written malformed on purpose.
+    private static long generate(Path marks, int rows, int[] subjects, long[] totals) throws IOException {
+        SplittableRandom random = new SplittableRandom(5);
+        long malformed = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(marks, StandardCharsets.UTF_8)) {
+            writer.write("student,subject,mark\n");
+            for (int i = 0; i < rows; i++) {
+                int student = random.nextInt(subjects.length);
+                String subject = SUBJECTS[random.nextInt(SUBJECTS.length)];
+                if (i % MALFORMED_EVERY == MALFORMED_EVERY - 1) {
+                    writer.write(i % 2 == 0 ? "S" + student + "," + subject + ",101\n" : "S" + student + ",80\n");
+                    malformed++;
+                    continue;
+                }
+                int mark = Math.min(100, Math.max(0, (int) (65 + 15 * random.nextGaussian())));
+                writer.write("S" + student + "," + subject + "," + mark + (i % 7 == 0 ? "\r\n" : "\n"));
+                subjects[student]++;
+                totals[student] += mark;
+            }
+        }
+        return malformed;
+    }
+
+    // Every row is either rejected or counted once in its subject's marks.
+    private static boolean accounted(BatchGrader.Summary summary, int rows, long malformed) {
+        CohortStatistics statistics = summary.getStatistics();
+        return summary.getRows() == rows && summary.getRejected() == malformed
+                && statistics.getOverall().getCount() == rows - malformed
+                && statistics.getSubjects().keySet().equals(
+                        Arrays.stream(SUBJECTS).map(subject -> subject.replace("\"", "")).collect(Collectors.toSet()));
+    }
+
+    private static boolean verify(Path results, int[] subjects, long[] totals) throws IOException {
+        int seen = 0;
+        int expectedStudents = 0;
+        for (int count : subjects) {
+            expectedStudents += count > 0 ? 1 : 0;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(results, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                int student = Integer.parseInt(fields[0].substring(1));
+                int count = Integer.parseInt(fields[1]);
+                long total = Long.parseLong(fields[2]);
+                if (count != subjects[student] || total != totals[student]
+                        || !fields[4].equals(StudentGradeCalculator.gradeFor((double) total / count))) {
+                    return false;
+                }
+                seen++;
+            }
+        }
+        return seen == expectedStudents;
+    }
+}
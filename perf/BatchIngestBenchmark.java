@@ -0,0 +1,60 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+public class BatchIngestBenchmark {
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int accounts = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        Path directory = Files.createTempDirectory("batch-ingest");
+        Path input = directory.resolve("instructions.csv");
+        Path results = directory.resolve("results.csv");
+
+        generate(input, rows, accounts);
+        System.out.println("Generated " + rows + " instructions over " + accounts + " accounts (" + Files.size(input) / (1 << 20) + " MB)");
+
+        try (TransactionJournal journal = new TransactionJournal(directory.resolve("journal"))) {
+            Ledger ledger = new Ledger(accounts, journal);
+            for (int i = 0; i < accounts; i++) {
+                ledger.openAccount(50_000);
+            }
+            journal.sync();
+
+            for (int batchSize : new int[] {1_000, 10_000, 100_000}) {
+                BatchIngestor.Summary summary = new BatchIngestor(ledger, batchSize).ingest(input, results);
+                System.out.println("Batch size " + batchSize + ": " + summary);
+            }
+        }
+
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    // Roughly 1% of rows are deliberately invalid so the rejection path is exercised too.
+    private static void generate(Path input, int rows, int accounts) throws IOException {
+        SplittableRandom random = new SplittableRandom(7);
+        try (BufferedWriter writer = Files.newBufferedWriter(input, StandardCharsets.US_ASCII)) {
+            writer.write("op,account,amount,toAccount\n");
+            for (int i = 0; i < rows; i++) {
+                int kind = random.nextInt(100);
+                int account = random.nextInt(accounts);
+                String amount = random.nextInt(500) + "." + (10 + random.nextInt(90));
+                if (kind == 0) {
+                    writer.write("withdraw," + account + ",-" + amount + "\n");
+                } else if (kind < 40) {
+                    writer.write("deposit," + account + "," + amount + "\n");
+                } else if (kind < 70) {
+                    writer.write("withdraw," + account + "," + amount + "\n");
+                } else {
+                    writer.write("transfer," + account + "," + amount + "," + random.nextInt(accounts) + "\n");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+public class ColdStartBenchmark {
+    private static final int TAIL_RECORDS = 100_000;
+
+    public static void main(String[] args) throws IOException {
+        int[] accountCounts = {100_000, 1_000_000};
+        int[] historyLengths = {1_000_000, 4_000_000};
+        if (args.length >= 2) {
+            accountCounts = new int[] {Integer.parseInt(args[0])};
+            historyLengths = new int[] {Integer.parseInt(args[1])};
+        }
+
+        System.out.printf("%-10s %-10s %-20s %-20s%n", "Accounts", "Transfers", "Snapshot+tail (ms)", "Full replay (ms)");
+        for (int accounts : accountCounts) {
+            for (int history : historyLengths) {
+                run(accounts, history);
+            }
+        }
+    }
+
+    // Opens the accounts, journals `history` random transfers with a snapshot taken TAIL_RECORDS before the end,
+    // then times recovery with and without that snapshot.
+    private static void run(int accounts, int history) throws IOException {
+        Path directory = Files.createTempDirectory("ledger-cold-start");
+        Path journalDirectory = directory.resolve("journal");
+        Path snapshotDirectory = directory.resolve("snapshots");
+        long expectedTotal;
+
+        try (TransactionJournal journal = new TransactionJournal(journalDirectory)) {
+            Ledger ledger = new Ledger(accounts, journal);
+            for (int i = 0; i < accounts; i++) {
+                ledger.openAccount(10_000);
+            }
+            SplittableRandom random = new SplittableRandom(42);
+            int transfers = Math.max(history, TAIL_RECORDS);
+            for (int i = 0; i < transfers; i++) {
+                if (i == transfers - TAIL_RECORDS) {
+                    ledger.snapshot().writeTo(snapshotDirectory);
+                }
+                ledger.transfer(random.nextInt(accounts), random.nextInt(accounts), 1 + random.nextInt(1_000));
+            }
+            expectedTotal = ledger.totalBalance();
+            journal.sync();
+        }
+
+        long withSnapshot = timeRecovery(journalDirectory, snapshotDirectory, accounts, expectedTotal);
+        long fullReplay = timeRecovery(journalDirectory, directory.resolve("no-snapshots"), accounts, expectedTotal);
+        System.out.printf("%-10d %-10d %-20d %-20d%n", accounts, history, withSnapshot, fullReplay);
+
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static long timeRecovery(Path journalDirectory, Path snapshotDirectory, int accounts, long expectedTotal)
+            throws IOException {
+        long start = System.nanoTime();
+        try (TransactionJournal journal = new TransactionJournal(journalDirectory)) {
+            Ledger ledger = LedgerSnapshot.recover(snapshotDirectory, journal, accounts);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            if (ledger.totalBalance() != expectedTotal) {
+                throw new IllegalStateException("Recovered ledger total does not match.");
+            }
+            return elapsedMillis;
+        }
+    }
+}
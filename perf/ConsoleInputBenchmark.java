@@ -0,0 +1,114 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class ConsoleInputBenchmark {
+    private static final int ROUNDS = 3;
+    private static final int TIMEOUTS = 200;
+
+    // Feeds the same script of whole numbers, decimals and free text through a Scanner, the way
+    // the programs read it before, and through ConsoleInput, and checks that both read the same
+    // values. Then times out a series of short deadline reads on a silent pipe and checks that a
+    // line written afterwards goes to the next read, with no extra threads left behind.
+    public static void main(String[] args) throws Exception {
+        int prompts = args.length > 0 ? Integer.parseInt(args[0]) : 300_000;
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < prompts; i++) {
+            script.append(i % 101).append('\n')
+                    .append(i % 1000).append('.').append(i % 100).append('\n')
+                    .append("Subject ").append(i).append('\n');
+        }
+        byte[] bytes = script.toString().getBytes(StandardCharsets.UTF_8);
+        System.out.printf("%d prompts (%d lines, %.1f MB of scripted input)%n", prompts, 3 * prompts, bytes.length / 1e6);
+
+        PrintStream silent = new PrintStream(OutputStream.nullOutputStream());
+        double bestScanner = 0;
+        double bestConsole = 0;
+        boolean ok = true;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            double scannerSum = readWithScanner(bytes, prompts);
+            bestScanner = Math.max(bestScanner, 3 * prompts / ((System.nanoTime() - start) / 1e9));
+
+            start = System.nanoTime();
+            double consoleSum = readWithConsoleInput(bytes, prompts, silent);
+            bestConsole = Math.max(bestConsole, 3 * prompts / ((System.nanoTime() - start) / 1e9));
+            ok &= scannerSum == consoleSum;
+        }
+        System.out.printf("Scanner:      %.0f lines/sec%n", bestScanner);
+        System.out.printf("ConsoleInput: %.0f lines/sec%n", bestConsole);
+
+        ok &= checkDeadlines();
+        System.out.println(ok ? "Both readers agree and timed-out reads leave nothing behind (consistent)"
+                : "Readers disagree or a timed-out read lost a line (INCONSISTENT)");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static double readWithScanner(byte[] bytes, int prompts) {
+        Scanner scanner = new Scanner(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8);
+        scanner.useLocale(Locale.ROOT);
+        double sum = 0;
+        for (int i = 0; i < prompts; i++) {
+            sum += scanner.nextInt();
+            scanner.nextLine();
+            sum += scanner.nextDouble();
+            scanner.nextLine();
+            sum += scanner.nextLine().length();
+        }
+        return sum;
+    }
+
+    private static double readWithConsoleInput(byte[] bytes, int prompts, PrintStream out) {
+        ConsoleInput input = new ConsoleInput(new ByteArrayInputStream(bytes), out, "benchmark-input");
+        double sum = 0;
+        for (int i = 0; i < prompts; i++) {
+            sum += input.readInt("", "", 0, 100);
+            sum += input.readDouble("", "", 0, 1000);
+            sum += input.nextLine().length();
+        }
+        return sum;
+    }
+
+    private static boolean checkDeadlines() throws IOException, InterruptedException {
+        PipedOutputStream writer = new PipedOutputStream();
+        ConsoleInput input = new ConsoleInput(new PipedInputStream(writer), System.out, "deadline-input");
+        int threadsBefore = Thread.activeCount();
+        long[] lateness = new long[TIMEOUTS];
+        int timeouts = 0;
+        for (int i = 0; i < TIMEOUTS; i++) {
+            long start = System.nanoTime();
+            try {
+                input.nextLine(5, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                lateness[timeouts++] = System.nanoTime() - start - TimeUnit.MILLISECONDS.toNanos(5);
+            }
+        }
+        int threadsAfter = Thread.activeCount();
+        writer.write("late answer\n".getBytes(StandardCharsets.UTF_8));
+        writer.flush();
+        String line;
+        try {
+            line = input.nextLine(1, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            line = null;
+        }
+        writer.close();
+
+        Arrays.sort(lateness);
+        System.out.printf("%d reads with a 5 ms deadline: %d timed out, late by p50 %.2f ms, p99 %.2f ms; threads %d before, %d after%n",
+                TIMEOUTS, timeouts, lateness[TIMEOUTS / 2] / 1e6, lateness[(int) (TIMEOUTS * 0.99)] / 1e6,
+                threadsBefore, threadsAfter);
+        return timeouts == TIMEOUTS && threadsAfter == threadsBefore && "late answer".equals(line);
+    }
+}
@@ -0,0 +1,153 @@
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+public class CourseListingBenchmark {
+    private static final int PAGE_SIZE = 50;
+
+    // Lists a large catalog the old way (String.format and println per row on an autoflushing
+    // stream) and the paged way (cached rows rendered into one buffer, one write per page), then
+    // again after a round of enrollment changes so the cached rows have to be refreshed. Output
+    // goes to /dev/null so only formatting and write calls are timed. Every order is also paged
+    // through in full and compared with a sort of the catalog.
+    public static void main(String[] args) throws IOException {
+        int courseCount = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        SplittableRandom random = new SplittableRandom(5);
+
+        StudentCourseRegistrationSystem.RegistrationSystem system = new StudentCourseRegistrationSystem.RegistrationSystem();
+        for (int i = 0; i < courseCount; i++) {
+            system.addCourse(String.format("C%06d", random.nextInt(courseCount * 10)) + i,
+                    "Course title " + Integer.toString(random.nextInt(1 << 20), 36),
+                    "Listing benchmark course number " + i + ".", 10 + random.nextInt(40));
+        }
+        for (int i = 0; i < 2_000; i++) {
+            system.createStudent("S" + i, "Student " + i);
+        }
+        List<StudentCourseRegistrationSystem.Course> catalog = new ArrayList<>(system.getCourses());
+        enrollSome(system, catalog, random, courseCount);
+
+        boolean ok = true;
+        try (PrintStream sink = new PrintStream(new FileOutputStream("/dev/null"), true, StandardCharsets.UTF_8)) {
+            for (int round = 0; round < rounds; round++) {
+                boolean report = round == rounds - 1;
+                if (round > 0) {
+                    enrollSome(system, catalog, random, courseCount / 10);
+                }
+
+                long start = System.nanoTime();
+                sink.printf("%-10s %-30s %-40s %5s %10s  %s\n", "Code", "Title", "Description", "Capacity", "Enrolled", "Schedule");
+                for (StudentCourseRegistrationSystem.Course course : system.getCourses()) {
+                    sink.println(String.format("%-10s %-30s %-40s %5d %10d  %s", course.getCode(), course.getTitle(),
+                            course.getDescription(), course.getCapacity(), course.getEnrolled(), course.getSchedule()));
+                }
+                long perRowNanos = System.nanoTime() - start;
+
+                StringBuilder buffer = new StringBuilder(1 << 16);
+                long[] pageNanos = new long[CourseListing.Order.values().length];
+                int[] pages = new int[pageNanos.length];
+                for (CourseListing.Order order : CourseListing.Order.values()) {
+                    start = System.nanoTime();
+                    String cursor = null;
+                    do {
+                        CourseListing.Page page = system.listCourses(order, cursor, PAGE_SIZE);
+                        buffer.setLength(0);
+                        if (cursor == null) {
+                            buffer.append(CourseListing.HEADER);
+                        }
+                        CourseListing.render(page, buffer);
+                        write(sink, buffer);
+                        cursor = page.getNextCursor();
+                        pages[order.ordinal()]++;
+                    } while (cursor != null);
+                    pageNanos[order.ordinal()] = System.nanoTime() - start;
+                }
+
+                start = System.nanoTime();
+                buffer.setLength(0);
+                buffer.append(CourseListing.HEADER);
+                CourseListing.render(system.listCourses(CourseListing.Order.CODE, null, PAGE_SIZE), buffer);
+                write(sink, buffer);
+                long firstPageNanos = System.nanoTime() - start;
+
+                if (report) {
+                    System.out.printf("per-row format + println, all %d rows: %8.1f ms%n", courseCount, perRowNanos / 1e6);
+                    for (CourseListing.Order order : CourseListing.Order.values()) {
+                        System.out.printf("paged by %-10s %5d pages of %d:  %8.1f ms%n", order.name().toLowerCase(Locale.ROOT),
+                                pages[order.ordinal()], PAGE_SIZE, pageNanos[order.ordinal()] / 1e6);
+                    }
+                    System.out.printf("first page by code:                    %8.3f ms%n", firstPageNanos / 1e6);
+                }
+            }
+        }
+
+        for (CourseListing.Order order : CourseListing.Order.values()) {
+            ok &= pagesMatchSort(system, catalog, order);
+        }
+        for (StudentCourseRegistrationSystem.Course course : catalog) {
+            ok &= course.formatRow().equals(String.format("%-10s %-30s %-40s %5d %10d  %s", course.getCode(), course.getTitle(),
+                    course.getDescription(), course.getCapacity(), course.getEnrolled(), course.getSchedule()));
+        }
+        System.out.println(ok ? "Pages cover the catalog in order with current counts (consistent)"
+                : "Pages differ from the catalog (INCONSISTENT)");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    // Registers and drops random students so enrollment counts move and cached rows go stale.
+    private static void enrollSome(StudentCourseRegistrationSystem.RegistrationSystem system,
+                                   List<StudentCourseRegistrationSystem.Course> catalog, SplittableRandom random, int changes) {
+        for (int i = 0; i < changes; i++) {
+            String studentId = "S" + random.nextInt(2_000);
+            String code = catalog.get(random.nextInt(catalog.size())).getCode();
+            if (system.getStudent(studentId).isRegisteredFor(code)) {
+                system.tryDrop(studentId, code);
+            } else {
+                system.tryRegister(studentId, code);
+            }
+        }
+    }
+
+    private static boolean pagesMatchSort(StudentCourseRegistrationSystem.RegistrationSystem system,
+                                          List<StudentCourseRegistrationSystem.Course> catalog, CourseListing.Order order) {
+        Comparator<StudentCourseRegistrationSystem.Course> comparator;
+        switch (order) {
+            case TITLE:
+                comparator = Comparator.comparing((StudentCourseRegistrationSystem.Course course) -> course.getTitle().toLowerCase(Locale.ROOT))
+                        .thenComparing(StudentCourseRegistrationSystem.Course::getCode);
+                break;
+            case FREE_SEATS:
+                comparator = Comparator.comparingInt((StudentCourseRegistrationSystem.Course course) -> course.getCapacity() - course.getEnrolled())
+                        .reversed().thenComparing(StudentCourseRegistrationSystem.Course::getCode);
+                break;
+            default:
+                comparator = Comparator.comparing(StudentCourseRegistrationSystem.Course::getCode);
+                break;
+        }
+        List<StudentCourseRegistrationSystem.Course> expected = new ArrayList<>(catalog);
+        expected.sort(comparator);
+        List<StudentCourseRegistrationSystem.Course> paged = new ArrayList<>(expected.size());
+        String cursor = null;
+        do {
+            CourseListing.Page page = system.listCourses(order, cursor, PAGE_SIZE);
+            if (page.getRows().size() > PAGE_SIZE) {
+                return false;
+            }
+            paged.addAll(page.getRows());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return paged.equals(expected);
+    }
+
+    private static void write(PrintStream sink, StringBuilder buffer) {
+        sink.print(buffer);
+        sink.flush();
+    }
+}
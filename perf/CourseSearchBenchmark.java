@@ -0,0 +1,132 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+public class CourseSearchBenchmark {
+    private static final String[] DEPARTMENTS = {
+            "CS", "MATH", "BIO", "CHEM", "PHYS", "ECON", "HIST", "PHIL", "ENG", "ART",
+            "MUS", "PSY", "SOC", "LAW", "MED", "EE", "ME", "CE", "STAT", "LING"
+    };
+
+    // Builds a catalog with a skewed vocabulary, fills half of the courses, checks a sample of
+    // queries against a brute-force scan and then times prefix and keyword queries with and
+    // without the free-seats filter. Enrollment changes made between queries must show up
+    // without any re-indexing.
+    public static void main(String[] args) {
+        int courseCount = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int vocabularySize = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        int queries = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+        SplittableRandom random = new SplittableRandom(3);
+
+        String[] vocabulary = new String[vocabularySize];
+        for (int i = 0; i < vocabularySize; i++) {
+            vocabulary[i] = "w" + Integer.toString(i, 36) + (char) ('a' + i % 26);
+        }
+        StudentCourseRegistrationSystem.RegistrationSystem system = new StudentCourseRegistrationSystem.RegistrationSystem();
+        system.createStudent("FILLER", "Seat Filler");
+        long buildStart = System.nanoTime();
+        for (int i = 0; i < courseCount; i++) {
+            String code = DEPARTMENTS[i % DEPARTMENTS.length] + (1000 + i / DEPARTMENTS.length);
+            system.addCourse(code, words(random, vocabulary, 3), words(random, vocabulary, 10), 1);
+            if (random.nextBoolean()) {
+                system.tryRegister("FILLER", code);
+            }
+        }
+        long buildNanos = System.nanoTime() - buildStart;
+
+        boolean ok = true;
+        for (int i = 0; i < 200; i++) {
+            String query = query(random, vocabulary);
+            boolean onlyFree = random.nextBoolean();
+            Set<String> expected = bruteForce(system, query, onlyFree);
+            Set<String> actual = new HashSet<>();
+            for (CourseSearchIndex.Hit hit : system.getSearchIndex().search(query, onlyFree, Integer.MAX_VALUE - 1)) {
+                actual.add(hit.getCourse().getCode());
+            }
+            ok &= expected.equals(actual);
+        }
+        // Freeing a seat must make the course visible to the free-seats filter straight away.
+        String freed = system.getStudent("FILLER").getRegisteredCourses().iterator().next();
+        system.tryDrop("FILLER", freed);
+        ok &= system.getSearchIndex().findByCodePrefix(freed, true, 1).size() == 1;
+
+        String[] prefixes = new String[queries];
+        String[] keywordQueries = new String[queries];
+        for (int i = 0; i < queries; i++) {
+            prefixes[i] = DEPARTMENTS[random.nextInt(DEPARTMENTS.length)] + (1 + random.nextInt(3));
+            keywordQueries[i] = query(random, vocabulary);
+        }
+        long checksum = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            boolean report = pass == 1;
+            for (boolean onlyFree : new boolean[] {false, true}) {
+                long[] prefixNanos = new long[queries];
+                long[] keywordNanos = new long[queries];
+                for (int i = 0; i < queries; i++) {
+                    long start = System.nanoTime();
+                    checksum += system.getSearchIndex().findByCodePrefix(prefixes[i], onlyFree, 20).size();
+                    prefixNanos[i] = System.nanoTime() - start;
+                    start = System.nanoTime();
+                    checksum += system.getSearchIndex().search(keywordQueries[i], onlyFree, 20).size();
+                    keywordNanos[i] = System.nanoTime() - start;
+                }
+                if (report) {
+                    print("prefix", onlyFree, prefixNanos);
+                    print("keywords", onlyFree, keywordNanos);
+                }
+            }
+        }
+
+        System.out.printf("%d courses indexed in %.2f s (checksum %d)%n", courseCount, buildNanos / 1e9, checksum);
+        System.out.println(ok ? "Results match a full scan (consistent)" : "Results differ from a full scan (INCONSISTENT)");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static void print(String kind, boolean onlyFree, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-8s %-10s p50 %6.1f us, p99 %7.1f us, max %8.1f us%n", kind, onlyFree ? "free only" : "all",
+                sorted[sorted.length / 2] / 1e3, sorted[(int) (sorted.length * 0.99)] / 1e3, sorted[sorted.length - 1] / 1e3);
+    }
+
+    // One or two words, drawn with a skew towards common ones.
+    private static String query(SplittableRandom random, String[] vocabulary) {
+        String query = word(random, vocabulary);
+        return random.nextInt(3) == 0 ? query : query + " " + word(random, vocabulary);
+    }
+
+    private static String words(SplittableRandom random, String[] vocabulary, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(word(random, vocabulary));
+        }
+        return text.toString();
+    }
+
+    private static String word(SplittableRandom random, String[] vocabulary) {
+        double skew = random.nextDouble();
+        return vocabulary[(int) (skew * skew * skew * vocabulary.length)];
+    }
+
+    private static Set<String> bruteForce(StudentCourseRegistrationSystem.RegistrationSystem system, String query, boolean onlyFree) {
+        List<String> tokens = CourseSearchIndex.tokenize(query);
+        Set<String> matches = new HashSet<>();
+        for (StudentCourseRegistrationSystem.Course course : system.getCourses()) {
+            List<String> courseTokens = new ArrayList<>(CourseSearchIndex.tokenize(course.getCode()));
+            courseTokens.addAll(CourseSearchIndex.tokenize(course.getTitle()));
+            courseTokens.addAll(CourseSearchIndex.tokenize(course.getDescription()));
+            if (courseTokens.containsAll(tokens) && (!onlyFree || course.isAvailable())) {
+                matches.add(course.getCode());
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,61 @@
+import java.util.SplittableRandom;
+
+public class EnrollmentFootprintBenchmark {
+    // Builds the same student body twice, once with string-set enrollments and once with the
+    // compact int-id representation, and reports the retained heap of each. Both runs use the
+    // same random sequence, so their enrollment totals must match.
+    public static void main(String[] args) {
+        int studentCount = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int courseCount = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        int coursesPerStudent = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        System.out.println(studentCount + " students x " + courseCount + " courses, "
+                + coursesPerStudent + " registrations each");
+        long standard = measure(false, studentCount, courseCount, coursesPerStudent);
+        long compact = measure(true, studentCount, courseCount, coursesPerStudent);
+        if (standard != compact) {
+            System.out.println("Enrollment totals differ: " + standard + " vs " + compact + " (INCONSISTENT)");
+            System.exit(1);
+        }
+    }
+
+    private static long measure(boolean compactEnrollments, int studentCount, int courseCount, int coursesPerStudent) {
+        StudentCourseRegistrationSystem.RegistrationSystem system =
+                new StudentCourseRegistrationSystem.RegistrationSystem(compactEnrollments);
+        for (int i = 0; i < courseCount; i++) {
+            system.addCourse("C" + i, "Course " + i, "Generated course.", studentCount);
+        }
+        long afterCourses = usedHeap();
+
+        SplittableRandom random = new SplittableRandom(7);
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < studentCount; i++) {
+            String id = "S" + i;
+            system.createStudent(id, "Student " + i);
+            for (int c = 0; c < coursesPerStudent; c++) {
+                system.tryRegister(id, "C" + random.nextInt(courseCount));
+            }
+        }
+        long buildNanos = System.nanoTime() - startNanos;
+        long afterStudents = usedHeap();
+
+        long enrollments = 0;
+        for (int i = 0; i < studentCount; i++) {
+            enrollments += system.getStudent("S" + i).getRegisteredCourses().size();
+        }
+        long studentBytes = afterStudents - afterCourses;
+        // Includes student ids, names and the course rosters, which are the same in both modes.
+        System.out.printf("%-8s %,d MB retained by students (%.0f bytes/student), %d enrollments built in %.2f s%n",
+                compactEnrollments ? "compact" : "standard", studentBytes >> 20,
+                (double) studentBytes / studentCount, enrollments, buildNanos / 1e9);
+        return enrollments;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
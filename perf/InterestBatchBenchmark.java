@@ -0,0 +1,38 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+public class InterestBatchBenchmark {
+    public static void main(String[] args) throws IOException {
+        int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Path directory = Files.createTempDirectory("interest-batch");
+        InterestBatch.Policy policy = new InterestBatch.Policy(150, 50_000, 500);
+
+        try (TransactionJournal journal = new TransactionJournal(directory.resolve("journal"), 1 << 22, 0)) {
+            Ledger ledger = new Ledger(accounts, journal);
+            SplittableRandom random = new SplittableRandom(3);
+            for (int i = 0; i < accounts; i++) {
+                ledger.openAccount(random.nextLong(1_000_000));
+            }
+            journal.sync();
+            long before = ledger.totalBalance();
+
+            InterestBatch batch = new InterestBatch(ledger, policy, InterestBatch.DEFAULT_PARTITION_SIZE,
+                    directory.resolve("checkpoint.bin"));
+            InterestBatch.Summary summary = batch.run(1);
+            summary.print(false);
+
+            long expected = before + summary.totalInterestCents() - summary.totalFeeCents();
+            System.out.println("Ledger total " + (ledger.totalBalance() == expected ? "matches" : "DOES NOT MATCH")
+                    + " the posted interest and fees.");
+            System.out.println("Re-running the same day posts " + batch.run(1).accountsProcessed() + " accounts.");
+        }
+
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
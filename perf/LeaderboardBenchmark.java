@@ -0,0 +1,176 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public class LeaderboardBenchmark {
+    private static final int TOP = 100;
+    private static final int MAX_POLLS = 1 << 20;
+
+    private static volatile long consumed;
+
+    // Writer threads submit scores for random players while reader threads poll the top 100 and
+    // look up ranks and percentiles. Runs once without readers and once with them, so the writer
+    // rates show whether reading holds writers back. Afterwards every player's best score, the top
+    // 100 and a sample of ranks are checked against the scores that were submitted. A first
+    // unreported pass warms up the JIT.
+    public static void main(String[] args) throws InterruptedException {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int submits = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        int writers = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int readers = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+        int maxScore = args.length > 4 ? Integer.parseInt(args[4]) : 10_000;
+
+        String[] names = new String[players];
+        for (int i = 0; i < players; i++) {
+            names[i] = "P" + i;
+        }
+        System.out.println(players + " players, " + submits + " submits from " + writers + " writers, scores 0-" + maxScore);
+        boolean ok = run(names, submits, writers, readers, maxScore, false);
+        for (int readerCount : new int[] {0, readers}) {
+            ok &= run(names, submits, writers, readerCount, maxScore, true);
+        }
+        System.out.println(ok ? "Leaderboard matches the submitted scores (consistent)" : "Leaderboard differs (INCONSISTENT)");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean run(String[] names, int submits, int writers, int readers, int maxScore, boolean report)
+            throws InterruptedException {
+        Leaderboard leaderboard = new Leaderboard(maxScore);
+        AtomicIntegerArray expected = new AtomicIntegerArray(names.length);
+        for (int i = 0; i < names.length; i++) {
+            expected.set(i, -1);
+        }
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch writersDone = new CountDownLatch(writers);
+        long[][] topNanos = new long[readers][];
+        long[][] rankNanos = new long[readers][];
+
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            threads.add(new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(writer);
+                for (int i = writer; i < submits; i += writers) {
+                    int player = random.nextInt(names.length);
+                    int score = random.nextInt(maxScore + 1);
+                    expected.accumulateAndGet(player, score, Math::max);
+                    leaderboard.submit(player, names[player], score);
+                }
+                writersDone.countDown();
+            }));
+        }
+        for (int r = 0; r < readers; r++) {
+            int reader = r;
+            threads.add(new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(1000 + reader);
+                long[] top = new long[MAX_POLLS];
+                long[] rank = new long[MAX_POLLS];
+                int n = 0;
+                long sink = 0;
+                while (writing.get() && n < top.length) {
+                    long start = System.nanoTime();
+                    sink += leaderboard.top(TOP).size();
+                    top[n] = System.nanoTime() - start;
+                    int player = random.nextInt(names.length);
+                    start = System.nanoTime();
+                    sink += leaderboard.rank(player) + (long) leaderboard.percentile(player);
+                    rank[n++] = System.nanoTime() - start;
+                }
+                topNanos[reader] = Arrays.copyOf(top, n);
+                rankNanos[reader] = Arrays.copyOf(rank, n);
+                consumed += sink;
+            }));
+        }
+
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        writersDone.await();
+        long elapsedNanos = System.nanoTime() - start;
+        writing.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        if (!report) {
+            return verify(leaderboard, names, expected);
+        }
+        System.out.printf("%n%d readers: %.0f submits/sec%n", readers, submits / (elapsedNanos / 1e9));
+        if (readers > 0) {
+            print("top " + TOP, merge(topNanos));
+            print("rank+percentile", merge(rankNanos));
+        }
+        return verify(leaderboard, names, expected);
+    }
+
+    private static boolean verify(Leaderboard leaderboard, String[] names, AtomicIntegerArray expected) {
+        int[] histogram = new int[leaderboard.getMaxScore() + 1];
+        int submitted = 0;
+        boolean ok = true;
+        for (int i = 0; i < names.length; i++) {
+            int score = expected.get(i);
+            ok &= leaderboard.getScore(i) == score;
+            if (score >= 0) {
+                histogram[score]++;
+                submitted++;
+            }
+        }
+        ok &= leaderboard.size() == submitted && leaderboard.countAtMost(leaderboard.getMaxScore()) == submitted;
+
+        // The top entries must carry the highest submitted scores, in order.
+        List<Leaderboard.Entry> top = leaderboard.top(TOP);
+        int score = leaderboard.getMaxScore();
+        int left = histogram[score];
+        for (Leaderboard.Entry entry : top) {
+            while (left == 0 && score > 0) {
+                left = histogram[--score];
+            }
+            ok &= entry.getScore() == score && leaderboard.getScore(entry.getPlayerId()) == score
+                    && entry.getName().equals(names[(int) entry.getPlayerId()]);
+            left--;
+        }
+        ok &= top.size() == Math.min(TOP, submitted);
+
+        long[] above = new long[histogram.length + 1];
+        for (int s = histogram.length - 1; s >= 0; s--) {
+            above[s] = above[s + 1] + (s + 1 < histogram.length ? histogram[s + 1] : 0);
+        }
+        SplittableRandom random = new SplittableRandom(99);
+        for (int i = 0; i < 1_000; i++) {
+            int player = random.nextInt(names.length);
+            int best = expected.get(player);
+            ok &= leaderboard.rank(player) == (best < 0 ? 0 : above[best] + 1);
+        }
+        return ok;
+    }
+
+    private static long[] merge(long[][] perThread) {
+        int total = 0;
+        for (long[] nanos : perThread) {
+            total += nanos.length;
+        }
+        long[] merged = new long[total];
+        int offset = 0;
+        for (long[] nanos : perThread) {
+            System.arraycopy(nanos, 0, merged, offset, nanos.length);
+            offset += nanos.length;
+        }
+        Arrays.sort(merged);
+        return merged;
+    }
+
+    private static void print(String label, long[] sorted) {
+        if (sorted.length == 0) {
+            return;
+        }
+        System.out.printf("  %-16s %8d polls, p50 %6.1f us, p99 %7.1f us, max %8.1f us%n", label, sorted.length,
+                sorted[sorted.length / 2] / 1e3, sorted[(int) (sorted.length * 0.99)] / 1e3, sorted[sorted.length - 1] / 1e3);
+    }
+}
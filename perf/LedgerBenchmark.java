@@ -0,0 +1,81 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class LedgerBenchmark {
+    private static final long OPENING_CENTS = 10_000L;
+
+    public static void main(String[] args) throws InterruptedException {
+        int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int transfersPerThread = args.length > 2 ? Integer.parseInt(args[2]) : 2_000_000;
+
+        Ledger ledger = new Ledger(accounts);
+        for (int i = 0; i < accounts; i++) {
+            ledger.openAccount(OPENING_CENTS);
+        }
+        long expectedTotal = OPENING_CENTS * accounts;
+
+        System.out.println("Random transfers over " + accounts + " accounts");
+        System.out.printf("%-10s %-18s %-12s %-10s%n", "Threads", "Transfers/sec", "Rejected", "Total");
+        boolean ok = true;
+        for (int threads = 1; threads <= maxThreads; threads = threads == maxThreads ? threads + 1 : Math.min(threads * 2, maxThreads)) {
+            ok &= run(ledger, threads, transfersPerThread, expectedTotal);
+        }
+
+        if (!ok) {
+            System.out.println("Ledger total changed during transfers: FAILED.");
+            System.exit(1);
+        }
+    }
+
+    private static boolean run(Ledger ledger, int threads, int transfersPerThread, long expectedTotal)
+            throws InterruptedException {
+        int accounts = ledger.size();
+        long[] rejected = new long[threads];
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long myRejected = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < transfersPerThread; i++) {
+                    int from = random.nextInt(accounts);
+                    int to = random.nextInt(accounts);
+                    if (!ledger.transfer(from, to, 1 + random.nextInt(5_000))) {
+                        myRejected++;
+                    }
+                }
+                rejected[index] = myRejected;
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        long totalRejected = 0;
+        for (long r : rejected) {
+            totalRejected += r;
+        }
+        long total = ledger.totalBalance();
+        double perSec = (double) threads * transfersPerThread / (elapsedNanos / 1e9);
+        System.out.printf("%-10d %-18.0f %-12d %-10s%n", threads, perSec, totalRejected,
+                total == expectedTotal ? "conserved" : "CHANGED");
+        return total == expectedTotal;
+    }
+}
@@ -0,0 +1,148 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+public class MarkStatisticsBenchmark {
+    private static final String[] SUBJECTS = {
+            "Mathematics", "Physics", "Chemistry", "Biology", "English", "History",
+            "Geography", "Art", "Music", "Computer Science", "Economics", "French"
+    };
+    private static final double[] PERCENTILES = {0, 1, 10, 25, 50, 75, 90, 99, 100};
+    private static final int WORKERS = 8;
+    private static final int ROUNDS = 20;
+    private static final String GRADES = "ABCDF";
+
+    // Adds generated marks one at a time, both into one cohort and into a cohort per worker that
+    // are then merged, and checks every subject's count, mean, variance, percentiles and grade
+    // distribution against a full re-scan of the marks. Then adds more marks to the merged cohort
+    // and compares reading the report incrementally with re-scanning everything.
+    public static void main(String[] args) {
+        int marks = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        int more = marks / 20;
+        byte[] subjectOf = new byte[marks + more];
+        byte[] markOf = new byte[marks + more];
+        SplittableRandom random = new SplittableRandom(23);
+        for (int i = 0; i < subjectOf.length; i++) {
+            int subject = random.nextInt(SUBJECTS.length);
+            subjectOf[i] = (byte) subject;
+            markOf[i] = (byte) Math.min(100, Math.max(0, (int) (50 + 3 * subject + 15 * random.nextGaussian())));
+        }
+        System.out.println(marks + " marks over " + SUBJECTS.length + " subjects");
+
+        // A first unreported pass warms up the JIT.
+        fill(new CohortStatistics(), subjectOf, markOf, 0, marks);
+        long start = System.nanoTime();
+        CohortStatistics single = fill(new CohortStatistics(), subjectOf, markOf, 0, marks);
+        System.out.printf("Add one at a time: %.1f ns per mark%n", (double) (System.nanoTime() - start) / marks);
+
+        CohortStatistics[] parts = new CohortStatistics[WORKERS];
+        for (int w = 0; w < WORKERS; w++) {
+            parts[w] = fill(new CohortStatistics(), subjectOf, markOf,
+                    (int) ((long) marks * w / WORKERS), (int) ((long) marks * (w + 1) / WORKERS));
+        }
+        CohortStatistics merged = null;
+        long mergeNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            start = System.nanoTime();
+            merged = new CohortStatistics();
+            for (CohortStatistics part : parts) {
+                merged.merge(part);
+            }
+            mergeNanos = Math.min(mergeNanos, System.nanoTime() - start);
+        }
+        System.out.printf("Merge %d workers' cohorts: %.1f us%n", WORKERS, mergeNanos / 1e3);
+
+        boolean ok = matches(single, subjectOf, markOf, marks) && matches(merged, subjectOf, markOf, marks);
+
+        fill(merged, subjectOf, markOf, marks, marks + more);
+        double sink = 0;
+        long incrementalNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            start = System.nanoTime();
+            sink += report(merged);
+            incrementalNanos = Math.min(incrementalNanos, System.nanoTime() - start);
+        }
+        start = System.nanoTime();
+        ok &= matches(merged, subjectOf, markOf, marks + more);
+        long rescanNanos = System.nanoTime() - start;
+        System.out.printf("After %d more marks: report from running statistics %.1f us, full re-scan %.1f ms%n",
+                more, incrementalNanos / 1e3, rescanNanos / 1e6);
+
+        System.out.println(ok && sink > 0 ? "Statistics match a full re-scan (consistent)" : "Statistics differ (INCONSISTENT)");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static CohortStatistics fill(CohortStatistics cohort, byte[] subjectOf, byte[] markOf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            cohort.add(SUBJECTS[subjectOf[i]], markOf[i]);
+        }
+        return cohort;
+    }
+
+    // What a department report reads: every subject's mean, spread, percentiles and grades.
+    private static double report(CohortStatistics cohort) {
+        double sink = 0;
+        for (MarkStatistics statistics : cohort.getSubjects().values()) {
+            sink += statistics.mean() + statistics.standardDeviation();
+            for (double percentile : PERCENTILES) {
+                sink += statistics.percentile(percentile);
+            }
+            sink += statistics.gradeDistribution().size();
+        }
+        return sink;
+    }
+
+    private static boolean matches(CohortStatistics cohort, byte[] subjectOf, byte[] markOf, int count) {
+        int[][] bySubject = new int[SUBJECTS.length][];
+        int[] sizes = new int[SUBJECTS.length];
+        for (int s = 0; s < SUBJECTS.length; s++) {
+            bySubject[s] = new int[count / SUBJECTS.length + 1024];
+        }
+        int[] all = new int[count];
+        for (int i = 0; i < count; i++) {
+            int s = subjectOf[i];
+            if (sizes[s] == bySubject[s].length) {
+                bySubject[s] = Arrays.copyOf(bySubject[s], sizes[s] * 2);
+            }
+            bySubject[s][sizes[s]++] = markOf[i];
+            all[i] = markOf[i];
+        }
+        boolean ok = cohort.getSubjects().size() == SUBJECTS.length && matches(cohort.getOverall(), all);
+        for (int s = 0; s < SUBJECTS.length; s++) {
+            ok &= matches(cohort.getSubjects().get(SUBJECTS[s]), Arrays.copyOf(bySubject[s], sizes[s]));
+        }
+        return ok;
+    }
+
+    private static boolean matches(MarkStatistics statistics, int[] marks) {
+        Arrays.sort(marks);
+        long sum = 0;
+        for (int mark : marks) {
+            sum += mark;
+        }
+        double mean = (double) sum / marks.length;
+        double squares = 0;
+        for (int mark : marks) {
+            squares += (mark - mean) * (mark - mean);
+        }
+        double variance = squares / marks.length;
+
+        boolean ok = statistics.getCount() == marks.length && statistics.mean() == mean
+                && Math.abs(statistics.variance() - variance) <= 1e-9 * variance
+                && statistics.min() == marks[0] && statistics.max() == marks[marks.length - 1];
+        for (double percentile : PERCENTILES) {
+            int rank = Math.max(1, (int) Math.ceil(percentile / 100.0 * marks.length));
+            ok &= statistics.percentile(percentile) == marks[rank - 1];
+        }
+        long[] grades = new long[5];
+        for (int mark : marks) {
+            grades[GRADES.indexOf(StudentGradeCalculator.gradeFor(mark))]++;
+        }
+        for (Map.Entry<String, Long> entry : statistics.gradeDistribution().entrySet()) {
+            ok &= entry.getValue() == grades[GRADES.indexOf(entry.getKey())];
+        }
+        return ok;
+    }
+}
@@ -0,0 +1,85 @@
+import java.lang.management.ManagementFactory;
+
+public class MetricsOverheadBenchmark {
+    private static final int OPS = 5_000_000;
+    private static final int ROUNDS = 5;
+    // Budget for recording one sample, measured against the clock-only loop so the platform's
+    // System.nanoTime() cost is not charged to the histogram.
+    private static final double RECORD_BUDGET_NS = 25.0;
+
+    public static void main(String[] args) {
+        Ledger ledger = new Ledger(1);
+        int account = ledger.openAccount(1_000_000);
+        Metrics.Timer timer = Metrics.timer("benchmark.withdraw");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        long plainBest = Long.MAX_VALUE;
+        long timedBest = Long.MAX_VALUE;
+        long clockBest = Long.MAX_VALUE;
+        long allocated = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            plainBest = Math.min(plainBest, runPlain(ledger, account));
+            clockBest = Math.min(clockBest, runClockOnly(ledger, account));
+            long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            timedBest = Math.min(timedBest, runTimed(ledger, account, timer));
+            allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+        }
+
+        double plainNs = (double) plainBest / OPS;
+        double timedNs = (double) timedBest / OPS;
+        System.out.printf("Withdraw+deposit without metrics: %.1f ns/op%n", plainNs);
+        System.out.printf("Withdraw+deposit with metrics:    %.1f ns/op (+%.1f ns, %d bytes allocated over %d ops)%n",
+                timedNs, timedNs - plainNs, allocated, OPS);
+        double clockNs = (double) clockBest / OPS;
+        System.out.printf("  of which reading the clock:     %.1f ns/op%n", clockNs - plainNs);
+        System.out.print(Metrics.dump());
+
+        boolean ok = true;
+        if (allocated != 0) {
+            System.out.println("Timed loop allocated " + allocated + " bytes (expected none)");
+            ok = false;
+        }
+        if (timedNs - clockNs > RECORD_BUDGET_NS) {
+            System.out.printf("Recording costs %.1f ns/op (budget %.1f ns)%n", timedNs - clockNs, RECORD_BUDGET_NS);
+            ok = false;
+        }
+        System.out.println(ok ? "Metrics overhead within budget" : "Metrics overhead OVER BUDGET");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static long runPlain(Ledger ledger, int account) {
+        long start = System.nanoTime();
+        for (int i = 0; i < OPS; i++) {
+            ledger.withdraw(account, 100);
+            ledger.deposit(account, 100);
+        }
+        return System.nanoTime() - start;
+    }
+
+    // Same two System.nanoTime() calls as the timed loop but nothing recorded, to separate the
+    // clock cost (platform dependent) from the cost of the histogram update itself.
+    private static long runClockOnly(Ledger ledger, int account) {
+        long start = System.nanoTime();
+        long sink = 0;
+        for (int i = 0; i < OPS; i++) {
+            long opStart = System.nanoTime();
+            ledger.withdraw(account, 100);
+            ledger.deposit(account, 100);
+            sink += System.nanoTime() - opStart;
+        }
+        return System.nanoTime() - start + (sink < 0 ? 1 : 0);
+    }
+
+    private static long runTimed(Ledger ledger, int account, Metrics.Timer timer) {
+        long start = System.nanoTime();
+        for (int i = 0; i < OPS; i++) {
+            long opStart = System.nanoTime();
+            ledger.withdraw(account, 100);
+            ledger.deposit(account, 100);
+            timer.recordSince(opStart);
+        }
+        return System.nanoTime() - start;
+    }
+}
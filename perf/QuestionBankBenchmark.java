@@ -0,0 +1,164 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+public class QuestionBankBenchmark {
+    private static final int CATEGORIES = 20;
+    private static final int MAX_EAGER_LOAD = 1_000_000;
+    private static final String[] WORDS = {"planet", "river", "element", "composer", "theorem", "battle", "painter", "enzyme"};
+
+    // For each bank size: writes a bank, then times opening it (what a quiz pays at startup),
+    // drawing quizzes uniformly and by category weight, and, for comparison, decoding the whole
+    // bank into a list as an eager loader would (only up to MAX_EAGER_LOAD questions, beyond
+    // which a default heap no longer holds them). Every drawn question is checked against the one
+    // generated for its id, draws must never repeat within a sampler, and the smallest bank is
+    // drawn until empty to check that every question comes out exactly once.
+    public static void main(String[] args) throws IOException {
+        String[] sizes = (args.length > 0 ? args[0] : "100000,1000000,4000000").split(",");
+        int quizzes = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int quizLength = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        Path directory = Files.createTempDirectory("question-bank");
+        boolean ok = true;
+        try {
+            System.out.printf("%-10s %-10s %-10s %-12s %-16s %-16s %-14s%n", "Questions", "File MB", "Write s",
+                    "Open (us)", "Uniform (us/q)", "Weighted (us/q)", "Load all");
+            for (int s = 0; s < sizes.length; s++) {
+                int size = Integer.parseInt(sizes[s].trim());
+                Path file = directory.resolve("bank-" + size + ".qbank");
+                long start = System.nanoTime();
+                try (QuestionBank.Writer writer = new QuestionBank.Writer(file)) {
+                    for (int id = 0; id < size; id++) {
+                        writer.add(category(id), question(id));
+                    }
+                    writer.finish();
+                }
+                double writeSeconds = (System.nanoTime() - start) / 1e9;
+
+                long[] openNanos = new long[21];
+                for (int i = 0; i < openNanos.length; i++) {
+                    start = System.nanoTime();
+                    QuestionBank.open(file).close();
+                    openNanos[i] = System.nanoTime() - start;
+                }
+                Arrays.sort(openNanos);
+
+                try (QuestionBank bank = QuestionBank.open(file)) {
+                    ok &= bank.size() == size && bank.getCategories().size() == Math.min(size, CATEGORIES);
+                    SplittableRandom random = new SplittableRandom(size);
+                    start = System.nanoTime();
+                    for (int q = 0; q < quizzes; q++) {
+                        ok &= checkDraws(bank, bank.sampler(random), quizLength);
+                    }
+                    double uniformMicros = (System.nanoTime() - start) / 1e3 / quizzes / quizLength;
+
+                    Map<String, Double> weights = new HashMap<>();
+                    for (int c = 0; c < bank.getCategories().size(); c++) {
+                        weights.put(bank.getCategories().get(c), (double) (c + 1));
+                    }
+                    start = System.nanoTime();
+                    for (int q = 0; q < quizzes; q++) {
+                        ok &= checkDraws(bank, bank.sampler(weights, random), quizLength);
+                    }
+                    double weightedMicros = (System.nanoTime() - start) / 1e3 / quizzes / quizLength;
+
+                    String eagerLoad = "-";
+                    if (size <= MAX_EAGER_LOAD) {
+                        start = System.nanoTime();
+                        List<Question> all = new ArrayList<>(size);
+                        for (int id = 0; id < size; id++) {
+                            all.add(bank.get(id));
+                        }
+                        eagerLoad = String.format("%.2f s", (System.nanoTime() - start) / 1e9);
+                        ok &= all.size() == size;
+                    }
+
+                    if (s == 0) {
+                        ok &= drainsExactlyOnce(bank, new SplittableRandom(7));
+                        ok &= followsWeights(bank, weights, new SplittableRandom(11));
+                    }
+                    System.out.printf("%-10d %-10.1f %-10.2f %-12.1f %-16.2f %-16.2f %-14s%n", size, Files.size(file) / 1e6,
+                            writeSeconds, openNanos[openNanos.length / 2] / 1e3, uniformMicros, weightedMicros, eagerLoad);
+                }
+                Files.delete(file);
+            }
+        } finally {
+            try (var files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+        System.out.println(ok ? "Draws match the generated questions (consistent)" : "Draws differ (INCONSISTENT)");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean checkDraws(QuestionBank bank, QuestionBank.Sampler sampler, int count) {
+        Map<Integer, Boolean> seen = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            int id = sampler.nextId();
+            if (id < 0 || seen.put(id, Boolean.TRUE) != null || !matches(bank.get(id), question(id))
+                    || !bank.getCategory(id).equals(category(id))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean drainsExactlyOnce(QuestionBank bank, SplittableRandom random) {
+        BitSet seen = new BitSet(bank.size());
+        QuestionBank.Sampler sampler = bank.sampler(random);
+        int id;
+        while ((id = sampler.nextId()) >= 0) {
+            if (seen.get(id)) {
+                return false;
+            }
+            seen.set(id);
+        }
+        return seen.cardinality() == bank.size();
+    }
+
+    // The first draws of many samplers should split between categories in proportion to the weights.
+    private static boolean followsWeights(QuestionBank bank, Map<String, Double> weights, SplittableRandom random) {
+        int trials = 200_000;
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < trials; i++) {
+            counts.merge(bank.getCategory(bank.sampler(weights, random).nextId()), 1, Integer::sum);
+        }
+        double total = weights.values().stream().mapToDouble(Double::doubleValue).sum();
+        for (Map.Entry<String, Double> weight : weights.entrySet()) {
+            double expected = weight.getValue() / total;
+            double actual = counts.getOrDefault(weight.getKey(), 0) / (double) trials;
+            if (Math.abs(actual - expected) > 0.01) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String category(int id) {
+        return "Category " + (id % CATEGORIES);
+    }
+
+    private static Question question(int id) {
+        String word = WORDS[id % WORDS.length];
+        List<String> options = List.of(word + " " + (id * 7 % 1000), word + " " + (id * 13 % 1000),
+                word + " " + (id * 17 % 1000), word + " " + (id * 19 % 1000));
+        return new Question("Question " + id + ": which " + word + " is described by clue " + Integer.toString(id, 36) + "?",
+                options, (char) ('A' + id % 4));
+    }
+
+    private static boolean matches(Question actual, Question expected) {
+        return actual.getQuestion().equals(expected.getQuestion()) && actual.getOptions().equals(expected.getOptions())
+                && actual.getCorrectAnswer() == expected.getCorrectAnswer();
+    }
+}
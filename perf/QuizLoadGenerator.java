@@ -0,0 +1,173 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class QuizLoadGenerator {
+    private static final Pattern QUESTION = Pattern.compile("\nQuestion (\\d+): ");
+    private static final int MAX_QUESTIONS = 64;
+
+    // Every simulated player connects, thinks for a random while before each answer and lets a
+    // share of the questions run into their deadline. Reports the server's answer-handling
+    // latency as seen by the client, how late the pushed timeouts arrive, and completed quiz
+    // sessions per second.
+    public static void main(String[] args) throws InterruptedException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : QuizServer.DEFAULT_PORT;
+        String[] sessionCounts = (args.length > 2 ? args[2] : "1000,5000").split(",");
+        int thinkMillis = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+        int skipPercent = args.length > 4 ? Integer.parseInt(args[4]) : 5;
+        int answerSeconds = args.length > 5 ? Integer.parseInt(args[5]) : QuizServer.DEFAULT_ANSWER_SECONDS;
+
+        for (String count : sessionCounts) {
+            run(host, port, Integer.parseInt(count.trim()), thinkMillis, skipPercent, TimeUnit.SECONDS.toNanos(answerSeconds));
+        }
+    }
+
+    private static void run(String host, int port, int sessions, int thinkMillis, int skipPercent, long answerNanos)
+            throws InterruptedException {
+        long[][] answerLatencies = new long[sessions][MAX_QUESTIONS];
+        long[][] timeoutLateness = new long[sessions][MAX_QUESTIONS];
+        int[] answers = new int[sessions];
+        int[] timeouts = new int[sessions];
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(sessions);
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("quiz-client");
+
+        long start = System.nanoTime();
+        for (int s = 0; s < sessions; s++) {
+            int session = s;
+            executor.execute(() -> {
+                try {
+                    Counts counts = runSession(host, port, new SplittableRandom(session), thinkMillis, skipPercent, answerNanos,
+                            answerLatencies[session], timeoutLateness[session]);
+                    answers[session] = counts.answers;
+                    timeouts[session] = counts.timeouts;
+                } catch (IOException | InterruptedException e) {
+                    failures.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsedNanos = System.nanoTime() - start;
+        executor.shutdown();
+
+        System.out.println("\n" + sessions + " concurrent players, " + thinkMillis + " ms mean think time, "
+                + skipPercent + "% of questions left to time out"
+                + (failures.get() > 0 ? " (" + failures.get() + " sessions failed)" : ""));
+        System.out.printf("%-22s %-10s %-12s %-12s %-12s%n", "", "Count", "p50 (us)", "p99 (us)", "max (us)");
+        print("Answer handled", merge(answerLatencies, answers));
+        print("Timeout past deadline", merge(timeoutLateness, timeouts));
+        System.out.printf("Throughput: %.0f sessions/sec%n", (sessions - failures.get()) / (elapsedNanos / 1e9));
+    }
+
+    static final class Counts {
+        int answers;
+        int timeouts;
+    }
+
+    private static Counts runSession(String host, int port, SplittableRandom random, int thinkMillis, int skipPercent,
+                                     long answerNanos, long[] answerLatencies, long[] timeoutLateness)
+            throws IOException, InterruptedException {
+        Counts counts = new Counts();
+        try (Socket socket = new Socket(host, port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            readResponse(in);
+            send(out, "Player " + random.nextInt(1_000_000));
+            String response = readResponse(in);
+            long askedAt = System.nanoTime();
+            int answered = 0;
+
+            while (!response.contains("Quiz Completed!")) {
+                Matcher question = QUESTION.matcher(response);
+                int number = 0;
+                while (question.find()) {
+                    number = Integer.parseInt(question.group(1));
+                }
+                if (number <= answered || answered >= MAX_QUESTIONS) {
+                    // A reply about an answer that crossed a pushed timeout; the next response follows.
+                    response = readResponse(in);
+                    continue;
+                }
+                answered = number;
+                if (random.nextInt(100) < skipPercent) {
+                    response = readResponse(in);
+                    long now = System.nanoTime();
+                    timeoutLateness[counts.timeouts++] = now - askedAt - answerNanos;
+                    askedAt = now;
+                    continue;
+                }
+                if (thinkMillis > 0) {
+                    Thread.sleep(random.nextInt(2 * thinkMillis));
+                }
+                long sent = System.nanoTime();
+                send(out, number + " " + (char) ('A' + random.nextInt(4)));
+                response = readResponse(in);
+                askedAt = System.nanoTime();
+                answerLatencies[counts.answers++] = askedAt - sent;
+            }
+        }
+        return counts;
+    }
+
+    private static void send(BufferedWriter out, String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+        out.flush();
+    }
+
+    private static String readResponse(BufferedReader in) throws IOException {
+        StringBuilder response = new StringBuilder("\n");
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.equals(QuizServer.END_OF_RESPONSE)) {
+                return response.toString();
+            }
+            response.append(line).append('\n');
+        }
+        throw new IOException("Server closed the session.");
+    }
+
+    private static long[] merge(long[][] perSession, int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        long[] merged = new long[total];
+        int offset = 0;
+        for (int s = 0; s < perSession.length; s++) {
+            System.arraycopy(perSession[s], 0, merged, offset, counts[s]);
+            offset += counts[s];
+        }
+        Arrays.sort(merged);
+        return merged;
+    }
+
+    private static void print(String label, long[] sorted) {
+        System.out.printf("%-22s %-10d %-12d %-12d %-12d%n", label, sorted.length,
+                percentile(sorted, 0.50) / 1000, percentile(sorted, 0.99) / 1000,
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1000);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+}
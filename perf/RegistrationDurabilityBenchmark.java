@@ -0,0 +1,96 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+public class RegistrationDurabilityBenchmark {
+    private static final int COURSES = 500;
+    private static final int STUDENTS = 50_000;
+
+    // Each client registers or drops and then waits until its change is durable, as the console
+    // does before printing a result. Group commit lets concurrent clients share one fsync, so
+    // throughput should grow with the client count; the in-memory run is the ceiling.
+    public static void main(String[] args) throws Exception {
+        String clientCounts = args.length > 0 ? args[0] : "1,8,64";
+        long seconds = args.length > 1 ? Long.parseLong(args[1]) : 3;
+
+        for (String count : clientCounts.split(",")) {
+            int clients = Integer.parseInt(count.trim());
+            run("in-memory", clients, seconds, null);
+            Path directory = Files.createTempDirectory("registration-durability");
+            try {
+                run("durable", clients, seconds, directory);
+            } finally {
+                deleteRecursively(directory);
+            }
+        }
+    }
+
+    private static void run(String label, int clients, long seconds, Path directory) throws Exception {
+        StudentCourseRegistrationSystem.RegistrationSystem system = directory == null
+                ? new StudentCourseRegistrationSystem.RegistrationSystem()
+                : RegistrationSnapshot.recover(directory, false, 0);
+        for (int i = 0; i < COURSES; i++) {
+            system.addCourse("C" + i, "Course " + i, "Benchmark course.", STUDENTS / COURSES * 4);
+        }
+        for (int i = 0; i < STUDENTS; i++) {
+            system.createStudent("S" + i, "Student " + i);
+        }
+        system.awaitDurable();
+        long syncsBefore = directory == null ? 0 : system.getLog().getSyncCount();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder mutations = new LongAdder();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < clients; t++) {
+            int index = t;
+            Thread worker = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(index);
+                while (running.get()) {
+                    String student = "S" + random.nextInt(STUDENTS);
+                    String course = "C" + random.nextInt(COURSES);
+                    StudentCourseRegistrationSystem.RegistrationResult result = system.tryRegister(student, course);
+                    if (result == StudentCourseRegistrationSystem.RegistrationResult.ALREADY_REGISTERED) {
+                        system.tryDrop(student, course);
+                    }
+                    system.awaitDurable();
+                    mutations.increment();
+                }
+            });
+            workers.add(worker);
+        }
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        Thread.sleep(seconds * 1000);
+        running.set(false);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        if (directory == null) {
+            System.out.printf("%-9s %3d clients: %,10.0f mutations/sec%n", label, clients, mutations.sum() / elapsed);
+        } else {
+            long syncs = system.getLog().getSyncCount() - syncsBefore;
+            System.out.printf("%-9s %3d clients: %,10.0f mutations/sec, %,d fsyncs (%.1f mutations per fsync)%n",
+                    label, clients, mutations.sum() / elapsed, syncs, syncs == 0 ? 0 : (double) mutations.sum() / syncs);
+            system.getLog().close();
+        }
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
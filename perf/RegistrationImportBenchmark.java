@@ -0,0 +1,108 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+public class RegistrationImportBenchmark {
+    private static final int MALFORMED_EVERY = 10_000;
+
+    // Generates course, student and enrollment files with a sprinkling of bad rows, imports them
+    // at each thread count and checks that every row is accounted for and that the roster index
+    // agrees with the enrollments that were loaded.
+    public static void main(String[] args) throws IOException {
+        int courseCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int studentCount = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int enrollmentCount = args.length > 2 ? Integer.parseInt(args[2]) : 5_000_000;
+        String threadCounts = args.length > 3 ? args[3] : "1," + Runtime.getRuntime().availableProcessors();
+
+        Path directory = Files.createTempDirectory("registration-import");
+        try {
+            Path courses = directory.resolve("courses.csv");
+            Path students = directory.resolve("students.csv");
+            Path enrollments = directory.resolve("enrollments.csv");
+            long expectedRejected = generate(courses, students, enrollments, courseCount, studentCount, enrollmentCount);
+            System.out.println(courseCount + " courses, " + studentCount + " students, " + enrollmentCount + " enrollment rows");
+
+            boolean ok = true;
+            for (String count : threadCounts.split(",")) {
+                int threads = Integer.parseInt(count.trim());
+                StudentCourseRegistrationSystem.RegistrationSystem system =
+                        new StudentCourseRegistrationSystem.RegistrationSystem(Boolean.getBoolean("registration.compact"));
+                RegistrationImporter importer = new RegistrationImporter(system, threads, RegistrationImporter.DEFAULT_CHUNK_ROWS);
+                long start = System.nanoTime();
+                RegistrationImporter.Summary[] summaries = importer.importAll(courses, students, enrollments, directory.resolve("report.csv"));
+                long elapsedNanos = System.nanoTime() - start;
+
+                long rejected = 0;
+                for (RegistrationImporter.Summary summary : summaries) {
+                    rejected += summary.getRejected();
+                    ok &= summary.getLoaded() + summary.getWaitlisted() + summary.getRejected() == summary.getRows();
+                }
+                long rosterTotal = 0;
+                for (int c = 0; c < courseCount; c++) {
+                    rosterTotal += system.getEnrolledCount("C" + c);
+                }
+                RegistrationImporter.Summary enrollmentSummary = summaries[2];
+                // Duplicate and unknown-reference rows depend on the data, not on the thread count,
+                // so only the deliberately malformed rows are checked exactly.
+                long reportLines;
+                try (Stream<String> lines = Files.lines(directory.resolve("report.csv"))) {
+                    reportLines = lines.count() - 1;
+                }
+                ok &= rosterTotal == enrollmentSummary.getLoaded() && rejected >= expectedRejected && reportLines == rejected;
+
+                System.out.printf("%2d threads: %.2f s total, enrollments %.0f rows/sec%n",
+                        threads, elapsedNanos / 1e9, enrollmentSummary.rowsPerSecond());
+                for (RegistrationImporter.Summary summary : summaries) {
+                    System.out.println("    " + summary);
+                }
+            }
+            System.out.println(ok ? "All rows accounted for (consistent)" : "Row accounting mismatch (INCONSISTENT)");
+            if (!ok) {
+                System.exit(1);
+            }
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    // Returns the number of rows written malformed on purpose.
+    private static long generate(Path courses, Path students, Path enrollments,
+                                 int courseCount, int studentCount, int enrollmentCount) throws IOException {
+        long malformed = 0;
+        SplittableRandom random = new SplittableRandom(11);
+        int capacity = Math.max(1, (int) ((long) enrollmentCount / courseCount));
+        try (BufferedWriter writer = Files.newBufferedWriter(courses, StandardCharsets.UTF_8)) {
+            writer.write("code,capacity,title,description\n");
+            for (int i = 0; i < courseCount; i++) {
+                writer.write("C" + i + "," + capacity + ",Course " + i + ",Generated course, section " + i + "\n");
+            }
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(students, StandardCharsets.UTF_8)) {
+            writer.write("id,name\n");
+            for (int i = 0; i < studentCount; i++) {
+                writer.write("S" + i + ",Student " + i + "\n");
+            }
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(enrollments, StandardCharsets.UTF_8)) {
+            writer.write("student,course\n");
+            for (int i = 0; i < enrollmentCount; i++) {
+                if (i % MALFORMED_EVERY == MALFORMED_EVERY - 1) {
+                    writer.write("S" + i + "\n");
+                    malformed++;
+                } else {
+                    writer.write("S" + random.nextInt(studentCount) + ",C" + random.nextInt(courseCount) + "\n");
+                }
+            }
+        }
+        return malformed;
+    }
+}
@@ -0,0 +1,270 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+public class RegistrationRecoveryCheck {
+    private static final int INITIAL_COURSES = 20;
+    private static final int ACK_EVERY = 50;
+    private static final long SNAPSHOT_PAUSE_MILLIS = 40;
+
+    // Each round starts a child JVM that runs a deterministic registration workload against a
+    // durable store, with a thread taking fuzzy snapshots alongside, and kills it at a random
+    // moment. Some rounds also append a torn record to the log or corrupt the newest snapshot.
+    // The recovered state must include everything the child acknowledged as durable and must
+    // equal a clean replay of the same log prefix from an uncrashed reference run.
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("child")) {
+            runChild(Paths.get(args[1]), Long.parseLong(args[2]));
+            return;
+        }
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        SplittableRandom random = new SplittableRandom(args.length > 1 ? Long.parseLong(args[1]) : 1);
+        Path root = Files.createTempDirectory("registration-recovery");
+        boolean ok = true;
+        try {
+            for (int round = 0; round < rounds; round++) {
+                ok &= runRound(root.resolve("round-" + round), round, random);
+            }
+        } finally {
+            deleteRecursively(root);
+        }
+        System.out.println(ok ? "All rounds recovered (consistent)" : "Recovery mismatch (INCONSISTENT)");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean runRound(Path directory, int round, SplittableRandom random) throws Exception {
+        long seed = random.nextLong();
+        Path crashed = directory.resolve("crashed");
+        Process child = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), RegistrationRecoveryCheck.class.getName(),
+                "child", crashed.toString(), Long.toString(seed))
+                .redirectErrorStream(true)
+                .start();
+        AtomicLong acknowledged = new AtomicLong();
+        Thread reader = new Thread(() -> {
+            try (BufferedReader lines = new BufferedReader(new InputStreamReader(child.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    if (line.startsWith("durable ")) {
+                        acknowledged.set(Long.parseLong(line.substring(8)));
+                    }
+                }
+            } catch (IOException e) {
+                // The child was killed.
+            }
+        });
+        reader.start();
+        Thread.sleep(400 + random.nextInt(1200));
+        child.destroyForcibly().waitFor();
+        reader.join();
+
+        String damage = "none";
+        if (round % 3 == 1) {
+            damage = "torn log record";
+            appendGarbage(newest(crashed.resolve("log")), random);
+        } else if (round % 3 == 2 && countFiles(crashed.resolve("snapshots")) > 1) {
+            damage = "corrupt newest snapshot";
+            flipByte(newest(crashed.resolve("snapshots")), random);
+        }
+
+        StudentCourseRegistrationSystem.RegistrationSystem recovered = RegistrationSnapshot.recover(crashed, false, 0);
+        long recoveredSequence = recovered.getLog().lastSequence();
+        long recoveredFingerprint = fingerprint(recovered);
+        recovered.getLog().close();
+
+        // The reference run never crashes; replaying its first records must give the same state.
+        Path reference = directory.resolve("reference");
+        StudentCourseRegistrationSystem.RegistrationSystem live = RegistrationSnapshot.recover(reference, false, 0);
+        Workload workload = new Workload(live, seed);
+        while (live.getLog().lastSequence() < recoveredSequence) {
+            workload.step();
+        }
+        live.getLog().close();
+        StudentCourseRegistrationSystem.RegistrationSystem replayed = new StudentCourseRegistrationSystem.RegistrationSystem();
+        try (RegistrationLog log = new RegistrationLog(reference.resolve("log"), 0)) {
+            log.replay(0, record -> {
+                if (record.getSequence() <= recoveredSequence) {
+                    replayed.replay(record);
+                }
+            });
+        }
+        long expectedFingerprint = fingerprint(replayed);
+
+        boolean ok = recoveredSequence >= acknowledged.get() && recoveredFingerprint == expectedFingerprint
+                && recoveredFingerprint != -1;
+        System.out.printf("Round %d: killed after %d durable records, recovered %d (damage: %s)%s%n",
+                round, acknowledged.get(), recoveredSequence, damage, ok ? "" : " MISMATCH");
+        return ok;
+    }
+
+    private static void runChild(Path directory, long seed) throws IOException {
+        StudentCourseRegistrationSystem.RegistrationSystem system = RegistrationSnapshot.recover(directory, false, 0);
+        Thread snapshots = new Thread(() -> {
+            while (true) {
+                try {
+                    Thread.sleep(SNAPSHOT_PAUSE_MILLIS);
+                    RegistrationSnapshot.snapshot(system, directory);
+                } catch (InterruptedException | IOException e) {
+                    return;
+                }
+            }
+        });
+        snapshots.setDaemon(true);
+        snapshots.start();
+
+        Workload workload = new Workload(system, seed);
+        for (long op = 1; ; op++) {
+            workload.step();
+            if (op % ACK_EVERY == 0) {
+                system.awaitDurable();
+                System.out.println("durable " + system.getLog().durableSequence());
+            }
+        }
+    }
+
+    // Single threaded and seeded, so a run always produces the same log records in the same order.
+    static final class Workload {
+        private final StudentCourseRegistrationSystem.RegistrationSystem system;
+        private final SplittableRandom random;
+        private final List<String> students = new ArrayList<>();
+        private final List<String> courses = new ArrayList<>();
+
+        Workload(StudentCourseRegistrationSystem.RegistrationSystem system, long seed) {
+            this.system = system;
+            this.random = new SplittableRandom(seed);
+            for (int i = 0; i < INITIAL_COURSES; i++) {
+                addCourse();
+            }
+        }
+
+        void step() {
+            int roll = random.nextInt(100);
+            if (roll < 8 || students.isEmpty()) {
+                String id = "S" + students.size();
+                system.createStudent(id, "Student " + students.size());
+                students.add(id);
+            } else if (roll < 10) {
+                addCourse();
+            } else if (roll < 65) {
+                system.tryRegister(student(), course());
+            } else if (roll < 70) {
+                system.tryRegisterAll(student(), List.of(course(), course()));
+            } else {
+                system.tryDrop(student(), course());
+            }
+        }
+
+        private void addCourse() {
+            String code = "C" + courses.size();
+            String[] days = {"MON", "TUE", "WED", "THU", "FRI"};
+            int hour = 8 + random.nextInt(10);
+            WeeklySchedule schedule = random.nextBoolean() ? WeeklySchedule.NONE
+                    : WeeklySchedule.parse(days[random.nextInt(days.length)] + " " + hour + ":00-" + (hour + 1) + ":30");
+            system.addCourse(code, "Course " + courses.size(), "Recovery check course.", 3 + random.nextInt(20), schedule);
+            courses.add(code);
+        }
+
+        private String student() {
+            return students.get(random.nextInt(students.size()));
+        }
+
+        private String course() {
+            return courses.get(random.nextInt(courses.size()));
+        }
+    }
+
+    // Checksum over a canonical rendering of the state, or -1 when the two indexes disagree.
+    static long fingerprint(StudentCourseRegistrationSystem.RegistrationSystem system) {
+        CRC32C crc = new CRC32C();
+        List<StudentCourseRegistrationSystem.Course> courses = new ArrayList<>(system.getCourses());
+        courses.sort(Comparator.comparing(StudentCourseRegistrationSystem.Course::getCode));
+        for (StudentCourseRegistrationSystem.Course course : courses) {
+            List<String> roster = new ArrayList<>(course.getRoster());
+            if (roster.size() != course.getEnrolled()) {
+                return -1;
+            }
+            Collections.sort(roster);
+            for (String id : roster) {
+                if (!system.getStudent(id).isRegisteredFor(course.getCode())) {
+                    return -1;
+                }
+            }
+            update(crc, course.getCode() + "|" + course.getTitle() + "|" + course.getCapacity() + "|" + course.getSchedule() + "|" + roster
+                    + "|" + course.getWaitlist());
+        }
+        List<StudentCourseRegistrationSystem.Student> students = new ArrayList<>(system.getStudents());
+        students.sort(Comparator.comparing(StudentCourseRegistrationSystem.Student::getId));
+        for (StudentCourseRegistrationSystem.Student student : students) {
+            List<String> registered = new ArrayList<>(student.getRegisteredCourses());
+            Collections.sort(registered);
+            for (String code : registered) {
+                if (!system.isEnrolled(student.getId(), code)) {
+                    return -1;
+                }
+            }
+            update(crc, student.getId() + "|" + student.getName() + "|" + registered);
+        }
+        return crc.getValue();
+    }
+
+    private static void update(CRC32C crc, String text) {
+        crc.update(text.getBytes(StandardCharsets.UTF_8));
+        crc.update('\n');
+    }
+
+    private static Path newest(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> !path.toString().endsWith(".tmp")).max(Comparator.naturalOrder()).orElseThrow();
+        }
+    }
+
+    private static long countFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> !path.toString().endsWith(".tmp")).count();
+        }
+    }
+
+    private static void appendGarbage(Path file, SplittableRandom random) throws IOException {
+        byte[] garbage = new byte[1 + random.nextInt(40)];
+        for (int i = 0; i < garbage.length; i++) {
+            garbage[i] = (byte) random.nextInt(256);
+        }
+        try (RandomAccessFile out = new RandomAccessFile(file.toFile(), "rw")) {
+            out.seek(out.length());
+            out.write(garbage);
+        }
+    }
+
+    private static void flipByte(Path file, SplittableRandom random) throws IOException {
+        try (RandomAccessFile out = new RandomAccessFile(file.toFile(), "rw")) {
+            long position = 16 + random.nextLong(Math.max(1, out.length() - 24));
+            out.seek(position);
+            int value = out.read();
+            out.seek(position);
+            out.write(value ^ 0x5A);
+        }
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RegistrationRushBenchmark {
+    private static final String HOT_COURSE = "HOT100";
+    private static final String SIDE_COURSE = "SIDE200";
+
+    public static void main(String[] args) throws InterruptedException {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int capacity = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+
+        System.out.println(students + " students rushing one course of " + capacity + " seats");
+        System.out.printf("%-10s %-20s %-10s %-12s %-10s%n", "Threads", "Attempts/sec", "Enrolled", "Multi-course", "Result");
+        boolean ok = true;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ok &= run(students, capacity, threads);
+        }
+        if (!ok) {
+            System.out.println("Oversubscription or inconsistent enrollment detected: FAILED.");
+            System.exit(1);
+        }
+        System.out.println("No oversubscription at any thread count.");
+    }
+
+    // Every student tries the hot course alone; every tenth student instead tries the hot and
+    // side courses together, which must succeed or fail as a pair.
+    private static boolean run(int students, int capacity, int threads) throws InterruptedException {
+        StudentCourseRegistrationSystem.RegistrationSystem system = new StudentCourseRegistrationSystem.RegistrationSystem();
+        system.addCourse(HOT_COURSE, "Hot Course", "Everyone wants in.", capacity);
+        system.addCourse(SIDE_COURSE, "Side Course", "Paired with the hot course.", students);
+        for (int i = 0; i < students; i++) {
+            system.createStudent("S" + i, "Student " + i);
+        }
+
+        AtomicInteger registered = new AtomicInteger();
+        AtomicInteger pairs = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        List<String> pair = Arrays.asList(HOT_COURSE, SIDE_COURSE);
+
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = offset; i < students; i += threads) {
+                    String studentId = "S" + i;
+                    if (i % 10 == 0) {
+                        if (system.tryRegisterAll(studentId, pair) == StudentCourseRegistrationSystem.RegistrationResult.REGISTERED) {
+                            registered.incrementAndGet();
+                            pairs.incrementAndGet();
+                        }
+                    } else if (system.tryRegister(studentId, HOT_COURSE) == StudentCourseRegistrationSystem.RegistrationResult.REGISTERED) {
+                        registered.incrementAndGet();
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        int hotEnrolled = system.getCourse(HOT_COURSE).getEnrolled();
+        int sideEnrolled = system.getCourse(SIDE_COURSE).getEnrolled();
+        int holdingHot = 0;
+        int holdingSide = 0;
+        for (int i = 0; i < students; i++) {
+            StudentCourseRegistrationSystem.Student student = system.getStudent("S" + i);
+            holdingHot += student.getRegisteredCourses().contains(HOT_COURSE) ? 1 : 0;
+            holdingSide += student.getRegisteredCourses().contains(SIDE_COURSE) ? 1 : 0;
+        }
+
+        boolean ok = hotEnrolled == Math.min(capacity, students) && hotEnrolled == holdingHot
+                && hotEnrolled == registered.get() && sideEnrolled == pairs.get() && sideEnrolled == holdingSide;
+        System.out.printf("%-10d %-20.0f %-10d %-12d %-10s%n", threads, students / (elapsedNanos / 1e9),
+                hotEnrolled, pairs.get(), ok ? "OK" : "FAILED");
+        return ok;
+    }
+}
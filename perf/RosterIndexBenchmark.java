@@ -0,0 +1,107 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class RosterIndexBenchmark {
+    // Concurrently registers and drops random (student, course) pairs, then checks that the
+    // student -> courses sets and the course -> roster index describe the same enrollments
+    // and times the roster queries, which must not scan.
+    public static void main(String[] args) throws InterruptedException {
+        int studentCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int courseCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int operationsPerStudent = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Math.max(4, Runtime.getRuntime().availableProcessors());
+        int queries = 5_000_000;
+
+        StudentCourseRegistrationSystem.RegistrationSystem system = new StudentCourseRegistrationSystem.RegistrationSystem();
+        String[] courseCodes = new String[courseCount];
+        int capacity = Math.max(1, studentCount / courseCount * operationsPerStudent);
+        for (int i = 0; i < courseCount; i++) {
+            courseCodes[i] = "C" + i;
+            system.addCourse(courseCodes[i], "Course " + i, "Generated course.", capacity);
+        }
+        String[] studentIds = new String[studentCount];
+        for (int i = 0; i < studentCount; i++) {
+            studentIds[i] = "S" + i;
+            system.createStudent(studentIds[i], "Student " + i);
+        }
+
+        // One in four operations is a drop, which also exercises waitlist promotion into the roster.
+        long startNanos = System.nanoTime();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            Thread worker = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(index);
+                for (int s = index; s < studentCount; s += threads) {
+                    for (int op = 0; op < operationsPerStudent; op++) {
+                        String code = courseCodes[random.nextInt(courseCount)];
+                        if (random.nextInt(4) == 0) {
+                            system.tryDrop(studentIds[s], code);
+                        } else {
+                            system.tryRegister(studentIds[s], code);
+                        }
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long buildNanos = System.nanoTime() - startNanos;
+        long operations = (long) studentCount * operationsPerStudent;
+
+        long studentSide = 0;
+        long mismatches = 0;
+        for (String id : studentIds) {
+            for (String code : system.getStudent(id).getRegisteredCourses()) {
+                studentSide++;
+                if (!system.isEnrolled(id, code)) {
+                    mismatches++;
+                }
+            }
+        }
+        long rosterSide = 0;
+        for (String code : courseCodes) {
+            StudentCourseRegistrationSystem.Course course = system.getCourse(code);
+            int rosterSize = system.getEnrolledCount(code);
+            rosterSide += rosterSize;
+            if (rosterSize != course.getEnrolled()) {
+                mismatches++;
+            }
+            for (String id : system.getRoster(code)) {
+                if (!system.getStudent(id).getRegisteredCourses().contains(code)) {
+                    mismatches++;
+                }
+            }
+        }
+        boolean ok = mismatches == 0 && studentSide == rosterSide;
+
+        SplittableRandom random = new SplittableRandom(42);
+        long hits = 0;
+        long queryStart = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            hits += system.isEnrolled(studentIds[random.nextInt(studentCount)], courseCodes[random.nextInt(courseCount)]) ? 1 : 0;
+        }
+        long isEnrolledNanos = System.nanoTime() - queryStart;
+        long seats = 0;
+        queryStart = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            seats += system.getEnrolledCount(courseCodes[random.nextInt(courseCount)]);
+        }
+        long countNanos = System.nanoTime() - queryStart;
+
+        System.out.println(studentCount + " students x " + courseCount + " courses, " + threads + " threads");
+        System.out.printf("Register/drop operations: %d in %.2f s (%.0f/sec)%n",
+                operations, buildNanos / 1e9, operations / (buildNanos / 1e9));
+        System.out.println("Enrollments: student side " + studentSide + ", roster side " + rosterSide
+                + ", mismatches " + mismatches + (ok ? " (consistent)" : " (INCONSISTENT)"));
+        System.out.printf("isEnrolled: %.1f ns/query (%d hits)%n", (double) isEnrolledNanos / queries, hits);
+        System.out.printf("getEnrolledCount: %.1f ns/query (checksum %d)%n", (double) countNanos / queries, seats);
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+}
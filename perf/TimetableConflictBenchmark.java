@@ -0,0 +1,131 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class TimetableConflictBenchmark {
+    private static final String[] DAYS = {"MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+    // Students fill their timetables with as many non-clashing courses as they can get, then
+    // random candidate courses are checked against them with the per-student interval index and
+    // with a pairwise comparison against every registered course. Both must agree.
+    public static void main(String[] args) {
+        int courseCount = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int studentCount = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int attemptsPerStudent = args.length > 2 ? Integer.parseInt(args[2]) : 300;
+        int checks = args.length > 3 ? Integer.parseInt(args[3]) : 2_000_000;
+        SplittableRandom random = new SplittableRandom(5);
+
+        StudentCourseRegistrationSystem.RegistrationSystem system = new StudentCourseRegistrationSystem.RegistrationSystem();
+        String[] codes = new String[courseCount];
+        for (int i = 0; i < courseCount; i++) {
+            codes[i] = "T" + i;
+            system.addCourse(codes[i], "Timetabled " + i, "Benchmark section.", studentCount, schedule(random));
+        }
+        String[] students = new String[studentCount];
+        long conflicts = 0;
+        long registered = 0;
+        long fillStart = System.nanoTime();
+        for (int s = 0; s < studentCount; s++) {
+            students[s] = "S" + s;
+            system.createStudent(students[s], "Student " + s);
+            for (int a = 0; a < attemptsPerStudent; a++) {
+                StudentCourseRegistrationSystem.RegistrationResult result = system.tryRegister(students[s], codes[random.nextInt(courseCount)]);
+                conflicts += result == StudentCourseRegistrationSystem.RegistrationResult.SCHEDULE_CONFLICT ? 1 : 0;
+                registered += result == StudentCourseRegistrationSystem.RegistrationResult.REGISTERED ? 1 : 0;
+            }
+        }
+        long fillNanos = System.nanoTime() - fillStart;
+        long meetings = 0;
+        for (String student : students) {
+            meetings += system.getStudent(student).getBookedMeetings().length / 2;
+        }
+
+        StudentCourseRegistrationSystem.Student[] studentObjects = new StudentCourseRegistrationSystem.Student[checks];
+        WeeklySchedule[] candidates = new WeeklySchedule[checks];
+        for (int i = 0; i < checks; i++) {
+            studentObjects[i] = system.getStudent(students[random.nextInt(studentCount)]);
+            candidates[i] = system.getCourse(codes[random.nextInt(courseCount)]).getSchedule();
+        }
+
+        boolean ok = true;
+        long indexedClashes = 0;
+        long pairwiseClashes = 0;
+        long indexedNanos = 0;
+        long pairwiseNanos = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            indexedClashes = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < checks; i++) {
+                indexedClashes += studentObjects[i].clashesWith(candidates[i]) ? 1 : 0;
+            }
+            indexedNanos = System.nanoTime() - start;
+
+            pairwiseClashes = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < checks; i++) {
+                pairwiseClashes += pairwiseClash(system, studentObjects[i], candidates[i]) ? 1 : 0;
+            }
+            pairwiseNanos = System.nanoTime() - start;
+        }
+        ok &= indexedClashes == pairwiseClashes;
+        for (int i = 0; i < 10_000; i++) {
+            ok &= studentObjects[i].clashesWith(candidates[i]) == pairwiseClash(system, studentObjects[i], candidates[i]);
+        }
+
+        // Multi-course path: three courses at once must fit the timetable and each other.
+        long bulkStart = System.nanoTime();
+        int bulkRequests = 200_000;
+        long bulkConflicts = 0;
+        for (int i = 0; i < bulkRequests; i++) {
+            List<String> wanted = new ArrayList<>(3);
+            for (int c = 0; c < 3; c++) {
+                wanted.add(codes[random.nextInt(courseCount)]);
+            }
+            StudentCourseRegistrationSystem.RegistrationResult result =
+                    system.tryRegisterAll(students[random.nextInt(studentCount)], wanted);
+            bulkConflicts += result == StudentCourseRegistrationSystem.RegistrationResult.SCHEDULE_CONFLICT ? 1 : 0;
+        }
+        long bulkNanos = System.nanoTime() - bulkStart;
+
+        System.out.printf("%d students, %d registered courses (%.1f per student, %.1f booked meetings each)%n",
+                studentCount, registered, (double) registered / studentCount, (double) meetings / studentCount);
+        System.out.printf("Filling timetables: %d registration attempts in %.2f s, %d rejected as clashes%n",
+                (long) studentCount * attemptsPerStudent, fillNanos / 1e9, conflicts);
+        System.out.printf("Interval index: %,.0f checks/sec (%d clashes)%n", checks / (indexedNanos / 1e9), indexedClashes);
+        System.out.printf("Pairwise scan:  %,.0f checks/sec (%d clashes)%n", checks / (pairwiseNanos / 1e9), pairwiseClashes);
+        System.out.printf("Three-course registrations: %,.0f/sec (%d clashes)%n", bulkRequests / (bulkNanos / 1e9), bulkConflicts);
+        System.out.println(ok ? "Index agrees with pairwise check (consistent)" : "Index disagrees with pairwise check (INCONSISTENT)");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    // The approach without an index: compare against every registered course's meetings.
+    private static boolean pairwiseClash(StudentCourseRegistrationSystem.RegistrationSystem system,
+                                         StudentCourseRegistrationSystem.Student student, WeeklySchedule candidate) {
+        for (String code : student.getRegisteredCourses()) {
+            if (system.getCourse(code).getSchedule().overlaps(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Two or three meetings of 50 to 110 minutes on distinct days between 08:00 and 20:00.
+    private static WeeklySchedule schedule(SplittableRandom random) {
+        int meetings = 2 + random.nextInt(2);
+        int firstDay = random.nextInt(DAYS.length);
+        StringBuilder text = new StringBuilder();
+        for (int m = 0; m < meetings; m++) {
+            int start = 8 * 60 + 5 * random.nextInt(120);
+            int end = start + 50 + 20 * random.nextInt(4);
+            if (m > 0) {
+                text.append(';');
+            }
+            text.append(DAYS[(firstDay + 2 * m) % DAYS.length]).append(' ')
+                    .append(start / 60).append(':').append(String.format("%02d", start % 60)).append('-')
+                    .append(end / 60).append(':').append(String.format("%02d", end % 60));
+        }
+        return WeeklySchedule.parse(text.toString());
+    }
+}
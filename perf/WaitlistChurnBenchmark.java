@@ -0,0 +1,90 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+public class WaitlistChurnBenchmark {
+    private static final String COURSE = "HOT100";
+
+    // Every student is always either seated or waitlisted: churn threads drop seated students
+    // (which promotes the waitlist head) and immediately re-register them at the back. Each
+    // thread owns its own slice of students so it only ever drops someone who is seated.
+    public static void main(String[] args) throws InterruptedException {
+        int capacity = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int waitlisted = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Math.max(4, Runtime.getRuntime().availableProcessors());
+        int dropsPerThread = args.length > 3 ? Integer.parseInt(args[3]) : 200_000;
+        int total = capacity + waitlisted;
+
+        StudentCourseRegistrationSystem.RegistrationSystem system = new StudentCourseRegistrationSystem.RegistrationSystem();
+        system.addCourse(COURSE, "Hot Course", "Always oversubscribed.", capacity);
+        String[] ids = new String[total];
+        for (int i = 0; i < total; i++) {
+            ids[i] = "S" + i;
+            system.createStudent(ids[i], "Student " + i);
+            system.tryRegister(ids[i], COURSE);
+        }
+
+        long[][] latencies = new long[threads][dropsPerThread];
+        int[] drops = new int[threads];
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            Thread worker = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(index);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                while (drops[index] < dropsPerThread) {
+                    String id = ids[index + threads * random.nextInt((total - index + threads - 1) / threads)];
+                    if (!system.getStudent(id).getRegisteredCourses().contains(COURSE)) {
+                        continue;
+                    }
+                    long begin = System.nanoTime();
+                    if (system.tryDrop(id, COURSE) == StudentCourseRegistrationSystem.RegistrationResult.DROPPED) {
+                        latencies[index][drops[index]++] = System.nanoTime() - begin;
+                        system.tryRegister(id, COURSE);
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        long[] all = new long[threads * dropsPerThread];
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(latencies[t], 0, all, t * dropsPerThread, dropsPerThread);
+        }
+        Arrays.sort(all);
+
+        StudentCourseRegistrationSystem.Course course = system.getCourse(COURSE);
+        int seated = 0;
+        for (String id : ids) {
+            seated += system.getStudent(id).getRegisteredCourses().contains(COURSE) ? 1 : 0;
+        }
+        boolean ok = course.getEnrolled() == capacity && seated == capacity && course.getWaitlistSize() == waitlisted;
+
+        System.out.println(threads + " threads churning a course of " + capacity + " seats with " + waitlisted + " waitlisted");
+        System.out.printf("Drops with promotion: %d (%.0f/sec)%n", all.length, all.length / (elapsedNanos / 1e9));
+        System.out.printf("Drop-to-promotion latency: p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us%n",
+                all[all.length / 2] / 1e3, all[(int) (all.length * 0.99)] / 1e3,
+                all[(int) (all.length * 0.999)] / 1e3, all[all.length - 1] / 1e3);
+        System.out.println("Seats " + course.getEnrolled() + ", seated students " + seated + ", waitlist "
+                + course.getWaitlistSize() + (ok ? " (consistent)" : " (INCONSISTENT)"));
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+}